@@ -0,0 +1,74 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAEGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Input files for the benchmarks.
+ * A name is either one of the test fixtures (e.g. "cube.dae") or "generated-&lt;triangles&gt;",
+ * which writes a skinned, animated {@link DAEGenerator} mesh with that many triangles to the
+ * temp directory and reuses it on later runs. "quads-&lt;triangles&gt;" writes the same mesh as a
+ * &lt;polylist&gt; of quads. "scene-&lt;meshes&gt;x&lt;triangles&gt;" writes that many such meshes,
+ * each its own geometry and skin controller, for comparing serial and parallel decoding.
+ */
+final class BenchmarkFiles {
+
+    private static final String GENERATED_PREFIX = "generated-";
+    private static final String QUADS_PREFIX = "quads-";
+    private static final String SCENE_PREFIX = "scene-";
+    private static final int JOINT_COUNT = 32;
+    private static final int KEYFRAME_COUNT = 120;
+    private static final int NODE_DEPTH = 4;
+
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * Gets a benchmark input as a file on disk.
+     *
+     * @param name Fixture name, "generated-&lt;triangles&gt;", "quads-&lt;triangles&gt;" or
+     *             "scene-&lt;meshes&gt;x&lt;triangles&gt;"
+     * @return File holding the input
+     * @throws IOException if the file cannot be written
+     */
+    static File get(String name) throws IOException {
+        boolean generated = name.startsWith(GENERATED_PREFIX) || name.startsWith(QUADS_PREFIX)
+                || name.startsWith(SCENE_PREFIX);
+        File file = new File(System.getProperty("java.io.tmpdir"), "dae-benchmark-" + name
+                + (generated ? ".dae" : ""));
+        if (file.isFile()) {
+            return file;
+        }
+        File temp = File.createTempFile("dae-benchmark", ".tmp", file.getParentFile());
+        if (generated) {
+            DAEGenerator generator = new DAEGenerator();
+            String size = name.substring(name.indexOf('-') + 1);
+            if (name.startsWith(SCENE_PREFIX)) {
+                int separator = size.indexOf('x');
+                generator.setMeshCount(Integer.parseInt(size.substring(0, separator)));
+                size = size.substring(separator + 1);
+            }
+            generator.setTriangleCount(Integer.parseInt(size));
+            generator.setPolylist(name.startsWith(QUADS_PREFIX));
+            generator.setJointCount(JOINT_COUNT);
+            generator.setInfluencesPerVertex(4);
+            generator.setKeyframeCount(KEYFRAME_COUNT);
+            generator.setNodeDepth(NODE_DEPTH);
+            generator.write(temp);
+        } else {
+            try (InputStream in = BenchmarkFiles.class.getResourceAsStream("/fixtures/" + name)) {
+                if (in == null) {
+                    throw new IOException("Unknown fixture: " + name);
+                }
+                Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+}
@@ -0,0 +1,40 @@
+package com.daeparser.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Accepts the usual JMH command line and always adds the GC profiler, so every result
+ * reports allocation rate (gc.alloc.rate.norm) next to ops/s.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                  # everything
+ * java -jar target/benchmarks.jar ParserBenchmark  # one class
+ * java -jar target/benchmarks.jar -p input=generated-1000000
+ * </pre>
+ */
+public final class DAEBenchmarks {
+
+    private DAEBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        boolean hasGcProfiler = false;
+        for (ProfilerConfig profiler : commandLine.getProfilers()) {
+            if (profiler.getKlass().equals(GCProfiler.class.getName()) || profiler.getKlass().equals("gc")) {
+                hasGcProfiler = true;
+            }
+        }
+        if (!hasGcProfiler) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
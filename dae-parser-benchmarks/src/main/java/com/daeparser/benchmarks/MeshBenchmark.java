@@ -0,0 +1,105 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAEDocument;
+import com.daeparser.DAEEncodedVertices;
+import com.daeparser.DAEIndexedMesh;
+import com.daeparser.DAEMesh;
+import com.daeparser.DAEMeshSimplifier;
+import com.daeparser.DAEParser;
+import com.daeparser.DAETangentSpaceGenerator;
+import com.daeparser.DAEVertexCacheOptimizer;
+import com.daeparser.DAEVertexFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triangulation and vertex buffer generation on an already parsed mesh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeshBenchmark {
+
+    @Param({"cube.dae", "generated-10000", "generated-1000000", "quads-1000000"})
+    public String input;
+
+    private DAEMesh mesh;
+    private DAEIndexedMesh indexedMesh;
+    private ByteBuffer vertexBuffer;
+    private DAEVertexFormat compactFormat;
+
+    @Setup
+    public void setUp() throws Exception {
+        DAEDocument doc = DAEParser.parse(BenchmarkFiles.get(input));
+        mesh = doc.getGeometries().get(0).getMesh();
+        indexedMesh = mesh.buildIndexedMesh();
+        vertexBuffer = ByteBuffer.allocateDirect(mesh.getTriangulatedVertexDataSize() * 4)
+                .order(ByteOrder.nativeOrder());
+        compactFormat = DAEVertexFormat.compact();
+    }
+
+    @Benchmark
+    public float[] triangulatedVertexData() {
+        return mesh.getTriangulatedVertexData();
+    }
+
+    @Benchmark
+    public ByteBuffer writeTriangulatedVertexData() {
+        vertexBuffer.clear();
+        mesh.writeTriangulatedVertexData(vertexBuffer);
+        return vertexBuffer;
+    }
+
+    @Benchmark
+    public DAEIndexedMesh buildIndexedMesh() {
+        // Drop the cached vertex indexer so every call deduplicates again
+        mesh.invalidateLayout();
+        return mesh.buildIndexedMesh();
+    }
+
+    @Benchmark
+    public DAEVertexCacheOptimizer.Result optimizeVertexCache() {
+        return new DAEVertexCacheOptimizer().optimize(indexedMesh);
+    }
+
+    @Benchmark
+    public DAEEncodedVertices encodeCompactVertexData() {
+        return mesh.encodeVertexData(indexedMesh.getVertices(), compactFormat);
+    }
+
+    @Benchmark
+    public List<DAEMeshSimplifier.Lod> buildLodChain() {
+        return new DAEMeshSimplifier().buildLodChain(indexedMesh);
+    }
+
+    @Benchmark
+    public DAEMesh generateTangents() {
+        // A copy sharing the source and index arrays, without the tangents of the previous call
+        DAEMesh copy = new DAEMesh();
+        copy.setSources(new ArrayList<>(mesh.getSources()));
+        copy.setInputSemantics(new LinkedHashMap<>(mesh.getInputSemantics()));
+        copy.setInputOffsets(new LinkedHashMap<>(mesh.getInputOffsets()));
+        copy.setIndices(mesh.getIndices(), mesh.getIndexStride());
+        new DAETangentSpaceGenerator().generateTangents(copy);
+        return copy;
+    }
+}
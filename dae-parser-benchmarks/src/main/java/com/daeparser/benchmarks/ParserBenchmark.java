@@ -0,0 +1,87 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAEBinaryReader;
+import com.daeparser.DAEBinaryWriter;
+import com.daeparser.DAEDocument;
+import com.daeparser.DAEParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full document parse: DOM from File and InputStream, streaming, memory-mapped, lazy and parallel, and loading
+ * the same document from the binary cache format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"cube.dae", "animated_cube.dae", "skinned_cylinder.dae", "generated-10000", "generated-1000000", "quads-1000000",
+            "scene-16x62500"})
+    public String input;
+
+    private File file;
+    private File binaryFile;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkFiles.get(input);
+        bytes = Files.readAllBytes(file.toPath());
+        binaryFile = File.createTempFile("dae-benchmark", ".daeb");
+        binaryFile.deleteOnExit();
+        DAEBinaryWriter.write(DAEParser.parse(file), binaryFile);
+    }
+
+    @Benchmark
+    public DAEDocument parseFile() throws Exception {
+        return DAEParser.parse(file);
+    }
+
+    @Benchmark
+    public DAEDocument parseInputStream() throws Exception {
+        return DAEParser.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public DAEDocument parseStreaming() throws Exception {
+        return DAEParser.parseStreaming(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public DAEDocument parseMapped() throws Exception {
+        return DAEParser.parse(file.toPath());
+    }
+
+    @Benchmark
+    public DAEDocument parseLazy() throws Exception {
+        return DAEParser.parseLazy(file.toPath());
+    }
+
+    @Benchmark
+    public DAEDocument parseParallel() throws Exception {
+        return DAEParser.parseParallel(file);
+    }
+
+    @Benchmark
+    public DAEDocument readBinary() throws Exception {
+        return DAEBinaryReader.read(binaryFile);
+    }
+}
@@ -0,0 +1,81 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAENode;
+import com.daeparser.DAEParser;
+import com.daeparser.DAEScene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scene graph traversal computing world transforms, as a renderer would per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SceneBenchmark {
+
+    private static final float[] IDENTITY = {
+        1, 0, 0, 0,
+        0, 1, 0, 0,
+        0, 0, 1, 0,
+        0, 0, 0, 1
+    };
+
+    @Param({"skinned_cylinder.dae", "generated-10000"})
+    public String input;
+
+    private DAEScene scene;
+
+    @Setup
+    public void setUp() throws Exception {
+        scene = DAEParser.parse(BenchmarkFiles.get(input)).getScene();
+    }
+
+    @Benchmark
+    public void worldTransforms(Blackhole blackhole) {
+        for (DAENode node : scene.getNodes()) {
+            visit(node, IDENTITY, blackhole);
+        }
+    }
+
+    private static void visit(DAENode node, float[] parent, Blackhole blackhole) {
+        float[] local = node.getTransformation();
+        float[] world = local != null ? multiply(parent, local) : parent;
+        blackhole.consume(world);
+        for (DAENode child : node.getChildren()) {
+            visit(child, world, blackhole);
+        }
+    }
+
+    /**
+     * Multiplies two row-major 4x4 matrices.
+     */
+    private static float[] multiply(float[] a, float[] b) {
+        float[] result = new float[16];
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                float sum = 0;
+                for (int k = 0; k < 4; k++) {
+                    sum += a[row * 4 + k] * b[k * 4 + col];
+                }
+                result[row * 4 + col] = sum;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAEParser;
+import com.daeparser.DAESkin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of per-vertex joint influences from a parsed skin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkinBenchmark {
+
+    @Param({"skinned_cylinder.dae", "generated-1000000"})
+    public String input;
+
+    private DAESkin skin;
+
+    @Setup
+    public void setUp() throws Exception {
+        skin = DAEParser.parse(BenchmarkFiles.get(input)).getControllers().get(0).getSkin();
+    }
+
+    @Benchmark
+    public void vertexJointInfluences(Blackhole blackhole) {
+        int vertexCount = skin.getVertexWeights().size();
+        for (int i = 0; i < vertexCount; i++) {
+            blackhole.consume(skin.getVertexJointInfluences(i));
+        }
+    }
+
+    @Benchmark
+    public void inverseBindMatrices(Blackhole blackhole) {
+        for (int i = 0; i < skin.getJointCount(); i++) {
+            blackhole.consume(skin.getJointInverseBindMatrix(i));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.daeparser.benchmarks;
+
+import com.daeparser.DAENumberScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of &lt;float_array&gt; and &lt;p&gt; text, compared with the split and parse
+ * approach the parser used before {@link DAENumberScanner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    private String floatText;
+    private String intText;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder floats = new StringBuilder();
+        StringBuilder ints = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            floats.append(String.format(Locale.ROOT, "%.6f", random.nextFloat() * 200 - 100)).append(' ');
+            ints.append(random.nextInt(count)).append(' ');
+        }
+        floatText = floats.toString();
+        intText = ints.toString();
+    }
+
+    @Benchmark
+    public float[] scanFloats() {
+        return DAENumberScanner.parseFloats(floatText);
+    }
+
+    @Benchmark
+    public float[] splitFloats() {
+        String[] values = floatText.trim().split("\\s+");
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Float.parseFloat(values[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] scanInts() {
+        return DAENumberScanner.parseInts(intText);
+    }
+}
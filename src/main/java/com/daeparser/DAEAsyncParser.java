@@ -0,0 +1,186 @@
+package com.daeparser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs {@link DAEParser#parse(Path)} as a cancellable task with progress reporting.
+ * The parse itself is {@link DAEParser#parseMapped(Path, DAEParseOptions, DAEParseMonitor)};
+ * its monitor reports the file position as the XML is read and aborts the parse once the
+ * returned future is cancelled.
+ */
+final class DAEAsyncParser {
+
+    /** Minimum number of bytes between two progress reports. */
+    private static final long MIN_PROGRESS_STEP = 1 << 16;
+
+    private DAEAsyncParser() {
+    }
+
+    /**
+     * Starts parsing a file.
+     *
+     * @param path     DAE file
+     * @param executor Executor to parse on, or null for {@link #getDefaultExecutor()}
+     * @param progress Progress callback, or null
+     * @return Future completed with the document
+     */
+    static CompletableFuture<DAEDocument> parse(Path path, Executor executor, DAEParseProgress progress) {
+        CompletableFuture<DAEDocument> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (future.isDone()) {
+                return; // Cancelled before it started
+            }
+            try {
+                future.complete(parse(path, future, progress));
+            } catch (Throwable e) {
+                // After cancellation this is the CancellationException thrown below and is ignored
+                future.completeExceptionally(e);
+            }
+        };
+        (executor != null ? executor : getDefaultExecutor()).execute(task);
+        return future;
+    }
+
+    private static DAEDocument parse(Path path, CompletableFuture<?> future, DAEParseProgress progress)
+            throws Exception {
+        long size = Files.size(path);
+        report(progress, DAEParseProgress.Phase.SCANNING, 0, size);
+        DAEDocument document = DAEParser.parseMapped(path, new DAEParseOptions(), new Monitor(size, future, progress));
+        report(progress, DAEParseProgress.Phase.COMPLETE, size, size);
+        return document;
+    }
+
+    private static void report(DAEParseProgress progress, DAEParseProgress.Phase phase, long bytesRead, long totalBytes) {
+        if (progress != null) {
+            progress.progress(phase, bytesRead, totalBytes);
+        }
+    }
+
+    /**
+     * Gets the executor used when none is given: one virtual thread per task on Java 21 and
+     * later, otherwise a shared pool of daemon threads, one per processor.
+     */
+    static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static final class DefaultExecutorHolder {
+        static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                // Looked up reflectively so the library still runs on Java 8
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                AtomicInteger threadCount = new AtomicInteger();
+                ThreadFactory threadFactory = runnable -> {
+                    Thread thread = new Thread(runnable, "dae-parser-async-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+            }
+        }
+    }
+
+    /**
+     * Reports the file position while the XML is read and stops the parse on cancellation,
+     * both between reads and while payloads are decoded.
+     */
+    private static final class Monitor implements DAEParseMonitor {
+        private final long size;
+        private final CompletableFuture<?> future;
+        private final DAEParseProgress progress;
+
+        Monitor(long size, CompletableFuture<?> future, DAEParseProgress progress) {
+            this.size = size;
+            this.future = future;
+            this.progress = progress;
+        }
+
+        @Override
+        public InputStream monitor(InputStream in, LongSupplier position) {
+            return new ProgressStream(in, position, this);
+        }
+
+        @Override
+        public void decoding() {
+            checkCancelled();
+        }
+
+        void checkCancelled() {
+            if (future.isCancelled()) {
+                throw new CancellationException("Parse cancelled");
+            }
+        }
+    }
+
+    /**
+     * Stream read by the XML parser, see {@link Monitor}.
+     */
+    private static final class ProgressStream extends FilterInputStream {
+        private final LongSupplier position;
+        private final Monitor monitor;
+        private final long step;
+        private long count;
+        private long nextReport;
+
+        ProgressStream(InputStream in, LongSupplier position, Monitor monitor) {
+            super(in);
+            this.position = position;
+            this.monitor = monitor;
+            this.step = Math.max(monitor.size / 100, MIN_PROGRESS_STEP);
+        }
+
+        @Override
+        public int read() throws IOException {
+            monitor.checkCancelled();
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            update();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            monitor.checkCancelled();
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            update();
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        private void update() {
+            long bytesRead = position != null ? position.getAsLong() : count;
+            if (monitor.progress != null && bytesRead >= nextReport) {
+                nextReport = bytesRead + step;
+                monitor.progress.progress(DAEParseProgress.Phase.PARSING, bytesRead, monitor.size);
+            }
+        }
+    }
+}
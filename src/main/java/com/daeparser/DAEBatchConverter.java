@@ -0,0 +1,457 @@
+package com.daeparser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Command-line tool converting many DAE files into engine-ready data.
+ *
+ * <pre>
+ * java -cp dae-parser.jar com.daeparser.DAEBatchConverter -o out [-f binary|indexed] [-j threads] [--force] input...
+ * </pre>
+ *
+ * <p>Inputs are files, directories (searched recursively for .dae files) or glob patterns such as
+ * {@code assets/**&#47;*.dae}. A glob is matched against paths relative to its directory part
+ * ({@code assets}, or the working directory), and {@code **&#47;} also matches no directory.
+ * Files are converted in parallel on a fixed number of worker threads.
+ * Each input produces one output file below the output directory, mirroring its path relative to
+ * the directory or glob base it was found in; inputs that would share an output are rejected:</p>
+ * <ul>
+ *   <li>{@code binary} (default): the {@link DAEBinaryWriter} cache format, {@code .daeb}</li>
+ *   <li>{@code indexed}: the {@link DAEMesh#writeIndexedMesh(ByteBuffer, ByteBuffer)} vertex and
+ *       index buffers of every geometry, {@code .mesh} (layout below)</li>
+ * </ul>
+ *
+ * <p>Outputs are written to a temporary file and moved into place, so an interrupted run leaves
+ * no partial outputs. Inputs whose output is newer than the input are skipped, which makes a
+ * rerun resume where the last one stopped; {@code --force} converts everything again.</p>
+ *
+ * <p>The {@code .mesh} layout (native byte order, every field 4-byte aligned):</p>
+ * <pre>
+ * "DAEM" magic, int version, int mesh count
+ * per mesh: string geometry id, int attribute count, (string semantic, int components) per attribute,
+ *           int vertex count, int index size (2 or 4), int index count,
+ *           int group count, (string material, int first index, int index count) per primitive group,
+ *           vertex data (float), index data (padded to 4 bytes)
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes padded to 4 bytes.
+ */
+public class DAEBatchConverter {
+
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        BINARY(".daeb"), INDEXED(".mesh");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Magic bytes at the start of every indexed mesh file. */
+    static final byte[] MESH_MAGIC = {'D', 'A', 'E', 'M'};
+
+    /** Current indexed mesh file version. */
+    static final int MESH_VERSION = 2;
+
+    private static final String INPUT_EXTENSION = ".dae";
+
+    private final File outputDirectory;
+    private Format format;
+    private int threads;
+    private boolean force;
+
+    /**
+     * Creates a converter writing binary documents with one worker per processor.
+     *
+     * @param outputDirectory Directory receiving the converted files
+     */
+    public DAEBatchConverter(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        this.format = Format.BINARY;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.force = false;
+    }
+
+    public static void main(String[] args) {
+        File outputDirectory = null;
+        Format format = Format.BINARY;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean force = false;
+        List<String> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-o")) {
+                    outputDirectory = new File(args[++i]);
+                } else if (arg.equals("-f")) {
+                    format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if (arg.equals("-j")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--force")) {
+                    force = true;
+                } else {
+                    inputs.add(arg);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            outputDirectory = null;
+        }
+        if (outputDirectory == null || inputs.isEmpty()) {
+            System.err.println("Usage: DAEBatchConverter -o <output dir> [-f binary|indexed] [-j threads] [--force] <input>...");
+            System.err.println("Inputs are DAE files, directories or glob patterns (e.g. \"assets/**/*.dae\").");
+            System.exit(2);
+        }
+
+        DAEBatchConverter converter = new DAEBatchConverter(outputDirectory);
+        converter.setFormat(format);
+        converter.setThreads(threads);
+        converter.setForce(force);
+        try {
+            int failures = converter.convert(inputs, System.out);
+            System.exit(failures == 0 ? 0 : 1);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of worker threads, which bounds the number of files held in memory at once.
+     *
+     * @param threads Worker count
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    /**
+     * Sets whether inputs with an up-to-date output are converted again.
+     *
+     * @param force true to convert every input
+     */
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    /**
+     * Converts all files matched by the inputs, printing one line per file and a summary.
+     *
+     * @param inputs Files, directories or glob patterns
+     * @param report Stream receiving the progress report
+     * @return Number of files that failed to convert
+     * @throws IOException if an input directory cannot be listed
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public int convert(List<String> inputs, PrintStream report) throws IOException, InterruptedException {
+        Map<Path, Path> files = resolveInputs(inputs);
+        Files.createDirectories(outputDirectory.toPath());
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(files.size(), 1)));
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            for (Map.Entry<Path, Path> file : files.entrySet()) {
+                results.add(executor.submit(() -> convert(file.getKey(), file.getValue(), report)));
+            }
+
+            long bytes = 0;
+            int converted = 0;
+            int skipped = 0;
+            int failures = 0;
+            for (Future<Long> result : results) {
+                try {
+                    long size = result.get();
+                    if (size < 0) {
+                        skipped++;
+                    } else {
+                        converted++;
+                        bytes += size;
+                    }
+                } catch (ExecutionException e) {
+                    failures++;
+                }
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            report.println(String.format(Locale.ROOT,
+                    "%d converted, %d up to date, %d failed: %.1f MB in %.2f s (%.1f MB/s)",
+                    converted, skipped, failures, bytes / 1e6, seconds, bytes / 1e6 / seconds));
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Converts one file.
+     *
+     * @return Input size in bytes, or -1 if the output was up to date
+     */
+    private long convert(Path input, Path relative, PrintStream report) throws Exception {
+        File output = new File(outputDirectory, getOutputBase(relative) + format.getExtension());
+        File inputFile = input.toFile();
+        if (!force && output.isFile() && output.lastModified() >= inputFile.lastModified()) {
+            return -1;
+        }
+
+        long start = System.nanoTime();
+        long size = inputFile.length();
+        try {
+            Files.createDirectories(output.getParentFile().toPath());
+            File temp = File.createTempFile("convert", ".tmp", output.getParentFile());
+            try {
+                if (format == Format.BINARY) {
+                    DAEBinaryWriter.write(DAEParser.parse(input), temp);
+                } else {
+                    DAEParseOptions options = new DAEParseOptions();
+                    options.includeOnly(DAEParseOptions.Library.GEOMETRIES);
+                    writeIndexedMeshes(DAEParser.parse(input, options), temp);
+                }
+                try {
+                    Files.move(temp.toPath(), output.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                temp.delete();
+            }
+        } catch (Exception e) {
+            report.println("FAIL " + input + ": " + e);
+            throw e;
+        }
+
+        double millis = (System.nanoTime() - start) / 1e6;
+        report.println(String.format(Locale.ROOT, "OK   %s  %.2f MB  %.1f ms  %.1f MB/s",
+                input, size / 1e6, millis, size / 1e3 / millis));
+        return size;
+    }
+
+    /**
+     * Gets the output path of an input relative to the output directory, without extension.
+     */
+    private static String getOutputBase(Path relative) {
+        String name = relative.normalize().toString();
+        return name.toLowerCase(Locale.ROOT).endsWith(INPUT_EXTENSION)
+                ? name.substring(0, name.length() - INPUT_EXTENSION.length()) : name;
+    }
+
+    /**
+     * Expands the inputs into DAE files.
+     *
+     * @return Each file mapped to its path relative to the directory or glob base it was found in
+     * @throws IOException if an input does not exist or matches nothing, or two inputs would be
+     *                     written to the same output
+     */
+    static Map<Path, Path> resolveInputs(List<String> inputs) throws IOException {
+        Map<Path, Path> files = new LinkedHashMap<>();
+        for (String input : inputs) {
+            if (isGlob(input)) {
+                int split = globBaseLength(input);
+                Path base = Paths.get(split == 0 ? "." : input.substring(0, split));
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + toPattern(input.substring(split)));
+                int before = files.size();
+                if (Files.isDirectory(base)) {
+                    try (Stream<Path> paths = Files.walk(base)) {
+                        paths.filter(path -> Files.isRegularFile(path) && matcher.matches(base.relativize(path)))
+                                .sorted()
+                                .forEach(path -> files.putIfAbsent(path.toAbsolutePath().normalize(), base.relativize(path)));
+                    }
+                }
+                if (files.size() == before) {
+                    throw new IOException("No files match: " + input);
+                }
+            } else {
+                Path path = Paths.get(input);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> paths = Files.walk(path)) {
+                        paths.filter(file -> Files.isRegularFile(file) && file.getFileName().toString()
+                                        .toLowerCase(Locale.ROOT).endsWith(INPUT_EXTENSION))
+                                .sorted()
+                                .forEach(file -> files.putIfAbsent(file.toAbsolutePath().normalize(), path.relativize(file)));
+                    }
+                } else if (Files.isRegularFile(path)) {
+                    files.putIfAbsent(path.toAbsolutePath().normalize(), path.getFileName());
+                } else {
+                    throw new IOException("Input not found: " + input);
+                }
+            }
+        }
+
+        Map<String, Path> outputs = new LinkedHashMap<>();
+        for (Map.Entry<Path, Path> file : files.entrySet()) {
+            Path other = outputs.putIfAbsent(getOutputBase(file.getValue()), file.getKey());
+            if (other != null) {
+                throw new IOException("Inputs " + other + " and " + file.getKey() + " map to the same output path "
+                        + getOutputBase(file.getValue()) + "; convert them in separate runs or from their directories");
+            }
+        }
+        return files;
+    }
+
+    private static boolean isGlob(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the length of the directory part of a glob before its first wildcard, including the
+     * separator. The rest of the glob is matched against paths relative to that directory.
+     */
+    private static int globBaseLength(String glob) {
+        int wildcard = 0;
+        while ("*?[{".indexOf(glob.charAt(wildcard)) < 0) {
+            wildcard++;
+        }
+        int separator = Math.max(glob.lastIndexOf('/', wildcard), glob.lastIndexOf(File.separatorChar, wildcard));
+        return separator + 1;
+    }
+
+    /**
+     * Lets each "**&#47;" of a glob also match no directory, so {@code **&#47;*.dae} includes the
+     * files directly in the base directory. Globs with their own groups are left as they are,
+     * since groups do not nest.
+     */
+    private static String toPattern(String glob) {
+        return glob.indexOf('{') >= 0 ? glob : glob.replace("**/", "{**/,}");
+    }
+
+    /**
+     * Writes the indexed vertex and index buffers of every geometry in the .mesh layout.
+     * Geometries without a usable mesh are left out.
+     */
+    static void writeIndexedMeshes(DAEDocument document, File file) throws IOException {
+        List<DAEGeometry> geometries = new ArrayList<>();
+        for (DAEGeometry geometry : document.getGeometries()) {
+            DAEMesh mesh = geometry.getMesh();
+            if (mesh != null && mesh.getIndexedVertexCount() > 0) {
+                geometries.add(geometry);
+            }
+        }
+
+        try (FileOutputStream outputStream = new FileOutputStream(file);
+             FileChannel channel = outputStream.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.nativeOrder());
+            header.put(MESH_MAGIC).putInt(MESH_VERSION).putInt(geometries.size());
+            header.flip();
+            writeFully(channel, header);
+
+            for (DAEGeometry geometry : geometries) {
+                DAEMesh mesh = geometry.getMesh();
+                DAEMeshLayout.Attribute[] attributes = mesh.getLayout().getVertexAttributes();
+                int indexDataSize = mesh.getIndexDataSize();
+                int headerSize = stringSize(geometry.getId()) + 4 + 12;
+                for (DAEMeshLayout.Attribute attribute : attributes) {
+                    headerSize += stringSize(attribute.getSemantic()) + 4;
+                }
+                List<DAEPrimitiveGroup> groups = mesh.getPrimitiveGroups();
+                headerSize += 4;
+                for (DAEPrimitiveGroup group : groups) {
+                    headerSize += stringSize(group.getMaterial()) + 8;
+                }
+
+                ByteBuffer buffer = ByteBuffer.allocateDirect(headerSize + mesh.getIndexedVertexDataSize()
+                        + ((indexDataSize + 3) & ~3)).order(ByteOrder.nativeOrder());
+                putString(buffer, geometry.getId());
+                buffer.putInt(attributes.length);
+                for (DAEMeshLayout.Attribute attribute : attributes) {
+                    putString(buffer, attribute.getSemantic());
+                    buffer.putInt(attribute.getComponentCount());
+                }
+                buffer.putInt(mesh.getIndexedVertexCount());
+                buffer.putInt(mesh.getIndexElementSize());
+                buffer.putInt(indexDataSize / mesh.getIndexElementSize());
+                buffer.putInt(groups.size());
+                for (DAEPrimitiveGroup group : groups) {
+                    putString(buffer, group.getMaterial());
+                    buffer.putInt(group.getFirstIndex());
+                    buffer.putInt(group.getIndexCount());
+                }
+                mesh.writeIndexedMesh(buffer, buffer);
+                buffer.position(buffer.limit());
+                buffer.flip();
+                writeFully(channel, buffer);
+            }
+        }
+    }
+
+    private static int stringSize(String string) {
+        int length = string == null ? 0 : string.getBytes(StandardCharsets.UTF_8).length;
+        return 4 + ((length + 3) & ~3);
+    }
+
+    private static void putString(ByteBuffer buffer, String string) {
+        if (string == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        buffer.position(buffer.position() + (-bytes.length & 3));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
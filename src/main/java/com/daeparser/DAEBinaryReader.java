@@ -0,0 +1,340 @@
+package com.daeparser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads documents written by {@link DAEBinaryWriter}.
+ * The file is memory-mapped and numeric arrays are bulk copied straight from the mapping
+ * into the primitive arrays of the document, so loading costs little more than the copy.
+ */
+public final class DAEBinaryReader {
+
+    private static final String CORRUPT = "Corrupt binary DAE document";
+
+    private final ByteBuffer buffer;
+
+    private DAEBinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads a binary document from a file.
+     *
+     * @param file Binary file written by {@link DAEBinaryWriter}
+     * @return Document
+     * @throws IOException if the file cannot be read or is not a supported binary document
+     */
+    public static DAEDocument read(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary document too large to map: " + file);
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a binary document from a buffer, starting at its current position.
+     *
+     * @param buffer Buffer holding a binary document
+     * @return Document
+     * @throws IOException if the buffer does not hold a supported binary document
+     */
+    public static DAEDocument read(ByteBuffer buffer) throws IOException {
+        DAEBinaryReader reader = new DAEBinaryReader(buffer.slice());
+        try {
+            byte[] magic = new byte[DAEBinaryWriter.MAGIC.length];
+            reader.buffer.get(magic);
+            if (!Arrays.equals(magic, DAEBinaryWriter.MAGIC)) {
+                throw new IOException("Not a binary DAE document");
+            }
+            int version = reader.buffer.getInt();
+            if (version != DAEBinaryWriter.VERSION) {
+                throw new IOException("Unsupported binary DAE version " + version
+                        + ", expected " + DAEBinaryWriter.VERSION);
+            }
+            return reader.readDocument();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary DAE document", e);
+        } catch (IllegalArgumentException e) {
+            // Values the document setters or buffer positioning reject
+            throw new IOException(CORRUPT, e);
+        }
+    }
+
+    private DAEDocument readDocument() throws IOException {
+        DAEDocument document = new DAEDocument();
+        document.setVersion(readString());
+
+        int geometryCount = readCount();
+        for (int i = 0; i < geometryCount; i++) {
+            DAEGeometry geometry = new DAEGeometry(readString(), readString());
+            if (readBoolean()) {
+                geometry.setMesh(readMesh());
+            }
+            document.addGeometry(geometry);
+        }
+
+        int materialCount = readCount();
+        for (int i = 0; i < materialCount; i++) {
+            DAEMaterial material = new DAEMaterial(readString(), readString());
+            material.setDiffuseColor(readFloats());
+            material.setSpecularColor(readFloats());
+            material.setAmbientColor(readFloats());
+            material.setShininess(buffer.getFloat());
+            material.setTextureId(readString());
+            document.addMaterial(material);
+        }
+
+        int animationCount = readCount();
+        for (int i = 0; i < animationCount; i++) {
+            document.addAnimation(readAnimation());
+        }
+
+        int controllerCount = readCount();
+        for (int i = 0; i < controllerCount; i++) {
+            DAEController controller = new DAEController(readString(), readString());
+            if (readBoolean()) {
+                controller.setSkin(readSkin());
+            }
+            document.addController(controller);
+        }
+
+        if (readBoolean()) {
+            DAEScene scene = new DAEScene(readString(), readString());
+            scene.setNodes(readNodes());
+            document.setScene(scene);
+        }
+        return document;
+    }
+
+    private DAEMesh readMesh() throws IOException {
+        DAEMesh mesh = new DAEMesh();
+        mesh.setSources(readSources());
+        int vertexListSize = readCount();
+        for (int i = 0; i < vertexListSize; i++) {
+            mesh.addVertex(readFloats());
+        }
+        mesh.setVertexCount(readInt());
+        int triangleCount = readInt();
+        int indexStride = readInt();
+        int[] indices = readInts();
+        if (indexStride > 0) {
+            mesh.setIndices(indices, indexStride);
+        }
+        // Restore the declared count, which setIndices replaces with the indexed count
+        mesh.setTriangleCount(triangleCount);
+        mesh.setInputSemantics(readStringMap());
+        int offsetCount = readCount();
+        for (int i = 0; i < offsetCount; i++) {
+            mesh.addInputOffset(readString(), readInt());
+        }
+        mesh.setVerticesId(readString());
+        int groupCount = readCount();
+        for (int i = 0; i < groupCount; i++) {
+            DAEPrimitiveGroup group = new DAEPrimitiveGroup(readString(), readString());
+            group.setCount(readInt());
+            group.setInputSemantics(readStringMap());
+            int groupOffsetCount = readCount();
+            for (int j = 0; j < groupOffsetCount; j++) {
+                group.addInputOffset(readString(), readInt());
+            }
+            group.setIndexStride(readInt());
+            group.setFirstTriangle(readInt());
+            group.setTriangleCount(readInt());
+            mesh.addPrimitiveGroup(group);
+        }
+        return mesh;
+    }
+
+    private List<DAESource> readSources() throws IOException {
+        int count = readCount();
+        List<DAESource> sources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DAESource source = new DAESource(readString(), readString());
+            source.setCount(readInt());
+            source.setStride(readInt());
+            source.setData(readFloats());
+            source.setNames(readStrings());
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    private DAEAnimation readAnimation() throws IOException {
+        DAEAnimation animation = new DAEAnimation();
+        animation.setId(readString());
+        animation.setName(readString());
+        for (DAESource source : readSources()) {
+            animation.addSource(source);
+        }
+        int samplerCount = readCount();
+        for (int i = 0; i < samplerCount; i++) {
+            DAESampler sampler = new DAESampler(readString());
+            sampler.setInputs(readStringMap());
+            animation.addSampler(sampler);
+        }
+        int channelCount = readCount();
+        for (int i = 0; i < channelCount; i++) {
+            DAEChannel channel = new DAEChannel();
+            channel.setSource(readString());
+            channel.setTarget(readString());
+            animation.addChannel(channel);
+        }
+        return animation;
+    }
+
+    private DAESkin readSkin() throws IOException {
+        DAESkin skin = new DAESkin();
+        skin.setSource(readString());
+        skin.setBindShapeMatrix(readFloats());
+        skin.setSources(readSources());
+        skin.setJointNames(readStrings());
+        skin.setInverseBindMatrices(readFloats());
+        skin.setWeights(readFloats());
+        skin.setMaxJointInfluences(readInt());
+
+        int[] lengths = readInts();
+        int[] flat = readInts();
+        if (lengths == null || flat == null) {
+            throw new IOException(CORRUPT);
+        }
+        List<int[]> vertexWeights = new ArrayList<>(lengths.length);
+        int position = 0;
+        for (int length : lengths) {
+            if (length < 0) {
+                vertexWeights.add(null);
+            } else {
+                if (length > flat.length - position) {
+                    throw new IOException(CORRUPT);
+                }
+                vertexWeights.add(Arrays.copyOfRange(flat, position, position + length));
+                position += length;
+            }
+        }
+        if (position != flat.length) {
+            throw new IOException(CORRUPT);
+        }
+        skin.setVertexWeights(vertexWeights);
+        return skin;
+    }
+
+    private List<DAENode> readNodes() throws IOException {
+        int count = readCount();
+        List<DAENode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DAENode node = new DAENode(readString(), readString());
+            node.setType(readString());
+            node.setGeometryRef(readString());
+            node.setControllerRef(readString());
+            node.setSkeletonRefs(readStrings());
+            node.setMaterialRef(readString());
+            node.setTransformation(readFloats());
+            node.setChildren(readNodes());
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private Map<String, String> readStringMap() throws IOException {
+        int count = readCount();
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            map.put(readString(), readString());
+        }
+        return map;
+    }
+
+    private List<String> readStrings() throws IOException {
+        int count = readLength(4);
+        if (count < 0) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(readString());
+        }
+        return strings;
+    }
+
+    private String readString() throws IOException {
+        int length = readLength(1);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + (-length & 3));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean readBoolean() {
+        return readInt() != 0;
+    }
+
+    private int readInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads the element count of a list that is never null. Every element takes at least
+     * 4 bytes, so larger counts cannot be valid.
+     */
+    private int readCount() throws IOException {
+        int count = readLength(4);
+        if (count < 0) {
+            throw new IOException(CORRUPT);
+        }
+        return count;
+    }
+
+    /**
+     * Reads a length and checks it against the remaining bytes before anything is allocated.
+     *
+     * @param elementSize Minimum number of bytes per element
+     * @return Length, or a negative value for null
+     * @throws IOException if the elements cannot fit in the rest of the buffer
+     */
+    private int readLength(int elementSize) throws IOException {
+        int length = readInt();
+        if (length > buffer.remaining() / elementSize) {
+            throw new IOException(CORRUPT);
+        }
+        return length;
+    }
+
+    private float[] readFloats() throws IOException {
+        int length = readLength(4);
+        if (length < 0) {
+            return null;
+        }
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * 4);
+        return values;
+    }
+
+    private int[] readInts() throws IOException {
+        int length = readLength(4);
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * 4);
+        return values;
+    }
+}
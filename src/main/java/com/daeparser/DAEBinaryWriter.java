@@ -0,0 +1,336 @@
+package com.daeparser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link DAEDocument} in the compact binary cache format read by {@link DAEBinaryReader}.
+ *
+ * <p>Layout (little-endian, every field 4-byte aligned):</p>
+ * <pre>
+ * "DAEB" magic, int version
+ * document: version string, geometries, materials, animations, controllers, scene
+ * </pre>
+ * Lists are written as an int count followed by the elements, arrays as an int length
+ * followed by the raw values, strings as an int byte length followed by UTF-8 bytes padded
+ * to 4 bytes. A length of -1 stands for null. Numeric arrays are therefore stored exactly
+ * as they sit in memory and can be bulk copied back.
+ */
+public final class DAEBinaryWriter {
+
+    /** Magic bytes at the start of every binary file. */
+    static final byte[] MAGIC = {'D', 'A', 'E', 'B'};
+
+    /** Current format version. Readers reject files with any other version. */
+    static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private DAEBinaryWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes a document to a file.
+     *
+     * @param document Document to write
+     * @param file     Target file
+     * @throws IOException if writing fails
+     */
+    public static void write(DAEDocument document, File file) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            write(document, outputStream.getChannel());
+        }
+    }
+
+    /**
+     * Writes a document to a stream. The stream is not closed.
+     *
+     * @param document     Document to write
+     * @param outputStream Target stream
+     * @throws IOException if writing fails
+     */
+    public static void write(DAEDocument document, OutputStream outputStream) throws IOException {
+        write(document, Channels.newChannel(outputStream));
+        outputStream.flush();
+    }
+
+    private static void write(DAEDocument document, WritableByteChannel channel) throws IOException {
+        DAEBinaryWriter writer = new DAEBinaryWriter(channel);
+        writer.buffer.put(MAGIC);
+        writer.writeInt(VERSION);
+        writer.writeDocument(document);
+        writer.flush();
+    }
+
+    private void writeDocument(DAEDocument document) throws IOException {
+        writeString(document.getVersion());
+
+        writeInt(document.getGeometries().size());
+        for (DAEGeometry geometry : document.getGeometries()) {
+            writeString(geometry.getId());
+            writeString(geometry.getName());
+            writeBoolean(geometry.getMesh() != null);
+            if (geometry.getMesh() != null) {
+                writeMesh(geometry.getMesh());
+            }
+        }
+
+        writeInt(document.getMaterials().size());
+        for (DAEMaterial material : document.getMaterials()) {
+            writeString(material.getId());
+            writeString(material.getName());
+            writeFloats(material.getDiffuseColor());
+            writeFloats(material.getSpecularColor());
+            writeFloats(material.getAmbientColor());
+            writeFloat(material.getShininess());
+            writeString(material.getTextureId());
+        }
+
+        writeInt(document.getAnimations().size());
+        for (DAEAnimation animation : document.getAnimations()) {
+            writeAnimation(animation);
+        }
+
+        writeInt(document.getControllers().size());
+        for (DAEController controller : document.getControllers()) {
+            writeString(controller.getId());
+            writeString(controller.getName());
+            writeBoolean(controller.getSkin() != null);
+            if (controller.getSkin() != null) {
+                writeSkin(controller.getSkin());
+            }
+        }
+
+        DAEScene scene = document.getScene();
+        writeBoolean(scene != null);
+        if (scene != null) {
+            writeString(scene.getId());
+            writeString(scene.getName());
+            writeNodes(scene.getNodes());
+        }
+    }
+
+    private void writeMesh(DAEMesh mesh) throws IOException {
+        writeSources(mesh.getSources());
+        writeInt(mesh.getVertices().size());
+        for (float[] vertex : mesh.getVertices()) {
+            writeFloats(vertex);
+        }
+        writeInt(mesh.getVertexCount());
+        writeInt(mesh.getTriangleCount());
+        writeInt(mesh.getIndexStride());
+        writeInts(mesh.getIndices());
+        writeStringMap(mesh.getInputSemantics());
+        Map<String, Integer> offsets = mesh.getInputOffsets();
+        writeInt(offsets.size());
+        for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+            writeString(entry.getKey());
+            writeInt(entry.getValue());
+        }
+        writeString(mesh.getVerticesId());
+        writeInt(mesh.getPrimitiveGroups().size());
+        for (DAEPrimitiveGroup group : mesh.getPrimitiveGroups()) {
+            writeString(group.getType());
+            writeString(group.getMaterial());
+            writeInt(group.getCount());
+            writeStringMap(group.getInputSemantics());
+            writeInt(group.getInputOffsets().size());
+            for (Map.Entry<String, Integer> entry : group.getInputOffsets().entrySet()) {
+                writeString(entry.getKey());
+                writeInt(entry.getValue());
+            }
+            writeInt(group.getIndexStride());
+            writeInt(group.getFirstTriangle());
+            writeInt(group.getTriangleCount());
+        }
+    }
+
+    private void writeSources(List<DAESource> sources) throws IOException {
+        writeInt(sources.size());
+        for (DAESource source : sources) {
+            writeString(source.getId());
+            writeString(source.getName());
+            writeInt(source.getCount());
+            writeInt(source.getStride());
+            writeFloats(source.getDataArrayUnsafe());
+            writeStrings(source.getNames());
+        }
+    }
+
+    private void writeAnimation(DAEAnimation animation) throws IOException {
+        writeString(animation.getId());
+        writeString(animation.getName());
+        writeSources(animation.getSources());
+        writeInt(animation.getSamplers().size());
+        for (DAESampler sampler : animation.getSamplers()) {
+            writeString(sampler.getId());
+            writeStringMap(sampler.getInputs());
+        }
+        writeInt(animation.getChannels().size());
+        for (DAEChannel channel : animation.getChannels()) {
+            writeString(channel.getSource());
+            writeString(channel.getTarget());
+        }
+    }
+
+    private void writeSkin(DAESkin skin) throws IOException {
+        writeString(skin.getSource());
+        writeFloats(skin.getBindShapeMatrix());
+        writeSources(skin.getSources());
+        writeStrings(skin.getJointNames());
+        writeFloats(skin.getInverseBindMatrices());
+        writeFloats(skin.getWeights());
+        writeInt(skin.getMaxJointInfluences());
+
+        // Per-vertex pairs are stored as one length array and one flat array for bulk reading
+        List<int[]> vertexWeights = skin.getVertexWeights();
+        int[] lengths = new int[vertexWeights.size()];
+        int total = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            int[] pairs = vertexWeights.get(i);
+            lengths[i] = pairs != null ? pairs.length : -1;
+            total += pairs != null ? pairs.length : 0;
+        }
+        int[] flat = new int[total];
+        int position = 0;
+        for (int[] pairs : vertexWeights) {
+            if (pairs != null) {
+                System.arraycopy(pairs, 0, flat, position, pairs.length);
+                position += pairs.length;
+            }
+        }
+        writeInts(lengths);
+        writeInts(flat);
+    }
+
+    private void writeNodes(List<DAENode> nodes) throws IOException {
+        writeInt(nodes.size());
+        for (DAENode node : nodes) {
+            writeString(node.getId());
+            writeString(node.getName());
+            writeString(node.getType());
+            writeString(node.getGeometryRef());
+            writeString(node.getControllerRef());
+            writeStrings(node.getSkeletonRefs());
+            writeString(node.getMaterialRef());
+            writeFloats(node.getTransformation());
+            writeNodes(node.getChildren());
+        }
+    }
+
+    private void writeStringMap(Map<String, String> map) throws IOException {
+        writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(entry.getKey());
+            writeString(entry.getValue());
+        }
+    }
+
+    private void writeStrings(List<String> strings) throws IOException {
+        if (strings == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(strings.size());
+        for (String string : strings) {
+            writeString(string);
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        if (string == null) {
+            writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        int padded = (bytes.length + 3) & ~3;
+        for (int offset = 0; offset < padded; ) {
+            ensure(4);
+            int n = Math.min(bytes.length - offset, buffer.remaining());
+            if (n > 0) {
+                buffer.put(bytes, offset, n);
+                offset += n;
+            } else {
+                // Padding up to the next 4-byte boundary
+                buffer.put((byte) 0);
+                offset++;
+            }
+        }
+    }
+
+    private void writeBoolean(boolean value) throws IOException {
+        writeInt(value ? 1 : 0);
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void writeFloat(float value) throws IOException {
+        ensure(4);
+        buffer.putFloat(value);
+    }
+
+    private void writeFloats(float[] values) throws IOException {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.length);
+        for (int offset = 0; offset < values.length; ) {
+            ensure(4);
+            int n = Math.min(values.length - offset, buffer.remaining() / 4);
+            buffer.asFloatBuffer().put(values, offset, n);
+            buffer.position(buffer.position() + n * 4);
+            offset += n;
+        }
+    }
+
+    private void writeInts(int[] values) throws IOException {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.length);
+        for (int offset = 0; offset < values.length; ) {
+            ensure(4);
+            int n = Math.min(values.length - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, offset, n);
+            buffer.position(buffer.position() + n * 4);
+            offset += n;
+        }
+    }
+
+    /**
+     * Makes room for at least the given number of bytes, writing out the buffer if needed.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
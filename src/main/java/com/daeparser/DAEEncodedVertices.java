@@ -0,0 +1,196 @@
+package com.daeparser;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Packed vertex data written by {@link DAEMesh#encodeVertexData(float[], DAEVertexFormat)},
+ * with the attribute layout needed to bind it (e.g. with glVertexAttribPointer) and the
+ * parameters to dequantize it in a shader.
+ *
+ * <p>Each attribute starts on a 4 byte boundary, and the vertex size is a multiple of 4.
+ * Quantized attributes are restored with {@code bias + scale * value}, per component, where
+ * value is the normalized value in [0, 1]. Octahedral normals are unfolded in the shader:</p>
+ * <pre>
+ * vec3 n = vec3(e.xy, 1.0 - abs(e.x) - abs(e.y));
+ * if (n.z &lt; 0.0) n.xy = (1.0 - abs(n.yx)) * vec2(n.x &gt;= 0.0 ? 1.0 : -1.0, n.y &gt;= 0.0 ? 1.0 : -1.0);
+ * n = normalize(n);
+ * </pre>
+ * <p>A 4-component tangent stores the sign of its w as a third component, so e.z is the
+ * bitangent sign, -1 or 1.</p>
+ */
+public class DAEEncodedVertices {
+    private final ByteBuffer data;
+    private final int vertexCount;
+    private final int vertexSize;
+    private final List<Attribute> attributes;
+
+    DAEEncodedVertices(ByteBuffer data, int vertexCount, int vertexSize, List<Attribute> attributes) {
+        this.data = data;
+        this.vertexCount = vertexCount;
+        this.vertexSize = vertexSize;
+        this.attributes = Collections.unmodifiableList(attributes);
+    }
+
+    /**
+     * Gets the packed vertex data: a direct buffer in native byte order, positioned at 0 with
+     * its limit at the end of the data, ready for glBufferData.
+     *
+     * @return Vertex data
+     */
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the size of one vertex in bytes (the stride for glVertexAttribPointer).
+     *
+     * @return Vertex size in bytes
+     */
+    public int getVertexSize() {
+        return vertexSize;
+    }
+
+    /**
+     * Gets the size of the vertex data in bytes.
+     */
+    public int getDataSize() {
+        return vertexCount * vertexSize;
+    }
+
+    /**
+     * Gets the attributes in vertex order: VERTEX, then NORMAL, TEXCOORD and TEXTANGENT if present.
+     *
+     * @return Attributes
+     */
+    public List<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets an attribute.
+     *
+     * @param semantic Input semantic
+     * @return Attribute, or null if the data has none
+     */
+    public Attribute getAttribute(String semantic) {
+        for (Attribute attribute : attributes) {
+            if (attribute.getSemantic().equals(semantic)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the data back to interleaved floats in the layout it was encoded from.
+     * Meant for checking the precision of a format; the values differ from the source data
+     * by the quantization error.
+     *
+     * @return Interleaved vertex data
+     */
+    public float[] decode() {
+        return DAEVertexEncoder.decode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "DAEEncodedVertices{" +
+                "vertexCount=" + vertexCount +
+                ", vertexSize=" + vertexSize +
+                ", attributes=" + attributes +
+                '}';
+    }
+
+    /**
+     * One attribute within a packed vertex.
+     */
+    public static class Attribute {
+        private final String semantic;
+        private final DAEVertexFormat.Encoding encoding;
+        private final int byteOffset;
+        private final int sourceComponentCount;
+        private final float[] scale;
+        private final float[] bias;
+
+        Attribute(String semantic, DAEVertexFormat.Encoding encoding, int byteOffset, int sourceComponentCount,
+                  float[] scale, float[] bias) {
+            this.semantic = semantic;
+            this.encoding = encoding;
+            this.byteOffset = byteOffset;
+            this.sourceComponentCount = sourceComponentCount;
+            this.scale = scale;
+            this.bias = bias;
+        }
+
+        public String getSemantic() {
+            return semantic;
+        }
+
+        public DAEVertexFormat.Encoding getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Gets the offset of this attribute within a vertex in bytes.
+         */
+        public int getByteOffset() {
+            return byteOffset;
+        }
+
+        /**
+         * Gets the number of stored components (2 for octahedral normals, 3 for octahedral
+         * tangents with a sign).
+         */
+        public int getComponentCount() {
+            return encoding.getComponentCount(sourceComponentCount);
+        }
+
+        /**
+         * Gets the number of float components the attribute had before encoding.
+         */
+        public int getSourceComponentCount() {
+            return sourceComponentCount;
+        }
+
+        /**
+         * Gets the size of this attribute in bytes, without padding.
+         */
+        public int getSize() {
+            return getComponentCount() * encoding.getComponentSize();
+        }
+
+        /**
+         * Gets the dequantization scale per component: the size of the bounding box.
+         *
+         * @return Scale, or null if the encoding is not quantized
+         */
+        public float[] getScale() {
+            return scale;
+        }
+
+        /**
+         * Gets the dequantization bias per component: the minimum of the bounding box.
+         *
+         * @return Bias, or null if the encoding is not quantized
+         */
+        public float[] getBias() {
+            return bias;
+        }
+
+        @Override
+        public String toString() {
+            return "Attribute{" +
+                    "semantic='" + semantic + '\'' +
+                    ", encoding=" + encoding +
+                    ", byteOffset=" + byteOffset +
+                    ", componentCount=" + getComponentCount() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.daeparser;
+
+/**
+ * Hooks for Java Flight Recorder events.
+ *
+ * <p>This Java 8 version does nothing. The multi-release JAR carries a Java 11 version
+ * (src/main/java11) that emits {@code jdk.jfr} events for document parses, geometries,
+ * skins, animations and triangulation, which the JVM loads instead of this class on Java 11
+ * and later. Each {@code begin} method returns an event handle, or null when nothing is
+ * recorded; the matching {@code end} method takes that handle. Document parse events begin
+ * and end on the same thread; geometry, skin and animation events end after the element's
+ * numbers are decoded, which may be on an executor thread.</p>
+ */
+final class DAEFlightRecorder {
+
+    private DAEFlightRecorder() {
+    }
+
+    /**
+     * Starts a document parse.
+     *
+     * @param path Asset path, or null for streams
+     */
+    static Object beginParse(String path) {
+        return null;
+    }
+
+    /**
+     * Ends a document parse.
+     *
+     * @param document Parsed document, or null if the parse failed
+     */
+    static void endParse(Object event, long bytes, DAEDocument document) {
+    }
+
+    static Object beginGeometry() {
+        return null;
+    }
+
+    static void endGeometry(Object event, DAEGeometry geometry) {
+    }
+
+    static Object beginSkin() {
+        return null;
+    }
+
+    static void endSkin(Object event, String controllerId, DAESkin skin) {
+    }
+
+    static Object beginAnimation() {
+        return null;
+    }
+
+    static void endAnimation(Object event, DAEAnimation animation) {
+    }
+
+    static Object beginTriangulation() {
+        return null;
+    }
+
+    static void endTriangulation(Object event, DAEMesh mesh, int floatCount) {
+    }
+}
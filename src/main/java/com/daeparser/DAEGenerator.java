@@ -0,0 +1,752 @@
+package com.daeparser;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes synthetic COLLADA documents of any size for tests and benchmarks.
+ * The generated mesh is a wavy grid with exactly {@link #getTriangleCount()} triangles,
+ * optionally skinned to a chain of joints with keyframe animation, and placed at a
+ * configurable depth in the scene graph. Several copies of the mesh can be written as
+ * separate geometries to exercise per-geometry work. Output is deterministic: the same settings
+ * always produce the same file.
+ *
+ * <p>Data is written in a single pass without building the document in memory, so files
+ * with tens of millions of triangles can be generated with a small heap.</p>
+ */
+public class DAEGenerator {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final float GRID_SPACING = 0.01f;
+    private static final float FRAMES_PER_SECOND = 24f;
+
+    private int triangleCount;
+    private boolean normals;
+    private int texCoordSets;
+    private boolean colors;
+    private int jointCount;
+    private int influencesPerVertex;
+    private int keyframeCount;
+    private int nodeDepth;
+    private boolean polylist;
+    private int meshCount;
+
+    private Writer out;
+    private final char[] digits = new char[32];
+
+    /**
+     * Creates a generator for a 10,000 triangle mesh with normals and one UV set,
+     * without skinning or animation.
+     */
+    public DAEGenerator() {
+        this.triangleCount = 10000;
+        this.normals = true;
+        this.texCoordSets = 1;
+        this.colors = false;
+        this.jointCount = 0;
+        this.influencesPerVertex = 4;
+        this.keyframeCount = 0;
+        this.nodeDepth = 1;
+        this.polylist = false;
+        this.meshCount = 1;
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    public void setTriangleCount(int triangleCount) {
+        if (triangleCount < 1) {
+            throw new IllegalArgumentException("Triangle count must be positive: " + triangleCount);
+        }
+        this.triangleCount = triangleCount;
+    }
+
+    public boolean hasNormals() {
+        return normals;
+    }
+
+    public void setNormals(boolean normals) {
+        this.normals = normals;
+    }
+
+    public int getTexCoordSets() {
+        return texCoordSets;
+    }
+
+    /**
+     * Sets the number of TEXCOORD inputs (UV sets), each with its own source.
+     *
+     * @param texCoordSets Number of UV sets, 0 for none
+     */
+    public void setTexCoordSets(int texCoordSets) {
+        if (texCoordSets < 0) {
+            throw new IllegalArgumentException("UV set count must not be negative: " + texCoordSets);
+        }
+        this.texCoordSets = texCoordSets;
+    }
+
+    public boolean hasColors() {
+        return colors;
+    }
+
+    /**
+     * Sets whether a per-vertex COLOR input (RGB) is written.
+     */
+    public void setColors(boolean colors) {
+        this.colors = colors;
+    }
+
+    public int getJointCount() {
+        return jointCount;
+    }
+
+    /**
+     * Sets the number of joints. With 0 joints no controller is written and the scene
+     * instantiates the geometry directly.
+     *
+     * @param jointCount Number of joints in the skeleton chain
+     */
+    public void setJointCount(int jointCount) {
+        if (jointCount < 0) {
+            throw new IllegalArgumentException("Joint count must not be negative: " + jointCount);
+        }
+        this.jointCount = jointCount;
+    }
+
+    /**
+     * Gets the number of joint influences written per vertex, at most the joint count.
+     *
+     * @return Influences per vertex
+     */
+    public int getInfluencesPerVertex() {
+        return Math.min(influencesPerVertex, jointCount);
+    }
+
+    public void setInfluencesPerVertex(int influencesPerVertex) {
+        if (influencesPerVertex < 1) {
+            throw new IllegalArgumentException("Influences per vertex must be positive: " + influencesPerVertex);
+        }
+        this.influencesPerVertex = influencesPerVertex;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * Sets the number of keyframes per animation. One transform animation is written per
+     * joint, or for the mesh node if there are no joints.
+     *
+     * @param keyframeCount Keyframes per animation, 0 for no animations
+     */
+    public void setKeyframeCount(int keyframeCount) {
+        if (keyframeCount < 0) {
+            throw new IllegalArgumentException("Keyframe count must not be negative: " + keyframeCount);
+        }
+        this.keyframeCount = keyframeCount;
+    }
+
+    public int getNodeDepth() {
+        return nodeDepth;
+    }
+
+    /**
+     * Sets the depth of the node holding the mesh instance; 1 places it directly in the
+     * visual scene, larger values nest it under group nodes.
+     *
+     * @param nodeDepth Node depth, at least 1
+     */
+    public void setNodeDepth(int nodeDepth) {
+        if (nodeDepth < 1) {
+            throw new IllegalArgumentException("Node depth must be at least 1: " + nodeDepth);
+        }
+        this.nodeDepth = nodeDepth;
+    }
+
+    public boolean isPolylist() {
+        return polylist;
+    }
+
+    /**
+     * Sets whether the grid is written as a &lt;polylist&gt; of quads instead of &lt;triangles&gt;.
+     * Each quad triangulates to the same two triangles the &lt;triangles&gt; output has; with an
+     * odd triangle count the last polygon is a triangle.
+     */
+    public void setPolylist(boolean polylist) {
+        this.polylist = polylist;
+    }
+
+    public int getMeshCount() {
+        return meshCount;
+    }
+
+    /**
+     * Sets the number of meshes. Each is a separate geometry with {@link #getTriangleCount()}
+     * triangles, its own skin controller if there are joints, and its own node, placed side by
+     * side. The first mesh keeps the ids of a single mesh document ("Grid-mesh"), the others are
+     * numbered ("Grid1-mesh", ...).
+     *
+     * @param meshCount Number of meshes, at least 1
+     */
+    public void setMeshCount(int meshCount) {
+        if (meshCount < 1) {
+            throw new IllegalArgumentException("Mesh count must be at least 1: " + meshCount);
+        }
+        this.meshCount = meshCount;
+    }
+
+    /**
+     * Gets the number of grid columns (quads per row).
+     */
+    private int getColumns() {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(triangleCount / 2.0)));
+    }
+
+    /**
+     * Gets the number of grid rows needed for the triangle count.
+     */
+    private int getRows() {
+        int quads = (triangleCount + 1) / 2;
+        return (quads + getColumns() - 1) / getColumns();
+    }
+
+    /**
+     * Gets the number of vertices the generated mesh has.
+     *
+     * @return Vertex count
+     */
+    public int getVertexCount() {
+        return (getColumns() + 1) * (getRows() + 1);
+    }
+
+    /**
+     * Generates the document as a String. Meant for small documents.
+     *
+     * @return COLLADA document
+     */
+    public String generate() {
+        StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the document to a file.
+     *
+     * @param file File to write
+     * @throws IOException if writing fails
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            write(outputStream);
+        }
+    }
+
+    /**
+     * Writes the document as UTF-8. The stream is flushed but not closed.
+     *
+     * @param outputStream Stream to write to
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        write(writer);
+    }
+
+    /**
+     * Writes the document. The writer is flushed but not closed.
+     *
+     * @param writer Writer to write to
+     * @throws IOException if writing fails
+     */
+    public synchronized void write(Writer writer) throws IOException {
+        out = writer;
+        try {
+            line(0, "<?xml version=\"1.0\" encoding=\"utf-8\"?>");
+            line(0, "<COLLADA xmlns=\"http://www.collada.org/2005/11/COLLADASchema\" version=\"1.4.1\">");
+            line(1, "<asset>");
+            line(2, "<up_axis>Z_UP</up_axis>");
+            line(1, "</asset>");
+            line(1, "<library_geometries>");
+            for (int mesh = 0; mesh < meshCount; mesh++) {
+                writeGeometry(meshName(mesh));
+            }
+            line(1, "</library_geometries>");
+            if (keyframeCount > 0) {
+                writeAnimations();
+            }
+            if (jointCount > 0) {
+                line(1, "<library_controllers>");
+                for (int mesh = 0; mesh < meshCount; mesh++) {
+                    writeController(meshName(mesh));
+                }
+                line(1, "</library_controllers>");
+            }
+            writeScene();
+            line(0, "</COLLADA>");
+            out.flush();
+        } finally {
+            out = null;
+        }
+    }
+
+    private void writeGeometry(String name) throws IOException {
+        int columns = getColumns();
+        int rows = getRows();
+        int vertexCount = getVertexCount();
+
+        line(2, "<geometry id=\"" + name + "-mesh\" name=\"" + name + "\">");
+        line(3, "<mesh>");
+
+        // Positions: a gentle wave over the grid
+        beginFloatSource(name + "-positions", vertexCount, 3);
+        for (int row = 0; row <= rows; row++) {
+            for (int col = 0; col <= columns; col++) {
+                float x = col * GRID_SPACING;
+                float y = row * GRID_SPACING;
+                writeFloat(x);
+                writeFloat(y);
+                writeFloat(height(x, y));
+            }
+            out.write('\n');
+        }
+        endFloatSource(name + "-positions", vertexCount, 3);
+
+        if (normals) {
+            beginFloatSource(name + "-normals", vertexCount, 3);
+            for (int row = 0; row <= rows; row++) {
+                for (int col = 0; col <= columns; col++) {
+                    float x = col * GRID_SPACING;
+                    float y = row * GRID_SPACING;
+                    float nx = -(float) (Math.cos(x * 10) * Math.cos(y * 10)) * 0.5f;
+                    float ny = (float) (Math.sin(x * 10) * Math.sin(y * 10)) * 0.5f;
+                    float length = (float) Math.sqrt(nx * nx + ny * ny + 1);
+                    writeFloat(nx / length);
+                    writeFloat(ny / length);
+                    writeFloat(1 / length);
+                }
+                out.write('\n');
+            }
+            endFloatSource(name + "-normals", vertexCount, 3);
+        }
+
+        for (int set = 0; set < texCoordSets; set++) {
+            String id = name + "-map-" + set;
+            beginFloatSource(id, vertexCount, 2);
+            float scale = set + 1;
+            for (int row = 0; row <= rows; row++) {
+                for (int col = 0; col <= columns; col++) {
+                    writeFloat(scale * col / columns);
+                    writeFloat(scale * row / rows);
+                }
+                out.write('\n');
+            }
+            endFloatSource(id, vertexCount, 2);
+        }
+
+        if (colors) {
+            beginFloatSource(name + "-colors", vertexCount, 3);
+            for (int row = 0; row <= rows; row++) {
+                for (int col = 0; col <= columns; col++) {
+                    writeFloat((float) col / columns);
+                    writeFloat((float) row / rows);
+                    writeFloat(0.5f);
+                }
+                out.write('\n');
+            }
+            endFloatSource(name + "-colors", vertexCount, 3);
+        }
+
+        line(4, "<vertices id=\"" + name + "-vertices\">");
+        line(5, "<input semantic=\"POSITION\" source=\"#" + name + "-positions\"/>");
+        line(4, "</vertices>");
+
+        // Every input has its own offset, as most exporters write it
+        int stride = 0;
+        int quads = (triangleCount + 1) / 2;
+        String primitive = polylist ? "polylist" : "triangles";
+        line(4, "<" + primitive + " count=\"" + (polylist ? quads : triangleCount) + "\">");
+        line(5, "<input semantic=\"VERTEX\" source=\"#" + name + "-vertices\" offset=\"" + stride++ + "\"/>");
+        if (normals) {
+            line(5, "<input semantic=\"NORMAL\" source=\"#" + name + "-normals\" offset=\"" + stride++ + "\"/>");
+        }
+        for (int set = 0; set < texCoordSets; set++) {
+            line(5, "<input semantic=\"TEXCOORD\" source=\"#" + name + "-map-" + set + "\" offset=\"" + stride++
+                    + "\" set=\"" + set + "\"/>");
+        }
+        if (colors) {
+            line(5, "<input semantic=\"COLOR\" source=\"#" + name + "-colors\" offset=\"" + stride++ + "\"/>");
+        }
+
+        if (polylist) {
+            indent(5);
+            out.write("<vcount>");
+            for (int quad = 0; quad < quads; quad++) {
+                writeInt(quad < triangleCount / 2 ? 4 : 3);
+                if ((quad + 1) % columns == 0) {
+                    out.write('\n');
+                }
+            }
+            out.write("</vcount>\n");
+        }
+
+        indent(5);
+        out.write("<p>");
+        int written = 0;
+        for (int row = 0; row < rows && written < triangleCount; row++) {
+            for (int col = 0; col < columns && written < triangleCount; col++) {
+                int v0 = row * (columns + 1) + col;
+                int v1 = v0 + 1;
+                int v2 = v0 + columns + 1;
+                int v3 = v2 + 1;
+                writeCorner(v0, stride);
+                writeCorner(v1, stride);
+                writeCorner(v3, stride);
+                if (polylist) {
+                    // Fans from v0 into the same two triangles
+                    if (++written < triangleCount) {
+                        writeCorner(v2, stride);
+                        written++;
+                    }
+                } else if (++written < triangleCount) {
+                    writeCorner(v0, stride);
+                    writeCorner(v3, stride);
+                    writeCorner(v2, stride);
+                    written++;
+                }
+            }
+            out.write('\n');
+        }
+        out.write("</p>\n");
+        line(4, "</" + primitive + ">");
+
+        line(3, "</mesh>");
+        line(2, "</geometry>");
+    }
+
+    private void writeController(String name) throws IOException {
+        int columns = getColumns();
+        int rows = getRows();
+        int vertexCount = getVertexCount();
+        int influences = getInfluencesPerVertex();
+        float segment = rows * GRID_SPACING / jointCount;
+
+        line(2, "<controller id=\"" + name + "-skin\" name=\"" + name + "-skin\">");
+        line(3, "<skin source=\"#" + name + "-mesh\">");
+        line(4, "<bind_shape_matrix>1 0 0 0 0 1 0 0 0 0 1 0 0 0 0 1</bind_shape_matrix>");
+
+        line(4, "<source id=\"" + name + "-skin-joints\">");
+        indent(5);
+        out.write("<Name_array id=\"" + name + "-skin-joints-array\" count=\"" + jointCount + "\">");
+        for (int joint = 0; joint < jointCount; joint++) {
+            out.write(joint == 0 ? "" : " ");
+            out.write(jointName(joint));
+        }
+        out.write("</Name_array>\n");
+        writeAccessor(name + "-skin-joints-array", jointCount, 1, "JOINT", "name");
+        line(4, "</source>");
+
+        // Joint j sits at y = j * segment, so its inverse bind matrix translates back by that much
+        beginFloatSource(name + "-skin-bind-poses", jointCount * 16, 16);
+        for (int joint = 0; joint < jointCount; joint++) {
+            writeMatrix(0, -joint * segment);
+            out.write('\n');
+        }
+        endFloatSource(name + "-skin-bind-poses", jointCount * 16, 16);
+
+        beginFloatSource(name + "-skin-weights", vertexCount * influences, 1);
+        for (int row = 0; row <= rows; row++) {
+            for (int col = 0; col <= columns; col++) {
+                float t = (float) col / columns;
+                float sum = 0;
+                for (int k = 0; k < influences; k++) {
+                    sum += 1 / (k + 1 + t);
+                }
+                for (int k = 0; k < influences; k++) {
+                    writeFloat(1 / (k + 1 + t) / sum);
+                }
+            }
+            out.write('\n');
+        }
+        endFloatSource(name + "-skin-weights", vertexCount * influences, 1);
+
+        line(4, "<joints>");
+        line(5, "<input semantic=\"JOINT\" source=\"#" + name + "-skin-joints\"/>");
+        line(5, "<input semantic=\"INV_BIND_MATRIX\" source=\"#" + name + "-skin-bind-poses\"/>");
+        line(4, "</joints>");
+
+        line(4, "<vertex_weights count=\"" + vertexCount + "\">");
+        line(5, "<input semantic=\"JOINT\" source=\"#" + name + "-skin-joints\" offset=\"0\"/>");
+        line(5, "<input semantic=\"WEIGHT\" source=\"#" + name + "-skin-weights\" offset=\"1\"/>");
+        indent(5);
+        out.write("<vcount>");
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            writeInt(influences);
+        }
+        out.write("</vcount>\n");
+        indent(5);
+        out.write("<v>");
+        int weightIndex = 0;
+        for (int row = 0; row <= rows; row++) {
+            int nearest = Math.min(row * jointCount / (rows + 1), jointCount - 1);
+            for (int col = 0; col <= columns; col++) {
+                for (int k = 0; k < influences; k++) {
+                    writeInt((nearest + k) % jointCount);
+                    writeInt(weightIndex++);
+                }
+            }
+            out.write('\n');
+        }
+        out.write("</v>\n");
+        line(4, "</vertex_weights>");
+
+        line(3, "</skin>");
+        line(2, "</controller>");
+    }
+
+    private void writeAnimations() throws IOException {
+        int targets = jointCount > 0 ? jointCount : 1;
+        float segment = jointCount > 0 ? getRows() * GRID_SPACING / jointCount : 0;
+
+        line(1, "<library_animations>");
+        for (int target = 0; target < targets; target++) {
+            String node = jointCount > 0 ? jointName(target) : "Grid";
+            String id = node + "-anim";
+            float offset = jointCount > 0 && target > 0 ? segment : 0;
+
+            line(2, "<animation id=\"" + id + "\" name=\"" + node + "\">");
+            beginFloatSource(id + "-input", keyframeCount, 1);
+            for (int key = 0; key < keyframeCount; key++) {
+                writeFloat(key / FRAMES_PER_SECOND);
+            }
+            out.write('\n');
+            endFloatSource(id + "-input", keyframeCount, 1);
+
+            // Translation along x that sways over time
+            beginFloatSource(id + "-output", keyframeCount * 16, 16);
+            for (int key = 0; key < keyframeCount; key++) {
+                writeMatrix((float) Math.sin(key * 0.1 + target) * 0.1f, offset);
+                out.write('\n');
+            }
+            endFloatSource(id + "-output", keyframeCount * 16, 16);
+
+            line(3, "<source id=\"" + id + "-interpolation\">");
+            indent(4);
+            out.write("<Name_array id=\"" + id + "-interpolation-array\" count=\"" + keyframeCount + "\">");
+            for (int key = 0; key < keyframeCount; key++) {
+                out.write(key == 0 ? "LINEAR" : " LINEAR");
+            }
+            out.write("</Name_array>\n");
+            writeAccessor(id + "-interpolation-array", keyframeCount, 1, "INTERPOLATION", "name");
+            line(3, "</source>");
+
+            line(3, "<sampler id=\"" + id + "-sampler\">");
+            line(4, "<input semantic=\"INPUT\" source=\"#" + id + "-input\"/>");
+            line(4, "<input semantic=\"OUTPUT\" source=\"#" + id + "-output\"/>");
+            line(4, "<input semantic=\"INTERPOLATION\" source=\"#" + id + "-interpolation\"/>");
+            line(3, "</sampler>");
+            line(3, "<channel source=\"#" + id + "-sampler\" target=\"" + node + "/transform\"/>");
+            line(2, "</animation>");
+        }
+        line(1, "</library_animations>");
+    }
+
+    private void writeScene() throws IOException {
+        line(1, "<library_visual_scenes>");
+        line(2, "<visual_scene id=\"Scene\" name=\"Scene\">");
+
+        if (jointCount > 0) {
+            float segment = getRows() * GRID_SPACING / jointCount;
+            for (int joint = 0; joint < jointCount; joint++) {
+                String name = jointName(joint);
+                line(3 + joint, "<node id=\"" + name + "\" name=\"" + name + "\" sid=\"" + name + "\" type=\"JOINT\">");
+                indent(4 + joint);
+                out.write("<matrix sid=\"transform\">");
+                writeMatrix(0, joint > 0 ? segment : 0);
+                out.write("</matrix>\n");
+            }
+            for (int joint = jointCount - 1; joint >= 0; joint--) {
+                line(3 + joint, "</node>");
+            }
+        }
+
+        // Group nodes above the mesh node
+        for (int depth = 1; depth < nodeDepth; depth++) {
+            line(2 + depth, "<node id=\"Group" + depth + "\" name=\"Group" + depth + "\" type=\"NODE\">");
+            indent(3 + depth);
+            out.write("<matrix>");
+            writeMatrix(0, 0);
+            out.write("</matrix>\n");
+        }
+        int level = 2 + nodeDepth;
+        for (int mesh = 0; mesh < meshCount; mesh++) {
+            String name = meshName(mesh);
+            line(level, "<node id=\"" + name + "\" name=\"" + name + "\" type=\"NODE\">");
+            indent(level + 1);
+            out.write("<matrix sid=\"transform\">");
+            // Side by side along x, one grid width plus a gap apart
+            writeMatrix(mesh * (getColumns() + 1) * GRID_SPACING, 0);
+            out.write("</matrix>\n");
+            if (jointCount > 0) {
+                line(level + 1, "<instance_controller url=\"#" + name + "-skin\">");
+                line(level + 2, "<skeleton>#" + jointName(0) + "</skeleton>");
+                line(level + 1, "</instance_controller>");
+            } else {
+                line(level + 1, "<instance_geometry url=\"#" + name + "-mesh\"/>");
+            }
+            line(level, "</node>");
+        }
+        for (int depth = nodeDepth - 1; depth >= 1; depth--) {
+            line(2 + depth, "</node>");
+        }
+
+        line(2, "</visual_scene>");
+        line(1, "</library_visual_scenes>");
+        line(1, "<scene>");
+        line(2, "<instance_visual_scene url=\"#Scene\"/>");
+        line(1, "</scene>");
+    }
+
+    private static String meshName(int mesh) {
+        return mesh == 0 ? "Grid" : "Grid" + mesh;
+    }
+
+    private static String jointName(int joint) {
+        return "Joint" + joint;
+    }
+
+    private static float height(float x, float y) {
+        return (float) (Math.sin(x * 10) * Math.cos(y * 10)) * 0.05f;
+    }
+
+    private void beginFloatSource(String id, int count, int stride) throws IOException {
+        line(4, "<source id=\"" + id + "\">");
+        indent(5);
+        out.write("<float_array id=\"" + id + "-array\" count=\"" + count + "\">\n");
+    }
+
+    private void endFloatSource(String id, int count, int stride) throws IOException {
+        line(5, "</float_array>");
+        writeAccessor(id + "-array", count / stride, stride, stride == 16 ? "TRANSFORM" : null,
+                stride == 16 ? "float4x4" : "float");
+        line(4, "</source>");
+    }
+
+    private void writeAccessor(String arrayId, int count, int stride, String paramName, String paramType)
+            throws IOException {
+        line(5, "<technique_common>");
+        line(6, "<accessor source=\"#" + arrayId + "\" count=\"" + count + "\" stride=\"" + stride + "\">");
+        if (paramName != null) {
+            line(7, "<param name=\"" + paramName + "\" type=\"" + paramType + "\"/>");
+        } else {
+            String[] names = stride == 2 ? new String[] {"S", "T"} : new String[] {"X", "Y", "Z"};
+            for (int i = 0; i < stride && i < names.length; i++) {
+                line(7, "<param name=\"" + names[i] + "\" type=\"" + paramType + "\"/>");
+            }
+        }
+        line(6, "</accessor>");
+        line(5, "</technique_common>");
+    }
+
+    /**
+     * Writes a row-major 4x4 translation matrix.
+     */
+    private void writeMatrix(float tx, float ty) throws IOException {
+        float[] matrix = {
+            1, 0, 0, tx,
+            0, 1, 0, ty,
+            0, 0, 1, 0,
+            0, 0, 0, 1
+        };
+        for (float value : matrix) {
+            writeFloat(value);
+        }
+    }
+
+    private void writeCorner(int vertex, int stride) throws IOException {
+        for (int i = 0; i < stride; i++) {
+            writeInt(vertex);
+        }
+    }
+
+    private void line(int level, String text) throws IOException {
+        indent(level);
+        out.write(text);
+        out.write('\n');
+    }
+
+    private void indent(int level) throws IOException {
+        for (int i = 0; i < level; i++) {
+            out.write("  ");
+        }
+    }
+
+    /**
+     * Writes an int followed by a space, without creating a String.
+     */
+    private void writeInt(int value) throws IOException {
+        int end = digits.length;
+        int pos = end;
+        digits[--pos] = ' ';
+        long v = value;
+        boolean negative = v < 0;
+        if (negative) {
+            v = -v;
+        }
+        do {
+            digits[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, pos, end - pos);
+    }
+
+    /**
+     * Writes a float with up to 6 decimals followed by a space, without creating a String.
+     */
+    private void writeFloat(float value) throws IOException {
+        long scaled = Math.round((double) value * 1000000);
+        int end = digits.length;
+        int pos = end;
+        digits[--pos] = ' ';
+        boolean negative = scaled < 0;
+        if (negative) {
+            scaled = -scaled;
+        }
+        long fraction = scaled % 1000000;
+        long whole = scaled / 1000000;
+        if (fraction != 0) {
+            int decimals = 6;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                decimals--;
+            }
+            for (int i = 0; i < decimals; i++) {
+                digits[--pos] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            digits[--pos] = '.';
+        }
+        do {
+            digits[--pos] = (char) ('0' + whole % 10);
+            whole /= 10;
+        } while (whole != 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, pos, end - pos);
+    }
+}
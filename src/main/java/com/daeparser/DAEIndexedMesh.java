@@ -0,0 +1,110 @@
+package com.daeparser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Indexed vertex data generated from a {@link DAEMesh}.
+ * Each unique combination of attribute indices appears once in the interleaved vertex array,
+ * and triangles reference vertices through the index array, ready for an element buffer.
+ * The vertices are shared by all primitive groups of the mesh; each group is drawn from its
+ * own range of the index array (one draw call per group, one vertex buffer per mesh).
+ */
+public class DAEIndexedMesh {
+    private final float[] vertices;
+    private final int vertexStride;
+    private final int[] indices;
+    private final List<DAEPrimitiveGroup> primitiveGroups;
+
+    public DAEIndexedMesh(float[] vertices, int vertexStride, int[] indices) {
+        this(vertices, vertexStride, indices, Collections.<DAEPrimitiveGroup>emptyList());
+    }
+
+    public DAEIndexedMesh(float[] vertices, int vertexStride, int[] indices, List<DAEPrimitiveGroup> primitiveGroups) {
+        this.vertices = vertices;
+        this.vertexStride = vertexStride;
+        this.indices = indices;
+        this.primitiveGroups = primitiveGroups;
+    }
+
+    /**
+     * Gets the interleaved vertex data in the same per-vertex layout as
+     * {@link DAEMesh#getTriangulatedVertexData()}: [x, y, z, nx, ny, nz, u, v, ...].
+     *
+     * @return Interleaved vertex data
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Gets the number of floats per vertex.
+     *
+     * @return Vertex stride in floats
+     */
+    public int getVertexStride() {
+        return vertexStride;
+    }
+
+    public int getVertexCount() {
+        return vertexStride == 0 ? 0 : vertices.length / vertexStride;
+    }
+
+    /**
+     * Gets the triangle index list (3 indices per triangle) as 32-bit indices.
+     *
+     * @return Index array
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Gets the primitive groups of the mesh. A group is drawn with its
+     * {@link DAEPrimitiveGroup#getIndexCount()} indices starting at {@link DAEPrimitiveGroup#getFirstIndex()}.
+     *
+     * @return Groups in index order; empty if the mesh has none
+     */
+    public List<DAEPrimitiveGroup> getPrimitiveGroups() {
+        return primitiveGroups;
+    }
+
+    /**
+     * Checks whether all indices fit into an unsigned 16-bit index buffer.
+     *
+     * @return true if the vertex count is at most 65536
+     */
+    public boolean hasShortIndices() {
+        return getVertexCount() <= 0x10000;
+    }
+
+    /**
+     * Gets the triangle index list as unsigned 16-bit indices (read back with {@code index & 0xFFFF}).
+     *
+     * @return Index array, or null if there are more than 65536 vertices
+     */
+    public short[] getShortIndices() {
+        if (!hasShortIndices()) {
+            return null;
+        }
+        short[] shortIndices = new short[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            shortIndices[i] = (short) indices[i];
+        }
+        return shortIndices;
+    }
+
+    @Override
+    public String toString() {
+        return "DAEIndexedMesh{" +
+                "vertexCount=" + getVertexCount() +
+                ", vertexStride=" + vertexStride +
+                ", triangleCount=" + getTriangleCount() +
+                ", primitiveGroups=" + primitiveGroups.size() +
+                '}';
+    }
+}
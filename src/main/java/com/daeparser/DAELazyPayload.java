@@ -0,0 +1,32 @@
+package com.daeparser;
+
+/**
+ * Undecoded numeric text of a memory-mapped file, decoded on demand.
+ * Used by lazily parsed {@link DAESource} data and {@link DAEMesh} indices. A payload keeps
+ * its {@link DAEMappedInput} (and therefore the file mapping) reachable so it can be
+ * decoded again after the decoded values have been released.
+ */
+final class DAELazyPayload {
+
+    private final DAEMappedInput input;
+    private final String marker;
+    private final int expectedCount;
+
+    DAELazyPayload(DAEMappedInput input, String marker, int expectedCount) {
+        this.input = input;
+        this.marker = marker;
+        this.expectedCount = expectedCount;
+    }
+
+    float[] decodeFloats() {
+        DAENumberScanner scanner = DAENumberScanner.forFloats(expectedCount);
+        input.decode(marker, scanner);
+        return scanner.toFloatArray();
+    }
+
+    int[] decodeInts() {
+        DAENumberScanner scanner = DAENumberScanner.forInts(expectedCount);
+        input.decode(marker, scanner);
+        return scanner.toIntArray();
+    }
+}
@@ -0,0 +1,372 @@
+package com.daeparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped DAE file split into structure and numeric payloads.
+ *
+ * <p>A byte-level prescan finds the text of every &lt;float_array&gt;, &lt;p&gt;, &lt;v&gt; and
+ * &lt;vcount&gt; element. {@link #openStructure()} streams the file with each of those payloads
+ * replaced by a short marker ("@" followed by the payload ordinal), so the XML parser only
+ * sees the small structural part, and {@link #decode(String, DAENumberScanner)} scans a
+ * payload straight from the mapped ASCII bytes.</p>
+ *
+ * <p>Comments, CDATA sections and processing instructions are skipped by the prescan.
+ * Payloads containing entity references or nested markup are left in the XML and parsed
+ * conventionally. Files with a DOCTYPE (which may declare entities) or a non ASCII-compatible
+ * encoding are reported as unsupported.</p>
+ */
+final class DAEMappedInput {
+
+    /** Prefix of the marker replacing a payload; cannot appear in numeric text. */
+    static final char MARKER = '@';
+
+    /** Bytes of a payload scanned between two calls to {@link DAEParseMonitor#decoding()}. */
+    private static final int MONITOR_SLICE = 1 << 20;
+
+    private static final byte[][] PAYLOAD_ELEMENTS = {
+        ascii("float_array"), ascii("p"), ascii("v"), ascii("vcount")
+    };
+
+    private final ByteBuffer bytes;
+    private final int size;
+    private final DAEParseMonitor monitor;
+    private int[] payloadStarts = new int[64];
+    private int[] payloadEnds = new int[64];
+    private int payloadCount;
+    private boolean supported = true;
+
+    private DAEMappedInput(ByteBuffer bytes, DAEParseMonitor monitor) {
+        this.bytes = bytes;
+        this.size = bytes.limit();
+        this.monitor = monitor;
+    }
+
+    /**
+     * Maps a file and locates its numeric payloads.
+     *
+     * @param path DAE file
+     * @return Mapped input, or null if the file is too large to map in one piece
+     * @throws IOException if the file cannot be mapped
+     */
+    static DAEMappedInput map(Path path) throws IOException {
+        return map(path, null);
+    }
+
+    /**
+     * Maps a file and locates its numeric payloads.
+     *
+     * @param path    DAE file
+     * @param monitor Monitor polled while payloads are decoded, or null
+     * @return Mapped input, or null if the file is too large to map in one piece
+     * @throws IOException if the file cannot be mapped
+     */
+    static DAEMappedInput map(Path path, DAEParseMonitor monitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DAEMappedInput input = new DAEMappedInput(buffer, monitor);
+            input.scan();
+            return input;
+        }
+    }
+
+    /**
+     * Checks whether the prescan could handle the file.
+     *
+     * @return false if the file must be parsed conventionally
+     */
+    boolean isSupported() {
+        return supported;
+    }
+
+    int getPayloadCount() {
+        return payloadCount;
+    }
+
+    /**
+     * Opens the file with every payload replaced by its marker.
+     */
+    StructureStream openStructure() {
+        return new StructureStream();
+    }
+
+    /**
+     * Gets the size of the mapped file.
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks whether element text is a payload marker.
+     */
+    static boolean isMarker(String text) {
+        return text.length() > 1 && text.charAt(0) == MARKER;
+    }
+
+    /**
+     * Feeds the payload named by a marker into a scanner.
+     *
+     * @param marker Element text produced by {@link #openStructure()}
+     * @param scanner Scanner receiving the payload bytes
+     */
+    void decode(String marker, DAENumberScanner scanner) {
+        int ordinal = Integer.parseInt(marker.substring(1));
+        ByteBuffer payload = bytes.duplicate();
+        payload.position(payloadStarts[ordinal]);
+        if (monitor == null) {
+            payload.limit(payloadEnds[ordinal]);
+            scanner.feed(payload);
+            return;
+        }
+        // In slices, so a large payload does not delay cancellation
+        int end = payloadEnds[ordinal];
+        while (payload.position() < end) {
+            monitor.decoding();
+            payload.limit(Math.min(end, payload.position() + MONITOR_SLICE));
+            scanner.feed(payload);
+        }
+    }
+
+    private void scan() {
+        if (size >= 2 && (bytes.get(0) == 0 || bytes.get(1) == 0 || (bytes.get(0) & 0xFF) >= 0xFE)) {
+            // UTF-16 or UTF-32: markup bytes are not ASCII
+            supported = false;
+            return;
+        }
+
+        int i = 0;
+        while (supported) {
+            int lt = indexOf('<', i);
+            if (lt < 0 || lt + 1 >= size) {
+                break;
+            }
+            byte next = bytes.get(lt + 1);
+            if (next == '!') {
+                if (startsWith(lt, "<!--")) {
+                    i = skipPast(lt + 4, "-->");
+                } else if (startsWith(lt, "<![CDATA[")) {
+                    i = skipPast(lt + 9, "]]>");
+                } else {
+                    // DOCTYPE: its internal subset may declare entities
+                    supported = false;
+                }
+            } else if (next == '?') {
+                i = skipPast(lt + 2, "?>");
+            } else if (next == '/') {
+                i = skipPast(lt + 2, ">");
+            } else {
+                i = scanStartTag(lt);
+            }
+            if (i < 0) {
+                // Unterminated construct; let the XML parser report it
+                supported = false;
+            }
+        }
+    }
+
+    /**
+     * Scans a start tag and records the element text if it is a payload.
+     *
+     * @return Index to continue scanning from, or -1 if the tag is unterminated
+     */
+    private int scanStartTag(int lt) {
+        int nameStart = lt + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < size && !isNameEnd(bytes.get(nameEnd))) {
+            nameEnd++;
+        }
+
+        // Find the closing '>' outside of attribute values
+        int gt = nameEnd;
+        byte quote = 0;
+        for (; gt < size; gt++) {
+            byte b = bytes.get(gt);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                break;
+            }
+        }
+        if (gt >= size) {
+            return -1;
+        }
+        if (bytes.get(gt - 1) == '/' || !isPayloadElement(nameStart, nameEnd)) {
+            return gt + 1;
+        }
+
+        int contentStart = gt + 1;
+        int contentEnd = contentStart;
+        while (contentEnd < size) {
+            byte b = bytes.get(contentEnd);
+            if (b == '<') {
+                break;
+            }
+            if (b == '&') {
+                // Entity reference: leave this element to the XML parser
+                return contentEnd;
+            }
+            contentEnd++;
+        }
+        if (isEndTag(contentEnd, nameStart, nameEnd)) {
+            addPayload(contentStart, contentEnd);
+        }
+        return contentEnd;
+    }
+
+    private boolean isPayloadElement(int nameStart, int nameEnd) {
+        for (byte[] name : PAYLOAD_ELEMENTS) {
+            if (name.length == nameEnd - nameStart && matches(nameStart, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks for "&lt;/name&gt;" (optionally with whitespace before '&gt;') at the given index.
+     */
+    private boolean isEndTag(int index, int nameStart, int nameEnd) {
+        int length = nameEnd - nameStart;
+        if (index + length + 2 >= size || bytes.get(index) != '<' || bytes.get(index + 1) != '/') {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (bytes.get(index + 2 + k) != bytes.get(nameStart + k)) {
+                return false;
+            }
+        }
+        int j = index + 2 + length;
+        while (j < size && (bytes.get(j) & 0xFF) <= ' ') {
+            j++;
+        }
+        return j < size && bytes.get(j) == '>';
+    }
+
+    private void addPayload(int start, int end) {
+        if (payloadCount == payloadStarts.length) {
+            payloadStarts = Arrays.copyOf(payloadStarts, payloadCount * 2);
+            payloadEnds = Arrays.copyOf(payloadEnds, payloadCount * 2);
+        }
+        payloadStarts[payloadCount] = start;
+        payloadEnds[payloadCount] = end;
+        payloadCount++;
+    }
+
+    private static boolean isNameEnd(byte b) {
+        return (b & 0xFF) <= ' ' || b == '>' || b == '/';
+    }
+
+    private int indexOf(char c, int from) {
+        for (int i = from; i < size; i++) {
+            if (bytes.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int index, String prefix) {
+        return index + prefix.length() <= size && matches(index, ascii(prefix));
+    }
+
+    private boolean matches(int index, byte[] expected) {
+        for (int k = 0; k < expected.length; k++) {
+            if (bytes.get(index + k) != expected[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the end of a terminator string.
+     *
+     * @return Index just past the terminator, or -1 if it does not occur
+     */
+    private int skipPast(int from, String terminator) {
+        byte first = (byte) terminator.charAt(0);
+        for (int i = from; i + terminator.length() <= size; i++) {
+            if (bytes.get(i) == first && startsWith(i, terminator)) {
+                return i + terminator.length();
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The mapped bytes with each payload replaced by its marker.
+     */
+    final class StructureStream extends InputStream {
+        private final ByteBuffer source = bytes.duplicate();
+        private int position;
+        private int nextPayload;
+        private byte[] marker;
+        private int markerPosition;
+
+        /**
+         * Gets the offset in the file up to which the structure has been read, including
+         * the payloads passed so far.
+         */
+        long getFilePosition() {
+            return position;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (marker != null) {
+                int n = Math.min(length, marker.length - markerPosition);
+                System.arraycopy(marker, markerPosition, target, offset, n);
+                markerPosition += n;
+                if (markerPosition == marker.length) {
+                    marker = null;
+                }
+                return n;
+            }
+            if (nextPayload < payloadCount && position == payloadStarts[nextPayload]) {
+                marker = ascii(MARKER + Integer.toString(nextPayload));
+                markerPosition = 0;
+                position = payloadEnds[nextPayload];
+                nextPayload++;
+                return read(target, offset, length);
+            }
+            if (position >= size) {
+                return -1;
+            }
+            int boundary = nextPayload < payloadCount ? payloadStarts[nextPayload] : size;
+            int n = Math.min(length, boundary - position);
+            source.position(position);
+            source.get(target, offset, n);
+            position += n;
+            return n;
+        }
+    }
+}
@@ -1,33 +1,51 @@
 package com.daeparser;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a mesh element containing triangles, polygons, or other primitives.
+ * Triangle indices are kept in one flat int array: each triangle contributes 3 corners,
+ * and each corner holds {@link #getIndexStride()} indices (one per input offset).
+ * Each primitive element (usually one per material) is a {@link DAEPrimitiveGroup} covering
+ * a range of those triangles, so all groups share one vertex buffer.
  */
 public class DAEMesh {
+    private static final int[] EMPTY_INDICES = new int[0];
+
     private List<DAESource> sources;
     private List<float[]> vertices;
-    private List<int[]> triangles;
     private int vertexCount;
     private int triangleCount;
     
-    // New fields for triangulated data generation
-    private List<int[]> triangleIndices; // Full indices for all attributes (position, normal, texcoord, etc.)
-    private Map<String, String> inputSemantics; // Maps semantic (VERTEX, NORMAL, TEXCOORD) to source ID
+    // Fields for triangulated data generation
+    private int[] indices; // Interleaved per-corner indices for all inputs (position, normal, texcoord, etc.)
+    private int indexCount; // Number of used entries in indices
+    private int indexStride; // Indices per corner (max input offset + 1)
+    private Map<String, String> inputSemantics; // Maps semantic (VERTEX, NORMAL, TEXCOORD, ...) to source ID
     private Map<String, Integer> inputOffsets; // Maps semantic to offset in index array
     private String verticesId; // ID of the vertices element
+    private List<DAEPrimitiveGroup> primitiveGroups; // Triangle ranges of the primitive elements
+    private DAELazyPayload lazyIndices; // Raw <p> text of a lazily parsed mesh, kept to decode again after release
+    private volatile DAELazyPayload pendingIndices; // Set while the indices are not decoded
+    private volatile DAEMeshLayout layout; // Resolved inputs, cached until the mesh is modified
+    private volatile DAEVertexIndexer vertexIndexer; // Corner deduplication, cached like the layout
 
     public DAEMesh() {
         this.sources = new ArrayList<>();
         this.vertices = new ArrayList<>();
-        this.triangles = new ArrayList<>();
-        this.triangleIndices = new ArrayList<>();
+        this.indices = EMPTY_INDICES;
         this.inputSemantics = new HashMap<>();
         this.inputOffsets = new HashMap<>();
+        this.primitiveGroups = new ArrayList<>();
     }
 
     public List<DAESource> getSources() {
@@ -36,10 +54,12 @@ public class DAEMesh {
 
     public void setSources(List<DAESource> sources) {
         this.sources = sources;
+        meshChanged();
     }
 
     public void addSource(DAESource source) {
         this.sources.add(source);
+        meshChanged();
     }
 
     public List<float[]> getVertices() {
@@ -54,16 +74,103 @@ public class DAEMesh {
         this.vertices.add(vertex);
     }
 
+    /**
+     * Gets vertex-only triangles: the VERTEX index of each corner.
+     * The list is an unmodifiable copy built from the flat index buffer on every call;
+     * change triangles through {@link #setTriangles(List)}, {@link #addTriangle(int[])} or
+     * {@link #getIndices()}.
+     *
+     * @return List of 3-element index arrays, one per triangle
+     * @deprecated Copies every triangle; use {@link #getIndices()} with {@link #getIndexStride()}
+     * and the VERTEX input offset
+     */
+    @Deprecated
     public List<int[]> getTriangles() {
-        return triangles;
+        ensureIndices();
+        int cornerStride = Math.max(indexStride, 1);
+        int column = getVertexColumn();
+        int count = getIndexedTriangleCount();
+        List<int[]> result = new ArrayList<>(count);
+        for (int t = 0; t < count; t++) {
+            int base = t * 3 * cornerStride + column;
+            result.add(new int[] {indices[base], indices[base + cornerStride], indices[base + cornerStride * 2]});
+        }
+        return Collections.unmodifiableList(result);
     }
 
+    /**
+     * Sets the VERTEX index of every triangle corner, keeping the indices of the other inputs.
+     * A mesh without index data, or with one index per corner, gets the triangles as its index
+     * data (index stride 1).
+     *
+     * @param triangles List of 3-element index arrays, one per triangle of the mesh
+     * @throws IllegalArgumentException if a triangle does not have 3 indices, or the mesh has
+     *                                  more than one index per corner and a different number of triangles
+     */
     public void setTriangles(List<int[]> triangles) {
-        this.triangles = triangles;
+        ensureIndices();
+        if (indexStride <= 1 || indexCount == 0) {
+            setTriangleIndices(triangles);
+            return;
+        }
+        int count = getIndexedTriangleCount();
+        if (triangles.size() != count) {
+            throw new IllegalArgumentException("Mesh has " + count + " triangles with " + indexStride
+                    + " indices per corner, got vertex indices for " + triangles.size());
+        }
+        for (int[] triangle : triangles) {
+            if (triangle.length != 3) {
+                throw new IllegalArgumentException("Triangle must have 3 vertex indices, got " + triangle.length);
+            }
+        }
+        int column = getVertexColumn();
+        for (int t = 0; t < count; t++) {
+            int[] triangle = triangles.get(t);
+            for (int c = 0; c < 3; c++) {
+                indices[(t * 3 + c) * indexStride + column] = triangle[c];
+            }
+        }
+        meshChanged();
     }
 
+    /**
+     * Appends a triangle to the index data. A vertex-only triangle (3 indices) on a mesh with
+     * more than one index per corner uses its vertex index for every input of the corner,
+     * as if all inputs shared one offset.
+     *
+     * @param triangle Corner indices: 3 * index stride values, or 3 vertex indices
+     */
     public void addTriangle(int[] triangle) {
-        this.triangles.add(triangle);
+        ensureIndices();
+        if (indexCount == 0) {
+            indexStride = triangle.length / 3;
+        }
+        if (triangle.length == 3 && indexStride > 1) {
+            int[] corners = new int[indexStride * 3];
+            for (int c = 0; c < 3; c++) {
+                Arrays.fill(corners, c * indexStride, (c + 1) * indexStride, triangle[c]);
+            }
+            triangle = corners;
+        }
+        if (triangle.length != indexStride * 3) {
+            throw new IllegalArgumentException("Triangle must have 3 or " + indexStride * 3 + " indices, got "
+                    + triangle.length);
+        }
+        if (indexCount + triangle.length > indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(indexCount + triangle.length, indices.length * 2));
+        }
+        System.arraycopy(triangle, 0, indices, indexCount, triangle.length);
+        indexCount += triangle.length;
+        triangleCount = getIndexedTriangleCount();
+        meshChanged();
+    }
+
+    /**
+     * Gets the position of the VERTEX index within a corner, 0 if the mesh has no VERTEX offset.
+     */
+    private int getVertexColumn() {
+        Integer offset = inputOffsets.get("VERTEX");
+        return offset != null && offset >= 0 && offset < indexStride ? offset : 0;
     }
 
     public int getVertexCount() {
@@ -82,12 +189,108 @@ public class DAEMesh {
         this.triangleCount = triangleCount;
     }
     
+    /**
+     * Gets the full per-triangle indices for all inputs.
+     * The list is an unmodifiable copy built from the flat index buffer on every call;
+     * replace the triangles through {@link #setTriangleIndices(List)} or {@link #setIndices(int[], int)}.
+     *
+     * @return List of index arrays, one per triangle, each holding 3 * index stride values
+     * @deprecated Copies every triangle; use {@link #getIndices()} with {@link #getIndexStride()}
+     */
+    @Deprecated
     public List<int[]> getTriangleIndices() {
-        return triangleIndices;
+        ensureIndices();
+        int triangleStride = indexStride * 3;
+        int count = getIndexedTriangleCount();
+        List<int[]> result = new ArrayList<>(count);
+        for (int t = 0; t < count; t++) {
+            result.add(Arrays.copyOfRange(indices, t * triangleStride, (t + 1) * triangleStride));
+        }
+        return Collections.unmodifiableList(result);
     }
     
+    /**
+     * Replaces the index data with the given per-triangle index arrays.
+     * All arrays must have the same length (3 * index stride).
+     *
+     * @param triangleIndices List of index arrays, one per triangle
+     */
     public void setTriangleIndices(List<int[]> triangleIndices) {
-        this.triangleIndices = triangleIndices;
+        int triangleStride = triangleIndices.isEmpty() ? 3 : triangleIndices.get(0).length;
+        int[] flat = new int[triangleIndices.size() * triangleStride];
+        int i = 0;
+        for (int[] triangle : triangleIndices) {
+            if (triangle.length != triangleStride) {
+                throw new IllegalArgumentException("All triangles must have " + triangleStride + " indices");
+            }
+            System.arraycopy(triangle, 0, flat, i, triangleStride);
+            i += triangleStride;
+        }
+        setIndices(flat, triangleStride / 3);
+    }
+
+    /**
+     * Sets the flat index data, taking ownership of the array without copying it.
+     * Trailing values that do not form a whole triangle are ignored.
+     *
+     * @param indices Interleaved per-corner indices, 3 corners per triangle
+     * @param stride  Number of indices per corner (max input offset + 1)
+     */
+    public void setIndices(int[] indices, int stride) {
+        if (stride <= 0) {
+            throw new IllegalArgumentException("Index stride must be positive: " + stride);
+        }
+        this.lazyIndices = null;
+        this.pendingIndices = null;
+        this.indices = indices != null ? indices : EMPTY_INDICES;
+        this.indexStride = stride;
+        this.indexCount = this.indices.length - this.indices.length % (stride * 3);
+        this.triangleCount = getIndexedTriangleCount();
+        meshChanged();
+    }
+
+    /**
+     * Gets the flat index data: for each triangle 3 corners, each with
+     * {@link #getIndexStride()} interleaved indices.
+     * The returned array is the backing storage of this mesh (no copy is made).
+     *
+     * @return Flat index array holding exactly the triangles of this mesh
+     */
+    public int[] getIndices() {
+        ensureIndices();
+        if (indexCount != indices.length) {
+            indices = Arrays.copyOf(indices, indexCount);
+        }
+        return indices;
+    }
+
+    /**
+     * Gets a read-only, zero-copy view of the flat index data.
+     *
+     * @return Read-only IntBuffer positioned at the first index
+     */
+    public IntBuffer getIndexBuffer() {
+        ensureIndices();
+        return IntBuffer.wrap(indices, 0, indexCount).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the number of indices per triangle corner (max input offset + 1).
+     *
+     * @return Index stride, or 0 if no index data has been set
+     */
+    public int getIndexStride() {
+        return indexStride;
+    }
+
+    /**
+     * Gets the number of triangles held in the flat index data.
+     *
+     * @return Number of complete triangles
+     */
+    public int getIndexedTriangleCount() {
+        ensureIndices();
+        return indexStride == 0 ? 0 : indexCount / (indexStride * 3);
     }
     
     public Map<String, String> getInputSemantics() {
@@ -96,10 +299,12 @@ public class DAEMesh {
     
     public void setInputSemantics(Map<String, String> inputSemantics) {
         this.inputSemantics = inputSemantics;
+        meshChanged();
     }
     
     public void addInputSemantic(String semantic, String sourceId) {
         this.inputSemantics.put(semantic, sourceId);
+        meshChanged();
     }
     
     public Map<String, Integer> getInputOffsets() {
@@ -108,10 +313,12 @@ public class DAEMesh {
     
     public void setInputOffsets(Map<String, Integer> inputOffsets) {
         this.inputOffsets = inputOffsets;
+        meshChanged();
     }
     
     public void addInputOffset(String semantic, int offset) {
         this.inputOffsets.put(semantic, offset);
+        meshChanged();
     }
     
     public String getVerticesId() {
@@ -122,6 +329,119 @@ public class DAEMesh {
         this.verticesId = verticesId;
     }
 
+    /**
+     * Gets the primitive groups, in document order. Their triangle ranges follow each other
+     * and cover the index data of the mesh.
+     *
+     * @return List of groups; empty if the indices were set without groups
+     */
+    public List<DAEPrimitiveGroup> getPrimitiveGroups() {
+        return primitiveGroups;
+    }
+
+    public void setPrimitiveGroups(List<DAEPrimitiveGroup> primitiveGroups) {
+        this.primitiveGroups = primitiveGroups;
+    }
+
+    public void addPrimitiveGroup(DAEPrimitiveGroup primitiveGroup) {
+        this.primitiveGroups.add(primitiveGroup);
+    }
+
+    /**
+     * Gets the first primitive group bound to a material symbol.
+     *
+     * @param material Material symbol
+     * @return Group, or null if no group uses the symbol
+     */
+    public DAEPrimitiveGroup getPrimitiveGroup(String material) {
+        for (DAEPrimitiveGroup group : primitiveGroups) {
+            if (material.equals(group.getMaterial())) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the resolved input layout of this mesh.
+     * The layout is computed on first use and cached until the mesh is modified through
+     * one of its setters; call {@link #invalidateLayout()} after changing the returned
+     * collections or source data directly.
+     * 
+     * @return Mesh layout
+     */
+    public DAEMeshLayout getLayout() {
+        DAEMeshLayout current = layout;
+        if (current == null) {
+            current = DAEMeshLayout.resolve(this);
+            layout = current;
+        }
+        return current;
+    }
+    
+    /**
+     * Discards the cached layout so it is resolved again on next use.
+     */
+    public void invalidateLayout() {
+        meshChanged();
+    }
+    
+    /**
+     * Checks whether the index data is decoded. Indices of a lazily parsed mesh
+     * (see {@link DAEParser#parseLazy(java.nio.file.Path)}) are decoded on first access.
+     *
+     * @return false if the indices are still held as raw text
+     */
+    public boolean isIndicesLoaded() {
+        return pendingIndices == null;
+    }
+
+    /**
+     * Drops the decoded indices of a lazily parsed mesh to free memory; they are decoded
+     * again on next access. Has no effect on meshes whose indices were set directly.
+     * Must not be called while other threads are reading the mesh.
+     */
+    public synchronized void releaseIndices() {
+        if (lazyIndices != null) {
+            indices = EMPTY_INDICES;
+            indexCount = 0;
+            pendingIndices = lazyIndices;
+            vertexIndexer = null;
+        }
+    }
+
+    /**
+     * Sets raw <p> text to decode on first access. The triangle count is left as declared.
+     */
+    synchronized void setLazyIndices(DAELazyPayload payload, int stride) {
+        this.indices = EMPTY_INDICES;
+        this.indexCount = 0;
+        this.indexStride = stride;
+        this.lazyIndices = payload;
+        this.pendingIndices = payload;
+        meshChanged();
+    }
+
+    private void ensureIndices() {
+        if (pendingIndices != null) {
+            synchronized (this) {
+                DAELazyPayload payload = pendingIndices;
+                if (payload != null) {
+                    int[] decoded = payload.decodeInts();
+                    indices = decoded;
+                    indexCount = decoded.length - decoded.length % (indexStride * 3);
+                    // Volatile write publishes indices and indexCount to other threads
+                    pendingIndices = null;
+                }
+            }
+        }
+    }
+
+    private void meshChanged() {
+        layout = null;
+        vertexIndexer = null;
+    }
+
     /**
      * Gets triangulated vertex data suitable for VBO creation.
      * Returns an array where each triangle's vertices are expanded with all attributes
@@ -130,127 +450,142 @@ public class DAEMesh {
      * @return Triangulated vertex data as a float array, or null if data is incomplete
      */
     public float[] getTriangulatedVertexData() {
-        if (triangleIndices.isEmpty() || inputSemantics.isEmpty()) {
+        if (getCornerCount() == 0 || inputSemantics.isEmpty()) {
             return null;
         }
         
-        // Calculate stride from input offsets
-        int stride = 0;
-        for (int offset : inputOffsets.values()) {
-            if (offset >= stride) {
-                stride = offset + 1;
-            }
-        }
-        
-        if (stride == 0) {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        if (attributes == null) {
             return null;
         }
         
-        // Find sources for each semantic
-        DAESource positionSource = null;
-        DAESource normalSource = null;
-        DAESource texcoordSource = null;
-        
-        for (Map.Entry<String, String> entry : inputSemantics.entrySet()) {
-            String semantic = entry.getKey();
-            String sourceId = entry.getValue();
-            
-            // Handle VERTEX semantic by looking up the vertices element
-            if (semantic.equals("VERTEX")) {
-                // For VERTEX, we need to find the POSITION source via verticesId
-                for (DAESource source : sources) {
-                    if (source.getId() != null && sourceId != null && 
-                        (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                        positionSource = source;
-                        break;
-                    }
-                }
-            } else if (semantic.equals("NORMAL")) {
-                for (DAESource source : sources) {
-                    if (source.getId() != null && sourceId != null && 
-                        (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                        normalSource = source;
-                        break;
-                    }
-                }
-            } else if (semantic.equals("TEXCOORD")) {
-                for (DAESource source : sources) {
-                    if (source.getId() != null && sourceId != null && 
-                        (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                        texcoordSource = source;
-                        break;
-                    }
-                }
-            }
+        Object event = DAEFlightRecorder.beginTriangulation();
+        float[] triangulatedData = new float[getCornerCount() * vertexStride(attributes)];
+        writeInterleaved(attributes, triangulatedData, 0);
+        DAEFlightRecorder.endTriangulation(event, this, triangulatedData.length);
+        return triangulatedData;
+    }
+    
+    /**
+     * Writes triangulated interleaved vertex data (same layout as {@link #getTriangulatedVertexData()})
+     * into a caller-supplied array.
+     * 
+     * @param output Destination array; needs {@link #getTriangulatedVertexDataLength()} floats from offset
+     * @param offset Index of the first float to write
+     * @throws IllegalStateException if the mesh has no VERTEX input
+     */
+    public void writeTriangulatedVertexData(float[] output, int offset) {
+        writeInterleaved(requireVertexAttributes(), output, offset);
+    }
+    
+    /**
+     * Writes triangulated interleaved vertex data into a caller-supplied buffer,
+     * starting at the buffer's position and advancing it.
+     * 
+     * @param output Destination buffer (heap or direct)
+     * @throws IllegalStateException if the mesh has no VERTEX input
+     */
+    public void writeTriangulatedVertexData(FloatBuffer output) {
+        DAEMeshLayout.Attribute[] attributes = requireVertexAttributes();
+        int length = getCornerCount() * vertexStride(attributes);
+        int[] starts = new int[attributes.length];
+        int[] strides = new int[attributes.length];
+        int start = output.position();
+        int vertexStride = vertexStride(attributes);
+        for (int i = 0; i < attributes.length; i++) {
+            starts[i] = start;
+            strides[i] = vertexStride;
+            start += attributes[i].getComponentCount();
         }
-        
-        if (positionSource == null) {
-            return null;
+        FloatBuffer[] outputs = new FloatBuffer[attributes.length];
+        Arrays.fill(outputs, output);
+        writeCorners(attributes, null, outputs, starts, strides);
+        output.position(output.position() + length);
+    }
+    
+    /**
+     * Writes triangulated interleaved vertex data straight into a byte buffer in native byte order,
+     * typically a direct buffer passed to glBufferData. Writing starts at the buffer's position,
+     * which is advanced past the written data; no intermediate heap array is created.
+     * 
+     * @param output Destination buffer with at least {@link #getTriangulatedVertexDataSize()} bytes remaining
+     * @throws IllegalStateException if the mesh has no VERTEX input
+     */
+    public void writeTriangulatedVertexData(ByteBuffer output) {
+        FloatBuffer floats = nativeFloatView(output);
+        writeTriangulatedVertexData(floats);
+        output.position(output.position() + floats.position() * 4);
+    }
+    
+    /**
+     * Gets the size in bytes of the triangulated interleaved vertex data.
+     * 
+     * @return Number of bytes, or 0 if data is incomplete
+     */
+    public int getTriangulatedVertexDataSize() {
+        return getTriangulatedVertexDataLength() * 4;
+    }
+    
+    /**
+     * Gets the number of floats produced by {@link #getTriangulatedVertexData()}.
+     * 
+     * @return Number of floats, or 0 if data is incomplete
+     */
+    public int getTriangulatedVertexDataLength() {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        return attributes == null ? 0 : getCornerCount() * vertexStride(attributes);
+    }
+    
+    /**
+     * Gets several triangulated attributes in one pass over the index data.
+     * 
+     * @param semantics Input semantics to extract (e.g. "VERTEX", "NORMAL", "TEXCOORD")
+     * @return One array per semantic, each holding the attribute for every triangle corner
+     * @throws IllegalArgumentException if a semantic is not available
+     */
+    public float[][] getTriangulatedAttributes(String... semantics) {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getAttributes(semantics);
+        float[][] outputs = new float[attributes.length][];
+        for (int i = 0; i < attributes.length; i++) {
+            outputs[i] = new float[getCornerCount() * attributes[i].getComponentCount()];
         }
-        
-        // Calculate stride per vertex (position + normal + texcoord)
-        int posStride = positionSource.getStride() > 0 ? positionSource.getStride() : 3;
-        int normStride = normalSource != null && normalSource.getStride() > 0 ? normalSource.getStride() : 3;
-        int texStride = texcoordSource != null && texcoordSource.getStride() > 0 ? texcoordSource.getStride() : 2;
-        
-        int vertexStride = posStride;
-        if (normalSource != null) vertexStride += normStride;
-        if (texcoordSource != null) vertexStride += texStride;
-        
-        // Each triangle has 3 vertices
-        float[] triangulatedData = new float[triangleIndices.size() * 3 * vertexStride];
-        int dataIndex = 0;
-        
-        float[] posData = positionSource.getDataAsArray();
-        float[] normData = normalSource != null ? normalSource.getDataAsArray() : null;
-        float[] texData = texcoordSource != null ? texcoordSource.getDataAsArray() : null;
-        
-        for (int[] triIndices : triangleIndices) {
-            // Each triangle has 3 vertices
-            for (int v = 0; v < 3; v++) {
-                int indexOffset = v * stride;
-                
-                // Position data
-                Integer posOffset = inputOffsets.get("VERTEX");
-                if (posOffset != null && indexOffset + posOffset < triIndices.length) {
-                    int posIndex = triIndices[indexOffset + posOffset];
-                    for (int i = 0; i < posStride && posIndex * posStride + i < posData.length; i++) {
-                        triangulatedData[dataIndex++] = posData[posIndex * posStride + i];
-                    }
-                }
-                
-                // Normal data
-                if (normalSource != null) {
-                    Integer normOffset = inputOffsets.get("NORMAL");
-                    if (normOffset != null && indexOffset + normOffset < triIndices.length) {
-                        int normIndex = triIndices[indexOffset + normOffset];
-                        for (int i = 0; i < normStride && normIndex * normStride + i < normData.length; i++) {
-                            triangulatedData[dataIndex++] = normData[normIndex * normStride + i];
-                        }
-                    }
-                }
-                
-                // Texcoord data
-                if (texcoordSource != null) {
-                    Integer texOffset = inputOffsets.get("TEXCOORD");
-                    if (texOffset != null && indexOffset + texOffset < triIndices.length) {
-                        int texIndex = triIndices[indexOffset + texOffset];
-                        for (int i = 0; i < texStride && texIndex * texStride + i < texData.length; i++) {
-                            triangulatedData[dataIndex++] = texData[texIndex * texStride + i];
-                        }
-                    }
-                }
-            }
+        writeTriangulatedAttributes(attributes, outputs);
+        return outputs;
+    }
+    
+    /**
+     * Writes several triangulated attributes into caller-supplied arrays in one pass over the index data.
+     * Each array must hold (3 * triangle count * component count) floats for its attribute.
+     * 
+     * @param semantics Input semantics to extract
+     * @param outputs   Destination arrays, one per semantic
+     * @throws IllegalArgumentException if a semantic is not available
+     */
+    public void writeTriangulatedAttributes(String[] semantics, float[][] outputs) {
+        writeTriangulatedAttributes(getLayout().getAttributes(semantics), outputs);
+    }
+    
+    /**
+     * Writes several triangulated attributes into caller-supplied buffers in one pass over the index data.
+     * Each buffer is written from its position, which is advanced past the written data.
+     * 
+     * @param semantics Input semantics to extract
+     * @param outputs   Destination buffers (heap or direct), one per semantic
+     * @throws IllegalArgumentException if a semantic is not available
+     */
+    public void writeTriangulatedAttributes(String[] semantics, FloatBuffer[] outputs) {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getAttributes(semantics);
+        int[] starts = new int[attributes.length];
+        int[] strides = new int[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            starts[i] = outputs[i].position();
+            strides[i] = attributes[i].getComponentCount();
         }
-        
-        // Return only the filled portion if dataIndex < triangulatedData.length
-        if (dataIndex < triangulatedData.length) {
-            float[] result = new float[dataIndex];
-            System.arraycopy(triangulatedData, 0, result, 0, dataIndex);
-            return result;
+        writeCorners(attributes, null, outputs, starts, strides);
+        int cornerCount = getCornerCount();
+        for (int i = 0; i < attributes.length; i++) {
+            outputs[i].position(starts[i] + cornerCount * strides[i]);
         }
-        
-        return triangulatedData;
     }
     
     /**
@@ -260,206 +595,348 @@ public class DAEMesh {
      * @return Triangulated position data, or null if not available
      */
     public float[] getTriangulatedPositions() {
-        if (triangleIndices.isEmpty() || inputSemantics.isEmpty()) {
+        return getTriangulatedAttribute("VERTEX");
+    }
+    
+    /**
+     * Gets triangulated normals only.
+     * Returns normals for each vertex of each triangle: [nx, ny, nz, nx, ny, nz, ...]
+     * 
+     * @return Triangulated normal data, or null if not available
+     */
+    public float[] getTriangulatedNormals() {
+        return getTriangulatedAttribute("NORMAL");
+    }
+    
+    /**
+     * Gets triangulated texture coordinates only.
+     * Returns texcoords for each vertex of each triangle: [u, v, u, v, ...]
+     * 
+     * @return Triangulated texcoord data, or null if not available
+     */
+    public float[] getTriangulatedTexCoords() {
+        return getTriangulatedAttribute("TEXCOORD");
+    }
+
+    /**
+     * Gets triangulated tangents only.
+     * Returns tangents for each vertex of each triangle: [tx, ty, tz, w, tx, ty, tz, w, ...]
+     *
+     * @return Triangulated tangent data, or null if not available
+     */
+    public float[] getTriangulatedTangents() {
+        return getTriangulatedAttribute("TEXTANGENT");
+    }
+
+    /**
+     * Generates smooth, angle weighted normals if this mesh has none.
+     * See {@link DAETangentSpaceGenerator} for the options.
+     *
+     * @return true if normals were added
+     */
+    public boolean generateNormals() {
+        return new DAETangentSpaceGenerator().generateNormals(this);
+    }
+
+    /**
+     * Generates MikkTSpace style tangents (and normals if missing) if this mesh has texcoords
+     * but no tangents. The tangents become part of the interleaved vertex data, after the texcoords.
+     *
+     * @return true if tangents were added
+     */
+    public boolean generateTangents() {
+        return new DAETangentSpaceGenerator().generateTangents(this);
+    }
+
+    private float[] getTriangulatedAttribute(String semantic) {
+        if (getCornerCount() == 0 || inputSemantics.isEmpty() || !getLayout().hasAttribute(semantic)) {
             return null;
         }
-        
-        // Calculate stride from input offsets
-        int stride = 0;
-        for (int offset : inputOffsets.values()) {
-            if (offset >= stride) {
-                stride = offset + 1;
-            }
-        }
-        
-        if (stride == 0) {
+        return getTriangulatedAttributes(semantic)[0];
+    }
+
+    /**
+     * Builds indexed (deduplicated) vertex data suitable for a VBO plus an element buffer.
+     * Corners sharing the same position, normal and texcoord indices are emitted once,
+     * so shared vertices are no longer duplicated as in {@link #getTriangulatedVertexData()}.
+     * The per-vertex layout is the same: [x, y, z, nx, ny, nz, u, v, ...].
+     * The vertices are shared by all primitive groups, which keep their index ranges.
+     * 
+     * @return Indexed mesh, or null if data is incomplete
+     */
+    public DAEIndexedMesh buildIndexedMesh() {
+        if (getCornerCount() == 0 || inputSemantics.isEmpty()) {
             return null;
         }
         
-        // Find position source
-        DAESource positionSource = null;
-        for (DAESource source : sources) {
-            String sourceId = inputSemantics.get("VERTEX");
-            if (source.getId() != null && sourceId != null && 
-                (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                positionSource = source;
-                break;
-            }
-        }
-        
-        if (positionSource == null) {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        if (attributes == null) {
             return null;
         }
         
-        int posStride = positionSource.getStride() > 0 ? positionSource.getStride() : 3;
-        float[] posData = positionSource.getDataAsArray();
-        float[] result = new float[triangleIndices.size() * 3 * posStride];
+        int vertexStride = vertexStride(attributes);
+        DAEVertexIndexer indexer = getVertexIndexer(attributes);
+        int[] uniqueCorners = indexer.getUniqueCorners();
+        float[] vertexData = new float[indexer.getVertexCount() * vertexStride];
         int dataIndex = 0;
-        
-        Integer posOffset = inputOffsets.get("VERTEX");
-        if (posOffset == null) {
-            return null;
-        }
-        
-        for (int[] triIndices : triangleIndices) {
-            for (int v = 0; v < 3; v++) {
-                int indexOffset = v * stride;
-                if (indexOffset + posOffset < triIndices.length) {
-                    int posIndex = triIndices[indexOffset + posOffset];
-                    for (int i = 0; i < posStride && posIndex * posStride + i < posData.length; i++) {
-                        result[dataIndex++] = posData[posIndex * posStride + i];
-                    }
-                }
-            }
-        }
-        
-        if (dataIndex < result.length) {
-            float[] trimmed = new float[dataIndex];
-            System.arraycopy(result, 0, trimmed, 0, dataIndex);
-            return trimmed;
+        for (int corner : uniqueCorners) {
+            dataIndex = copyCorner(attributes, corner, vertexData, dataIndex);
         }
         
-        return result;
+        return new DAEIndexedMesh(vertexData, vertexStride, indexer.getRemap().clone(), primitiveGroups);
     }
     
     /**
-     * Gets triangulated normals only.
-     * Returns normals for each vertex of each triangle: [nx, ny, nz, nx, ny, nz, ...]
+     * Builds indexed vertex data like {@link #buildIndexedMesh()}, with the triangles of each
+     * primitive group reordered for the post-transform vertex cache and the vertices numbered in
+     * first-use order. See {@link DAEVertexCacheOptimizer} for the cache statistics.
      * 
-     * @return Triangulated normal data, or null if not available
+     * @return Optimized indexed mesh, or null if data is incomplete
      */
-    public float[] getTriangulatedNormals() {
-        if (triangleIndices.isEmpty() || inputSemantics.isEmpty()) {
-            return null;
+    public DAEIndexedMesh buildOptimizedIndexedMesh() {
+        DAEIndexedMesh indexed = buildIndexedMesh();
+        return indexed == null ? null : new DAEVertexCacheOptimizer().optimize(indexed).getMesh();
+    }
+
+    /**
+     * Packs interleaved vertex data of this mesh into a compact vertex format, e.g. quantized
+     * positions, octahedral normals and half float texcoords. Works on any data in this mesh's
+     * vertex layout: {@link #getTriangulatedVertexData()} or the vertices of
+     * {@link #buildIndexedMesh()} and {@link #buildOptimizedIndexedMesh()}.
+     *
+     * @param vertexData Interleaved vertex data in this mesh's layout
+     * @param format     Encoding of each attribute
+     * @return Packed vertices with their attribute layout and dequantization parameters
+     * @throws IllegalStateException    if the mesh has no VERTEX input
+     * @throws IllegalArgumentException if the data does not match the layout or the format
+     */
+    public DAEEncodedVertices encodeVertexData(float[] vertexData, DAEVertexFormat format) {
+        return DAEVertexEncoder.encode(vertexData, requireVertexAttributes(), format);
+    }
+
+    /**
+     * Gets the number of unique vertices {@link #buildIndexedMesh()} would produce.
+     * The deduplication result is cached until the mesh is modified, so sizing buffers
+     * before {@link #writeIndexedMesh(ByteBuffer, ByteBuffer)} does not repeat the work.
+     * 
+     * @return Number of unique vertices, or 0 if data is incomplete
+     */
+    public int getIndexedVertexCount() {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        return attributes == null || getCornerCount() == 0 ? 0 : getVertexIndexer(attributes).getVertexCount();
+    }
+    
+    /**
+     * Gets the size in bytes of the indexed vertex data written by {@link #writeIndexedMesh(ByteBuffer, ByteBuffer)}.
+     * 
+     * @return Number of bytes, or 0 if data is incomplete
+     */
+    public int getIndexedVertexDataSize() {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        return attributes == null ? 0 : getIndexedVertexCount() * vertexStride(attributes) * 4;
+    }
+    
+    /**
+     * Gets the size of one index written by {@link #writeIndexedMesh(ByteBuffer, ByteBuffer)}:
+     * 2 bytes (unsigned short) when there are at most 65536 unique vertices, 4 bytes (int) otherwise.
+     * 
+     * @return Index size in bytes
+     */
+    public int getIndexElementSize() {
+        return getIndexedVertexCount() <= 0x10000 ? 2 : 4;
+    }
+    
+    /**
+     * Gets the size in bytes of the index data written by {@link #writeIndexedMesh(ByteBuffer, ByteBuffer)}.
+     * 
+     * @return Number of bytes
+     */
+    public int getIndexDataSize() {
+        return getCornerCount() * getIndexElementSize();
+    }
+    
+    /**
+     * Writes indexed (deduplicated) vertex and index data straight into byte buffers in native byte order,
+     * typically direct buffers for glBufferData. The vertex layout matches {@link #buildIndexedMesh()};
+     * indices are unsigned shorts or ints as reported by {@link #getIndexElementSize()}.
+     * Both buffers are written from their position, which is advanced past the written data.
+     * 
+     * @param vertexOutput Destination for vertex data, {@link #getIndexedVertexDataSize()} bytes
+     * @param indexOutput  Destination for index data, {@link #getIndexDataSize()} bytes
+     * @throws IllegalStateException if the mesh has no VERTEX input
+     */
+    public void writeIndexedMesh(ByteBuffer vertexOutput, ByteBuffer indexOutput) {
+        DAEMeshLayout.Attribute[] attributes = requireVertexAttributes();
+        DAEVertexIndexer indexer = getVertexIndexer(attributes);
+        
+        FloatBuffer vertices = nativeFloatView(vertexOutput);
+        int base = 0;
+        for (int corner : indexer.getUniqueCorners()) {
+            base = putCorner(attributes, corner, vertices, base);
         }
+        vertexOutput.position(vertexOutput.position() + base * 4);
         
-        // Calculate stride from input offsets
-        int stride = 0;
-        for (int offset : inputOffsets.values()) {
-            if (offset >= stride) {
-                stride = offset + 1;
+        int[] remap = indexer.getRemap();
+        ByteBuffer indexBytes = indexOutput.duplicate().order(ByteOrder.nativeOrder());
+        if (getIndexElementSize() == 2) {
+            for (int index : remap) {
+                indexBytes.putShort((short) index);
+            }
+        } else {
+            for (int index : remap) {
+                indexBytes.putInt(index);
             }
         }
-        
-        if (stride == 0) {
-            return null;
-        }
-        
-        DAESource normalSource = null;
-        String sourceId = inputSemantics.get("NORMAL");
-        if (sourceId != null) {
-            for (DAESource source : sources) {
-                if (source.getId() != null && 
-                    (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                    normalSource = source;
-                    break;
-                }
+        indexOutput.position(indexBytes.position());
+    }
+    
+    private DAEVertexIndexer getVertexIndexer(DAEMeshLayout.Attribute[] attributes) {
+        DAEVertexIndexer indexer = vertexIndexer;
+        if (indexer == null) {
+            ensureIndices();
+            int[] offsets = new int[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                offsets[i] = attributes[i].getOffset();
             }
+            indexer = DAEVertexIndexer.index(indices, indexStride, getCornerCount(), offsets);
+            vertexIndexer = indexer;
         }
-        
-        if (normalSource == null) {
-            return null;
+        return indexer;
+    }
+    
+    private static FloatBuffer nativeFloatView(ByteBuffer buffer) {
+        return buffer.duplicate().order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+    
+    private DAEMeshLayout.Attribute[] requireVertexAttributes() {
+        DAEMeshLayout.Attribute[] attributes = getLayout().getVertexAttributes();
+        if (attributes == null) {
+            throw new IllegalStateException("Mesh has no usable VERTEX input");
         }
-        
-        int normStride = normalSource.getStride() > 0 ? normalSource.getStride() : 3;
-        float[] normData = normalSource.getDataAsArray();
-        float[] result = new float[triangleIndices.size() * 3 * normStride];
-        int dataIndex = 0;
-        
-        Integer normOffset = inputOffsets.get("NORMAL");
-        if (normOffset == null) {
-            return null;
+        return attributes;
+    }
+    
+    private int getCornerCount() {
+        ensureIndices();
+        return indexStride == 0 ? 0 : indexCount / indexStride;
+    }
+    
+    private static int vertexStride(DAEMeshLayout.Attribute[] attributes) {
+        int stride = 0;
+        for (DAEMeshLayout.Attribute attribute : attributes) {
+            stride += attribute.getComponentCount();
         }
-        
-        for (int[] triIndices : triangleIndices) {
-            for (int v = 0; v < 3; v++) {
-                int indexOffset = v * stride;
-                if (indexOffset + normOffset < triIndices.length) {
-                    int normIndex = triIndices[indexOffset + normOffset];
-                    for (int i = 0; i < normStride && normIndex * normStride + i < normData.length; i++) {
-                        result[dataIndex++] = normData[normIndex * normStride + i];
-                    }
-                }
-            }
+        return stride;
+    }
+    
+    private void writeTriangulatedAttributes(DAEMeshLayout.Attribute[] attributes, float[][] outputs) {
+        int[] starts = new int[attributes.length];
+        int[] strides = new int[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            strides[i] = attributes[i].getComponentCount();
         }
-        
-        if (dataIndex < result.length) {
-            float[] trimmed = new float[dataIndex];
-            System.arraycopy(result, 0, trimmed, 0, dataIndex);
-            return trimmed;
+        writeCorners(attributes, outputs, null, starts, strides);
+    }
+    
+    private void writeInterleaved(DAEMeshLayout.Attribute[] attributes, float[] output, int offset) {
+        int vertexStride = vertexStride(attributes);
+        float[][] outputs = new float[attributes.length][];
+        int[] starts = new int[attributes.length];
+        int[] strides = new int[attributes.length];
+        int start = offset;
+        for (int i = 0; i < attributes.length; i++) {
+            outputs[i] = output;
+            starts[i] = start;
+            strides[i] = vertexStride;
+            start += attributes[i].getComponentCount();
         }
-        
-        return result;
+        writeCorners(attributes, outputs, null, starts, strides);
     }
     
     /**
-     * Gets triangulated texture coordinates only.
-     * Returns texcoords for each vertex of each triangle: [u, v, u, v, ...]
+     * Copies the attributes of one corner into a float array.
+     * Out of range indices produce zeros so every vertex keeps the same layout.
      * 
-     * @return Triangulated texcoord data, or null if not available
+     * @return Index after the last written float
      */
-    public float[] getTriangulatedTexCoords() {
-        if (triangleIndices.isEmpty() || inputSemantics.isEmpty()) {
-            return null;
-        }
-        
-        // Calculate stride from input offsets
-        int stride = 0;
-        for (int offset : inputOffsets.values()) {
-            if (offset >= stride) {
-                stride = offset + 1;
-            }
-        }
-        
-        if (stride == 0) {
-            return null;
-        }
-        
-        DAESource texcoordSource = null;
-        String sourceId = inputSemantics.get("TEXCOORD");
-        if (sourceId != null) {
-            for (DAESource source : sources) {
-                if (source.getId() != null && 
-                    (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
-                    texcoordSource = source;
-                    break;
+    private int copyCorner(DAEMeshLayout.Attribute[] attributes, int corner, float[] output, int dataIndex) {
+        int base = corner * indexStride;
+        for (DAEMeshLayout.Attribute attribute : attributes) {
+            int components = attribute.getComponentCount();
+            float[] values = attribute.getSource().getDataArrayUnsafe();
+            int start = indices[base + attribute.getOffset()] * components;
+            for (int c = 0; c < components; c++, dataIndex++) {
+                int index = start + c;
+                if (index >= 0 && index < values.length) {
+                    output[dataIndex] = values[index];
                 }
             }
         }
-        
-        if (texcoordSource == null) {
-            return null;
+        return dataIndex;
+    }
+    
+    /**
+     * Copies the attributes of one corner into a buffer with absolute puts.
+     * 
+     * @return Index after the last written float
+     */
+    private int putCorner(DAEMeshLayout.Attribute[] attributes, int corner, FloatBuffer output, int dataIndex) {
+        int base = corner * indexStride;
+        for (DAEMeshLayout.Attribute attribute : attributes) {
+            int components = attribute.getComponentCount();
+            float[] values = attribute.getSource().getDataArrayUnsafe();
+            int start = indices[base + attribute.getOffset()] * components;
+            for (int c = 0; c < components; c++, dataIndex++) {
+                int index = start + c;
+                output.put(dataIndex, index >= 0 && index < values.length ? values[index] : 0f);
+            }
         }
-        
-        int texStride = texcoordSource.getStride() > 0 ? texcoordSource.getStride() : 2;
-        float[] texData = texcoordSource.getDataAsArray();
-        float[] result = new float[triangleIndices.size() * 3 * texStride];
-        int dataIndex = 0;
-        
-        Integer texOffset = inputOffsets.get("TEXCOORD");
-        if (texOffset == null) {
-            return null;
+        return dataIndex;
+    }
+    
+    /**
+     * Single pass over all triangle corners, writing each requested attribute to its destination.
+     * Attribute i of corner k is written at starts[i] + k * strides[i], either into arrays[i] or
+     * (absolute puts) into buffers[i]. Out of range indices produce zeros.
+     */
+    private void writeCorners(DAEMeshLayout.Attribute[] attributes, float[][] arrays, FloatBuffer[] buffers,
+                              int[] starts, int[] strides) {
+        int attributeCount = attributes.length;
+        int[] offsets = new int[attributeCount];
+        int[] components = new int[attributeCount];
+        float[][] data = new float[attributeCount][];
+        for (int i = 0; i < attributeCount; i++) {
+            offsets[i] = attributes[i].getOffset();
+            components[i] = attributes[i].getComponentCount();
+            data[i] = attributes[i].getSource().getDataArrayUnsafe();
         }
         
-        for (int[] triIndices : triangleIndices) {
-            for (int v = 0; v < 3; v++) {
-                int indexOffset = v * stride;
-                if (indexOffset + texOffset < triIndices.length) {
-                    int texIndex = triIndices[indexOffset + texOffset];
-                    for (int i = 0; i < texStride && texIndex * texStride + i < texData.length; i++) {
-                        result[dataIndex++] = texData[texIndex * texStride + i];
+        int cornerCount = getCornerCount();
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int base = corner * indexStride;
+            for (int i = 0; i < attributeCount; i++) {
+                int count = components[i];
+                float[] values = data[i];
+                int src = indices[base + offsets[i]] * count;
+                int dst = starts[i] + corner * strides[i];
+                boolean inRange = src >= 0 && src + count <= values.length;
+                if (arrays != null) {
+                    float[] out = arrays[i];
+                    if (inRange) {
+                        System.arraycopy(values, src, out, dst, count);
+                    } else {
+                        for (int c = 0; c < count; c++) {
+                            out[dst + c] = 0f;
+                        }
+                    }
+                } else {
+                    FloatBuffer out = buffers[i];
+                    for (int c = 0; c < count; c++) {
+                        out.put(dst + c, inRange ? values[src + c] : 0f);
                     }
                 }
             }
         }
-        
-        if (dataIndex < result.length) {
-            float[] trimmed = new float[dataIndex];
-            System.arraycopy(result, 0, trimmed, 0, dataIndex);
-            return trimmed;
-        }
-        
-        return result;
     }
 
     @Override
@@ -467,9 +944,10 @@ public class DAEMesh {
         return "DAEMesh{" +
                 "sources=" + sources.size() +
                 ", vertices=" + vertices.size() +
-                ", triangles=" + triangles.size() +
+                ", triangles=" + getIndexedTriangleCount() +
                 ", vertexCount=" + vertexCount +
                 ", triangleCount=" + triangleCount +
+                ", primitiveGroups=" + primitiveGroups.size() +
                 '}';
     }
 }
@@ -0,0 +1,196 @@
+package com.daeparser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolved input layout of a {@link DAEMesh}.
+ * Maps each input semantic to its offset within a triangle corner, its source and its
+ * component count, so triangulation does not have to search the mesh sources again.
+ * A mesh computes its layout once and caches it until the mesh is modified.
+ */
+public class DAEMeshLayout {
+    private final int indexStride;
+    private final Map<String, Attribute> attributes;
+
+    DAEMeshLayout(int indexStride, Map<String, Attribute> attributes) {
+        this.indexStride = indexStride;
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Resolves the layout of a mesh.
+     * VERTEX, NORMAL, TEXCOORD and TEXTANGENT come first (in that order), followed by any other inputs.
+     */
+    static DAEMeshLayout resolve(DAEMesh mesh) {
+        Map<String, Attribute> attributes = new LinkedHashMap<>();
+        int stride = mesh.getIndexStride();
+        for (String semantic : new String[] {"VERTEX", "NORMAL", "TEXCOORD", "TEXTANGENT"}) {
+            addAttribute(mesh, stride, semantic, attributes);
+        }
+        for (String semantic : mesh.getInputSemantics().keySet()) {
+            if (!attributes.containsKey(semantic)) {
+                addAttribute(mesh, stride, semantic, attributes);
+            }
+        }
+        return new DAEMeshLayout(stride, attributes);
+    }
+
+    private static void addAttribute(DAEMesh mesh, int stride, String semantic, Map<String, Attribute> attributes) {
+        String sourceId = mesh.getInputSemantics().get(semantic);
+        Integer offset = mesh.getInputOffsets().get(semantic);
+        if (sourceId == null || offset == null || offset >= stride) {
+            return;
+        }
+        for (DAESource source : mesh.getSources()) {
+            if (source.getId() != null &&
+                (source.getId().equals(sourceId) || sourceId.endsWith(source.getId()))) {
+                int components = source.getStride() > 0 ? source.getStride() : defaultComponentCount(semantic);
+                attributes.put(semantic, new Attribute(semantic, offset, components, source));
+                return;
+            }
+        }
+    }
+
+    private static int defaultComponentCount(String semantic) {
+        return semantic.equals("TEXCOORD") ? 2 : 3;
+    }
+
+    /**
+     * Gets the number of indices per triangle corner.
+     *
+     * @return Index stride
+     */
+    public int getIndexStride() {
+        return indexStride;
+    }
+
+    /**
+     * Gets a resolved attribute.
+     *
+     * @param semantic Input semantic (VERTEX, NORMAL, TEXCOORD, ...)
+     * @return Attribute, or null if the mesh has no usable input for the semantic
+     */
+    public Attribute getAttribute(String semantic) {
+        return attributes.get(semantic);
+    }
+
+    public boolean hasAttribute(String semantic) {
+        return attributes.containsKey(semantic);
+    }
+
+    /**
+     * Gets all resolved attributes, VERTEX, NORMAL, TEXCOORD and TEXTANGENT first.
+     *
+     * @return New list of attributes
+     */
+    public List<Attribute> getAttributes() {
+        return new ArrayList<>(attributes.values());
+    }
+
+    /**
+     * Gets the attributes used for interleaved vertex data: VERTEX, then NORMAL, TEXCOORD and
+     * TEXTANGENT if present.
+     *
+     * @return Attributes, or null if the mesh has no VERTEX input
+     */
+    public Attribute[] getVertexAttributes() {
+        Attribute position = attributes.get("VERTEX");
+        if (position == null) {
+            return null;
+        }
+        Attribute normal = attributes.get("NORMAL");
+        Attribute texcoord = attributes.get("TEXCOORD");
+        Attribute tangent = attributes.get("TEXTANGENT");
+        Attribute[] result = new Attribute[1 + (normal != null ? 1 : 0) + (texcoord != null ? 1 : 0)
+                + (tangent != null ? 1 : 0)];
+        int i = 0;
+        result[i++] = position;
+        if (normal != null) {
+            result[i++] = normal;
+        }
+        if (texcoord != null) {
+            result[i++] = texcoord;
+        }
+        if (tangent != null) {
+            result[i] = tangent;
+        }
+        return result;
+    }
+
+    /**
+     * Resolves a list of semantics to attributes.
+     *
+     * @throws IllegalArgumentException if a semantic is not available
+     */
+    Attribute[] getAttributes(String[] semantics) {
+        Attribute[] result = new Attribute[semantics.length];
+        for (int i = 0; i < semantics.length; i++) {
+            result[i] = attributes.get(semantics[i]);
+            if (result[i] == null) {
+                throw new IllegalArgumentException("Mesh has no usable " + semantics[i] + " input");
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DAEMeshLayout{" +
+                "indexStride=" + indexStride +
+                ", attributes=" + attributes.keySet() +
+                '}';
+    }
+
+    /**
+     * A single resolved mesh input.
+     */
+    public static class Attribute {
+        private final String semantic;
+        private final int offset;
+        private final int componentCount;
+        private final DAESource source;
+
+        Attribute(String semantic, int offset, int componentCount, DAESource source) {
+            this.semantic = semantic;
+            this.offset = offset;
+            this.componentCount = componentCount;
+            this.source = source;
+        }
+
+        public String getSemantic() {
+            return semantic;
+        }
+
+        /**
+         * Gets the offset of this input's index within a triangle corner.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets the number of floats per element (e.g. 3 for positions, 2 for texcoords).
+         */
+        public int getComponentCount() {
+            return componentCount;
+        }
+
+        public DAESource getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return "Attribute{" +
+                    "semantic='" + semantic + '\'' +
+                    ", offset=" + offset +
+                    ", componentCount=" + componentCount +
+                    ", source='" + source.getId() + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.daeparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the &lt;triangles&gt;, &lt;polylist&gt; and &lt;polygons&gt; elements of one mesh while it is
+ * parsed and stores them as {@link DAEPrimitiveGroup}s sharing the mesh's flat index data.
+ * Shared by the DOM and streaming parsers.
+ *
+ * <p>The mesh gets one corner layout for all groups: the inputs of the first group at their
+ * offsets, followed by inputs that only later groups have. Groups declaring exactly that layout
+ * are copied as they are; the corners of any other group are rearranged into it, with -1 for
+ * inputs the group lacks (read back as zeros). A semantic bound to different sources in
+ * different groups uses the source of the first group that declares it.</p>
+ */
+final class DAEMeshPrimitives {
+
+    private final DAEMesh mesh;
+    private final List<DAEPrimitiveGroup> groups = new ArrayList<>();
+    private final List<int[]> vcounts = new ArrayList<>(); // Null for triangles
+    private final List<int[]> indices = new ArrayList<>();
+    private final List<DAELazyPayload> payloads = new ArrayList<>();
+    private int indexStride;
+
+    DAEMeshPrimitives(DAEMesh mesh) {
+        this.mesh = mesh;
+    }
+
+    /**
+     * Starts a group and adds it to the mesh.
+     *
+     * @param type     Element name
+     * @param material Material symbol, or null
+     * @param count    Count attribute, 0 if missing
+     * @return Group number for the other methods
+     */
+    int addGroup(String type, String material, int count) {
+        DAEPrimitiveGroup group = new DAEPrimitiveGroup(type, material);
+        group.setCount(count);
+        group.setIndexStride(1);
+        mesh.addPrimitiveGroup(group);
+        groups.add(group);
+        vcounts.add(null);
+        indices.add(null);
+        payloads.add(null);
+        return groups.size() - 1;
+    }
+
+    void addInput(int group, String semantic, String sourceId, int offset) {
+        DAEPrimitiveGroup primitiveGroup = groups.get(group);
+        primitiveGroup.addInputSemantic(semantic, sourceId);
+        primitiveGroup.addInputOffset(semantic, offset);
+        primitiveGroup.setIndexStride(Math.max(primitiveGroup.getIndexStride(), offset + 1));
+    }
+
+    void setTriangles(int group, int[] triangleIndices) {
+        indices.set(group, triangleIndices);
+    }
+
+    /**
+     * Sets raw <p> text of a &lt;triangles&gt; group. It stays undecoded if this is the only group.
+     */
+    void setLazyTriangles(int group, DAELazyPayload payload) {
+        payloads.set(group, payload);
+    }
+
+    void setPolygons(int group, int[] polygonCounts, int[] polygonIndices) {
+        vcounts.set(group, polygonCounts);
+        indices.set(group, polygonIndices);
+    }
+
+    /**
+     * Sets the input semantics and offsets of the mesh from the inputs of all groups.
+     * Called once all group inputs are known.
+     */
+    void resolveInputs() {
+        indexStride = 0;
+        for (DAEPrimitiveGroup group : groups) {
+            if (indexStride == 0) {
+                indexStride = group.getIndexStride();
+            }
+            for (Map.Entry<String, Integer> input : group.getInputOffsets().entrySet()) {
+                String semantic = input.getKey();
+                if (mesh.getInputOffsets().containsKey(semantic)) {
+                    continue;
+                }
+                mesh.addInputOffset(semantic, group == groups.get(0) ? input.getValue() : indexStride++);
+                // VERTEX was already mapped to the position source by <vertices>
+                if (!semantic.equals("VERTEX")) {
+                    mesh.addInputSemantic(semantic, group.getInputSemantics().get(semantic));
+                }
+            }
+        }
+    }
+
+    /**
+     * Triangulates polygon groups and stores the indices of all groups on the mesh, one group
+     * after the other. Runs after the mesh sources are decoded, since concave polygons need the
+     * positions.
+     */
+    void apply() {
+        if (groups.isEmpty()) {
+            return;
+        }
+        if (groups.size() == 1 && payloads.get(0) != null) {
+            DAEPrimitiveGroup group = groups.get(0);
+            mesh.setLazyIndices(payloads.get(0), indexStride);
+            mesh.setTriangleCount(group.getCount());
+            group.setFirstTriangle(0);
+            group.setTriangleCount(group.getCount());
+            return;
+        }
+
+        long totalCorners = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            DAEPrimitiveGroup group = groups.get(g);
+            int[] groupIndices = payloads.get(g) != null ? payloads.get(g).decodeInts() : indices.get(g);
+            if (groupIndices == null) {
+                groupIndices = new int[0];
+            } else if (vcounts.get(g) != null) {
+                groupIndices = DAEPolygonTriangulator.forGroup(mesh, group)
+                        .triangulate(vcounts.get(g), groupIndices, group.getIndexStride());
+            }
+            indices.set(g, groupIndices);
+            group.setTriangleCount(groupIndices.length / (group.getIndexStride() * 3));
+            totalCorners += group.getTriangleCount() * 3L;
+        }
+        if (totalCorners * indexStride > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many triangles: " + totalCorners / 3);
+        }
+
+        if (groups.size() == 1 && hasMeshLayout(groups.get(0))) {
+            // Common case: the index data already has the mesh layout
+            mesh.setIndices(indices.get(0), indexStride);
+        } else {
+            int[] meshIndices = new int[(int) (totalCorners * indexStride)];
+            int triangle = 0;
+            for (int g = 0; g < groups.size(); g++) {
+                DAEPrimitiveGroup group = groups.get(g);
+                group.setFirstTriangle(triangle);
+                copyCorners(group, indices.get(g), meshIndices, triangle * 3 * indexStride);
+                triangle += group.getTriangleCount();
+            }
+            mesh.setIndices(meshIndices, indexStride);
+        }
+        vcounts.clear();
+        indices.clear();
+        payloads.clear();
+    }
+
+    private boolean hasMeshLayout(DAEPrimitiveGroup group) {
+        if (group.getIndexStride() != indexStride) {
+            return false;
+        }
+        for (Map.Entry<String, Integer> input : mesh.getInputOffsets().entrySet()) {
+            if (!input.getValue().equals(group.getInputOffsets().get(input.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the corners of a group into the mesh layout.
+     */
+    private void copyCorners(DAEPrimitiveGroup group, int[] groupIndices, int[] meshIndices, int start) {
+        int groupStride = group.getIndexStride();
+        int length = group.getTriangleCount() * 3 * groupStride;
+        if (hasMeshLayout(group)) {
+            System.arraycopy(groupIndices, 0, meshIndices, start, length);
+            return;
+        }
+        // Offset in the group's corners for every offset of the mesh layout
+        int[] sourceOffsets = new int[indexStride];
+        Arrays.fill(sourceOffsets, -1);
+        for (Map.Entry<String, Integer> input : mesh.getInputOffsets().entrySet()) {
+            Integer groupOffset = group.getInputOffsets().get(input.getKey());
+            if (groupOffset != null) {
+                sourceOffsets[input.getValue()] = groupOffset;
+            }
+        }
+        for (int source = 0, target = start; source < length; source += groupStride, target += indexStride) {
+            for (int k = 0; k < indexStride; k++) {
+                meshIndices[target + k] = sourceOffsets[k] >= 0 ? groupIndices[source + sourceOffsets[k]] : -1;
+            }
+        }
+    }
+}
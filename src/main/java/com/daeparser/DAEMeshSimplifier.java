@@ -0,0 +1,772 @@
+package com.daeparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simplifies a {@link DAEIndexedMesh} with quadric error metrics (Garland and Heckbert,
+ * "Surface Simplification Using Quadric Error Metrics", 1997) into a chain of levels of detail.
+ *
+ * <p>Edges are collapsed onto one of their vertices (half-edge collapse), so the levels only
+ * get new index arrays and all share the vertex array of the input; vertex attributes are never
+ * interpolated. Vertices with the same position but different normals or texcoords (attribute
+ * seams) only move along their seam, both sides together, and open borders only move along the
+ * border. Seam and border edges also add error quadrics that keep them in place. Vertices where
+ * seams or borders meet, or where primitive groups meet, are never moved, so every group keeps
+ * its outline and its own index range.</p>
+ *
+ * <p>Collapses are done in passes: each pass sorts all allowed collapses by error and applies
+ * the cheapest ones that do not touch each other and do not flip a triangle. Memory is linear in
+ * the mesh size and allocated once per call.</p>
+ *
+ * <pre>
+ * List&lt;DAEMeshSimplifier.Lod&gt; lods = new DAEMeshSimplifier().buildLodChain(mesh.buildIndexedMesh());
+ * </pre>
+ */
+public class DAEMeshSimplifier {
+
+    private float[] lodRatios;
+    private float maxError;
+
+    /**
+     * Creates a simplifier for levels with 50%, 25% and 10% of the triangles and no error limit.
+     */
+    public DAEMeshSimplifier() {
+        this.lodRatios = new float[] {0.5f, 0.25f, 0.1f};
+        this.maxError = Float.POSITIVE_INFINITY;
+    }
+
+    public float[] getLodRatios() {
+        return lodRatios.clone();
+    }
+
+    /**
+     * Sets the triangle ratios of the levels built by {@link #buildLodChain(DAEIndexedMesh)}.
+     *
+     * @param lodRatios Fractions of the input triangle count, each in (0, 1]; sorted from largest to smallest
+     */
+    public void setLodRatios(float... lodRatios) {
+        float[] sorted = lodRatios.clone();
+        for (float ratio : sorted) {
+            if (!(ratio > 0f && ratio <= 1f)) {
+                throw new IllegalArgumentException("LOD ratio must be in (0, 1]: " + ratio);
+            }
+        }
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length / 2; i++) {
+            float swap = sorted[i];
+            sorted[i] = sorted[sorted.length - 1 - i];
+            sorted[sorted.length - 1 - i] = swap;
+        }
+        this.lodRatios = sorted;
+    }
+
+    public float getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * Sets the largest error a collapse may introduce, as a distance relative to the largest
+     * dimension of the mesh bounds (0.01 is 1% of the mesh size). Levels stop simplifying at this
+     * error and may keep more triangles than their ratio asks for.
+     *
+     * @param maxError Relative error, or infinity for no limit
+     */
+    public void setMaxError(float maxError) {
+        if (!(maxError >= 0f)) {
+            throw new IllegalArgumentException("Max error must not be negative: " + maxError);
+        }
+        this.maxError = maxError;
+    }
+
+    /**
+     * Simplifies a mesh to a fraction of its triangles.
+     *
+     * @param mesh  Indexed mesh, e.g. from {@link DAEMesh#buildIndexedMesh()}; positions are the first 3 floats of a vertex
+     * @param ratio Fraction of the triangles to keep, in (0, 1]
+     * @return Simplified level sharing the vertex array of the input
+     */
+    public Lod simplify(DAEIndexedMesh mesh, float ratio) {
+        return build(mesh, new float[] {ratio}).get(0);
+    }
+
+    /**
+     * Builds a level for each of the {@link #getLodRatios()} in one run: each level is
+     * simplified further from the previous one, keeping the error quadrics accumulated so far.
+     * The input is not modified.
+     *
+     * @param mesh Indexed mesh, e.g. from {@link DAEMesh#buildIndexedMesh()}; positions are the first 3 floats of a vertex
+     * @return Levels from most to least detailed
+     */
+    public List<Lod> buildLodChain(DAEIndexedMesh mesh) {
+        return build(mesh, lodRatios);
+    }
+
+    private List<Lod> build(DAEIndexedMesh mesh, float[] ratios) {
+        if (mesh.getVertexStride() < 3) {
+            throw new IllegalArgumentException("Vertices need 3 position components: stride " + mesh.getVertexStride());
+        }
+        for (float ratio : ratios) {
+            if (!(ratio > 0f && ratio <= 1f)) {
+                throw new IllegalArgumentException("LOD ratio must be in (0, 1]: " + ratio);
+            }
+        }
+        Collapser collapser = new Collapser(mesh, maxError);
+        int inputTriangles = mesh.getTriangleCount();
+        List<Lod> lods = new ArrayList<>(ratios.length);
+        for (float ratio : ratios) {
+            collapser.simplify((int) ((double) inputTriangles * ratio));
+            lods.add(new Lod(ratio, collapser.toMesh(mesh), collapser.getError()));
+        }
+        return lods;
+    }
+
+    /**
+     * One level of detail.
+     */
+    public static class Lod {
+        private final float ratio;
+        private final DAEIndexedMesh mesh;
+        private final float error;
+
+        Lod(float ratio, DAEIndexedMesh mesh, float error) {
+            this.ratio = ratio;
+            this.mesh = mesh;
+            this.error = error;
+        }
+
+        /**
+         * Gets the triangle ratio this level was built for.
+         */
+        public float getRatio() {
+            return ratio;
+        }
+
+        /**
+         * Gets the level's mesh: the input vertices with new indices and primitive group ranges.
+         * Vertices no longer referenced stay in the vertex array.
+         */
+        public DAEIndexedMesh getMesh() {
+            return mesh;
+        }
+
+        public int getTriangleCount() {
+            return mesh.getTriangleCount();
+        }
+
+        /**
+         * Gets the largest collapse error of this level, relative to the largest dimension of the mesh bounds.
+         */
+        public float getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Lod{" +
+                    "ratio=" + ratio +
+                    ", triangleCount=" + getTriangleCount() +
+                    ", error=" + error +
+                    '}';
+        }
+    }
+
+    /**
+     * Collapse state of one simplification run.
+     */
+    private static final class Collapser {
+        private static final byte MANIFOLD = 0;
+        private static final byte BORDER = 1;
+        private static final byte SEAM = 2;
+        private static final byte LOCKED = 3;
+        private static final double EDGE_WEIGHT = 10;
+        private static final double MIN_NORMAL_COS = 0.5;
+        private static final int QUADRIC_SIZE = 11; // 10 symmetric 4x4 terms and the weight
+
+        private final int vertexCount;
+        private final double maxCost;
+        private final float[] positions; // Scaled into the unit cube
+        private final int[] positionIds; // Lowest vertex with the same position
+        private final int[] wedges; // Next vertex with the same position, circular
+        private final double[] quadrics; // By position id
+
+        private final int[] indices;
+        private final int[] triangleGroups;
+        private final int groupCount;
+        private int triangleCount;
+        private double cost;
+
+        // Per pass, allocated once
+        private final int[] edgeOffsets;
+        private final int[] edgeCorners; // Corner starting each outgoing edge, grouped by vertex
+        private final int[] triangleOffsets;
+        private final int[] triangleList; // Triangles around each position id
+        private final int[] openOut;
+        private final int[] openIn;
+        private final byte[] kinds; // By position id
+        private final boolean[] referenced;
+        private final boolean[] locked; // By position id
+        private final int[] remap;
+        private final long[] candidates;
+
+        Collapser(DAEIndexedMesh mesh, float maxError) {
+            vertexCount = mesh.getVertexCount();
+            maxCost = (double) maxError * maxError;
+            positions = scalePositions(mesh.getVertices(), mesh.getVertexStride(), vertexCount);
+            positionIds = new int[vertexCount];
+            wedges = new int[vertexCount];
+            weldPositions();
+
+            int[] source = mesh.getIndices();
+            int inputTriangles = source.length / 3;
+            indices = Arrays.copyOf(source, inputTriangles * 3);
+            triangleGroups = new int[inputTriangles];
+            groupCount = assignGroups(mesh, triangleGroups);
+            triangleCount = inputTriangles;
+            removeDegenerateTriangles();
+
+            edgeOffsets = new int[vertexCount + 1];
+            edgeCorners = new int[indices.length];
+            triangleOffsets = new int[vertexCount + 1];
+            triangleList = new int[indices.length];
+            openOut = new int[vertexCount];
+            openIn = new int[vertexCount];
+            kinds = new byte[vertexCount];
+            referenced = new boolean[vertexCount];
+            locked = new boolean[vertexCount];
+            remap = new int[vertexCount];
+            candidates = new long[indices.length];
+
+            quadrics = new double[vertexCount * QUADRIC_SIZE];
+            buildAdjacency();
+            addQuadrics();
+        }
+
+        float getError() {
+            return (float) Math.sqrt(cost);
+        }
+
+        /**
+         * Collapses edges until at most target triangles are left, the error limit is reached
+         * or no allowed collapse is left.
+         */
+        void simplify(int target) {
+            while (triangleCount > target) {
+                buildAdjacency();
+                classifyVertices();
+                if (!collapseEdges(target)) {
+                    return;
+                }
+            }
+        }
+
+        DAEIndexedMesh toMesh(DAEIndexedMesh mesh) {
+            int[] levelIndices = Arrays.copyOf(indices, triangleCount * 3);
+            List<DAEPrimitiveGroup> groups = new ArrayList<>();
+            if (groupCount == mesh.getPrimitiveGroups().size()) {
+                int[] counts = new int[groupCount];
+                for (int t = 0; t < triangleCount; t++) {
+                    counts[triangleGroups[t]]++;
+                }
+                int first = 0;
+                for (int g = 0; g < groupCount; g++) {
+                    DAEPrimitiveGroup group = mesh.getPrimitiveGroups().get(g);
+                    DAEPrimitiveGroup level = new DAEPrimitiveGroup(group.getType(), group.getMaterial());
+                    level.setCount(group.getCount());
+                    level.setInputSemantics(group.getInputSemantics());
+                    level.setInputOffsets(group.getInputOffsets());
+                    level.setIndexStride(group.getIndexStride());
+                    level.setFirstTriangle(first);
+                    level.setTriangleCount(counts[g]);
+                    groups.add(level);
+                    first += counts[g];
+                }
+            }
+            return new DAEIndexedMesh(mesh.getVertices(), mesh.getVertexStride(), levelIndices, groups);
+        }
+
+        /**
+         * Copies positions into the unit cube, so errors are relative to the mesh size.
+         */
+        private static float[] scalePositions(float[] vertices, int stride, int vertexCount) {
+            float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+            float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+            for (int v = 0; v < vertexCount; v++) {
+                for (int c = 0; c < 3; c++) {
+                    float value = vertices[v * stride + c];
+                    min[c] = Math.min(min[c], value);
+                    max[c] = Math.max(max[c], value);
+                }
+            }
+            float extent = Math.max(max[0] - min[0], Math.max(max[1] - min[1], max[2] - min[2]));
+            float scale = extent > 0f ? 1f / extent : 1f;
+            float[] scaled = new float[vertexCount * 3];
+            for (int v = 0; v < vertexCount; v++) {
+                for (int c = 0; c < 3; c++) {
+                    scaled[v * 3 + c] = (vertices[v * stride + c] - min[c]) * scale;
+                }
+            }
+            return scaled;
+        }
+
+        /**
+         * Links vertices with bitwise equal positions with an open addressing hash table.
+         */
+        private void weldPositions() {
+            int capacity = Integer.highestOneBit(Math.max(vertexCount, 1) * 2 - 1) << 1;
+            int[] table = new int[capacity];
+            Arrays.fill(table, -1);
+            for (int v = 0; v < vertexCount; v++) {
+                int hash = (positionBits(v, 0) * 73856093) ^ (positionBits(v, 1) * 19349663) ^ (positionBits(v, 2) * 83492791);
+                int slot = (hash ^ (hash >>> 16)) & (capacity - 1);
+                while (table[slot] >= 0 && !isSamePosition(table[slot], v)) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                if (table[slot] < 0) {
+                    table[slot] = v;
+                    positionIds[v] = v;
+                    wedges[v] = v;
+                } else {
+                    int first = table[slot];
+                    positionIds[v] = first;
+                    wedges[v] = wedges[first];
+                    wedges[first] = v;
+                }
+            }
+        }
+
+        private int positionBits(int vertex, int component) {
+            float value = positions[vertex * 3 + component];
+            return Float.floatToIntBits(value == 0f ? 0f : value);
+        }
+
+        private boolean isSamePosition(int a, int b) {
+            return positions[a * 3] == positions[b * 3] && positions[a * 3 + 1] == positions[b * 3 + 1]
+                    && positions[a * 3 + 2] == positions[b * 3 + 2];
+        }
+
+        /**
+         * Sets the primitive group of each triangle.
+         *
+         * @return Number of groups, 1 if the groups do not cover the triangles in order
+         */
+        private static int assignGroups(DAEIndexedMesh mesh, int[] triangleGroups) {
+            List<DAEPrimitiveGroup> groups = mesh.getPrimitiveGroups();
+            int next = 0;
+            for (DAEPrimitiveGroup group : groups) {
+                if (group.getFirstTriangle() != next || next + group.getTriangleCount() > triangleGroups.length) {
+                    next = -1;
+                    break;
+                }
+                next += group.getTriangleCount();
+            }
+            if (groups.isEmpty() || next != triangleGroups.length) {
+                Arrays.fill(triangleGroups, 0);
+                return 1;
+            }
+            for (int g = 0; g < groups.size(); g++) {
+                DAEPrimitiveGroup group = groups.get(g);
+                Arrays.fill(triangleGroups, group.getFirstTriangle(),
+                        group.getFirstTriangle() + group.getTriangleCount(), g);
+            }
+            return groups.size();
+        }
+
+        /**
+         * Drops triangles with two corners at the same position, keeping the order of the others.
+         */
+        private void removeDegenerateTriangles() {
+            int kept = 0;
+            for (int t = 0; t < triangleCount; t++) {
+                int a = indices[t * 3];
+                int b = indices[t * 3 + 1];
+                int c = indices[t * 3 + 2];
+                int pa = positionIds[a];
+                int pb = positionIds[b];
+                int pc = positionIds[c];
+                if (pa == pb || pb == pc || pc == pa) {
+                    continue;
+                }
+                indices[kept * 3] = a;
+                indices[kept * 3 + 1] = b;
+                indices[kept * 3 + 2] = c;
+                triangleGroups[kept] = triangleGroups[t];
+                kept++;
+            }
+            triangleCount = kept;
+        }
+
+        /**
+         * Builds the outgoing edges of every vertex and the triangles around every position.
+         */
+        private void buildAdjacency() {
+            int corners = triangleCount * 3;
+            Arrays.fill(edgeOffsets, 0);
+            Arrays.fill(triangleOffsets, 0);
+            Arrays.fill(referenced, false);
+            for (int e = 0; e < corners; e++) {
+                int vertex = indices[e];
+                referenced[vertex] = true;
+                edgeOffsets[vertex + 1]++;
+                triangleOffsets[positionIds[vertex] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                edgeOffsets[v + 1] += edgeOffsets[v];
+                triangleOffsets[v + 1] += triangleOffsets[v];
+            }
+            // Fill from the back, moving offsets[v + 1] from the end to the start of the list of v
+            for (int e = corners - 1; e >= 0; e--) {
+                int vertex = indices[e];
+                edgeCorners[--edgeOffsets[vertex + 1]] = e;
+                triangleList[--triangleOffsets[positionIds[vertex] + 1]] = e / 3;
+            }
+            shiftOffsets(edgeOffsets, corners);
+            shiftOffsets(triangleOffsets, corners);
+        }
+
+        private void shiftOffsets(int[] offsets, int total) {
+            System.arraycopy(offsets, 1, offsets, 0, vertexCount);
+            offsets[vertexCount] = total;
+        }
+
+        private static int next(int corner) {
+            return corner % 3 == 2 ? corner - 2 : corner + 1;
+        }
+
+        /**
+         * Checks whether a vertex has an outgoing edge to another vertex in a group.
+         */
+        private boolean hasEdge(int from, int to, int group) {
+            for (int k = edgeOffsets[from]; k < edgeOffsets[from + 1]; k++) {
+                int corner = edgeCorners[k];
+                if (indices[next(corner)] == to && triangleGroups[corner / 3] == group) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isOpen(int corner) {
+            return !hasEdge(indices[next(corner)], indices[corner], triangleGroups[corner / 3]);
+        }
+
+        /**
+         * Finds the open edges of every vertex (-1 none, -2 more than one) and classifies each
+         * position by its open edges and the number of vertices sharing it.
+         */
+        private void classifyVertices() {
+            Arrays.fill(openOut, -1);
+            Arrays.fill(openIn, -1);
+            int corners = triangleCount * 3;
+            for (int e = 0; e < corners; e++) {
+                if (isOpen(e)) {
+                    int a = indices[e];
+                    int b = indices[next(e)];
+                    openOut[a] = openOut[a] == -1 ? b : -2;
+                    openIn[b] = openIn[b] == -1 ? a : -2;
+                }
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                if (positionIds[v] != v) {
+                    continue;
+                }
+                int first = -1;
+                int second = -1;
+                int count = 0;
+                int wedge = v;
+                do {
+                    if (referenced[wedge]) {
+                        if (count == 0) {
+                            first = wedge;
+                        } else if (count == 1) {
+                            second = wedge;
+                        }
+                        count++;
+                    }
+                    wedge = wedges[wedge];
+                } while (wedge != v);
+
+                byte kind = LOCKED;
+                if (count == 1) {
+                    if (openOut[first] == -1 && openIn[first] == -1) {
+                        kind = MANIFOLD;
+                    } else if (openOut[first] >= 0 && openIn[first] >= 0) {
+                        kind = BORDER;
+                    }
+                } else if (count == 2 && openOut[first] >= 0 && openIn[first] >= 0
+                        && openOut[second] >= 0 && openIn[second] >= 0
+                        && positionIds[openOut[first]] == positionIds[openIn[second]]
+                        && positionIds[openIn[first]] == positionIds[openOut[second]]) {
+                    kind = SEAM;
+                }
+                kinds[v] = kind;
+            }
+        }
+
+        /**
+         * Checks whether a vertex may collapse onto another along their edge.
+         */
+        private boolean canCollapse(int from, int to) {
+            switch (kinds[positionIds[from]]) {
+                case MANIFOLD:
+                    return true;
+                case BORDER:
+                    return openOut[from] == to || openIn[from] == to;
+                case SEAM:
+                    return (openOut[from] == to || openIn[from] == to) && getSeamTarget(from, to) >= 0;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Gets the vertex the other side of a seam vertex collapses onto.
+         *
+         * @return Vertex at the position of to on the other side of the seam, or -1
+         */
+        private int getSeamTarget(int from, int to) {
+            int other = wedges[from];
+            while (!referenced[other]) {
+                other = wedges[other];
+            }
+            int target = positionIds[to];
+            if (openOut[other] >= 0 && positionIds[openOut[other]] == target) {
+                return openOut[other];
+            }
+            if (openIn[other] >= 0 && positionIds[openIn[other]] == target) {
+                return openIn[other];
+            }
+            return -1;
+        }
+
+        private double getCollapseCost(int from, int to) {
+            int q = positionIds[from] * QUADRIC_SIZE;
+            double x = positions[to * 3];
+            double y = positions[to * 3 + 1];
+            double z = positions[to * 3 + 2];
+            double error = quadrics[q] * x * x + quadrics[q + 4] * y * y + quadrics[q + 7] * z * z
+                    + 2 * (quadrics[q + 1] * x * y + quadrics[q + 2] * x * z + quadrics[q + 5] * y * z)
+                    + 2 * (quadrics[q + 3] * x + quadrics[q + 6] * y + quadrics[q + 8] * z)
+                    + quadrics[q + 9];
+            double weight = quadrics[q + 10];
+            return weight > 0 ? Math.abs(error) / weight : 0;
+        }
+
+        /**
+         * Does one pass of collapses.
+         *
+         * @return false if nothing could be collapsed
+         */
+        private boolean collapseEdges(int target) {
+            int candidateCount = 0;
+            int corners = triangleCount * 3;
+            for (int e = 0; e < corners; e++) {
+                int a = indices[e];
+                int b = indices[next(e)];
+                // Every interior edge once, open edges from their only side
+                if (a > b && !isOpen(e)) {
+                    continue;
+                }
+                double forward = canCollapse(a, b) ? getCollapseCost(a, b) : Double.POSITIVE_INFINITY;
+                double backward = canCollapse(b, a) ? getCollapseCost(b, a) : Double.POSITIVE_INFINITY;
+                double best = Math.min(forward, backward);
+                if (best == Double.POSITIVE_INFINITY || best > maxCost) {
+                    continue;
+                }
+                int bits = Float.floatToIntBits((float) best);
+                candidates[candidateCount++] = ((long) bits << 32) | ((long) e << 1) | (backward < forward ? 1 : 0);
+            }
+            if (candidateCount == 0) {
+                return false;
+            }
+            Arrays.sort(candidates, 0, candidateCount);
+
+            Arrays.fill(locked, false);
+            for (int v = 0; v < vertexCount; v++) {
+                remap[v] = v;
+            }
+            int goal = triangleCount - target;
+            int removed = 0;
+            int collapses = 0;
+            for (int i = 0; i < candidateCount && removed < goal; i++) {
+                long candidate = candidates[i];
+                int e = (int) ((candidate & 0xFFFFFFFFL) >>> 1);
+                int from = indices[e];
+                int to = indices[next(e)];
+                if ((candidate & 1) != 0) {
+                    int swap = from;
+                    from = to;
+                    to = swap;
+                }
+                int fromPosition = positionIds[from];
+                int toPosition = positionIds[to];
+                if (locked[fromPosition] || locked[toPosition] || hasFlippedTriangle(fromPosition, toPosition)) {
+                    continue;
+                }
+                if (kinds[fromPosition] == SEAM) {
+                    int other = wedges[from];
+                    while (!referenced[other]) {
+                        other = wedges[other];
+                    }
+                    remap[other] = getSeamTarget(from, to);
+                }
+                remap[from] = to;
+
+                int q = fromPosition * QUADRIC_SIZE;
+                int r = toPosition * QUADRIC_SIZE;
+                for (int k = 0; k < QUADRIC_SIZE; k++) {
+                    quadrics[r + k] += quadrics[q + k];
+                }
+                cost = Math.max(cost, Float.intBitsToFloat((int) (candidate >>> 32)));
+
+                // Lock the collapsed ring, whose triangles the flip check looked at
+                for (int k = triangleOffsets[fromPosition]; k < triangleOffsets[fromPosition + 1]; k++) {
+                    int t = triangleList[k];
+                    boolean shared = false;
+                    for (int c = 0; c < 3; c++) {
+                        int position = positionIds[indices[t * 3 + c]];
+                        locked[position] = true;
+                        shared |= position == toPosition;
+                    }
+                    if (shared) {
+                        removed++;
+                    }
+                }
+                collapses++;
+            }
+            if (collapses == 0) {
+                return false;
+            }
+
+            for (int k = 0; k < corners; k++) {
+                indices[k] = remap[indices[k]];
+            }
+            removeDegenerateTriangles();
+            return true;
+        }
+
+        /**
+         * Checks whether moving a position onto another turns any of its remaining triangles over
+         * or nearly on edge.
+         */
+        private boolean hasFlippedTriangle(int fromPosition, int toPosition) {
+            for (int k = triangleOffsets[fromPosition]; k < triangleOffsets[fromPosition + 1]; k++) {
+                int t = triangleList[k];
+                int a = positionIds[indices[t * 3]];
+                int b = positionIds[indices[t * 3 + 1]];
+                int c = positionIds[indices[t * 3 + 2]];
+                if (a == toPosition || b == toPosition || c == toPosition) {
+                    continue;
+                }
+                // Rotate so the moving corner comes first
+                if (b == fromPosition) {
+                    b = c;
+                    c = a;
+                } else if (c == fromPosition) {
+                    c = b;
+                    b = a;
+                }
+                double ex = positions[b * 3] - positions[fromPosition * 3];
+                double ey = positions[b * 3 + 1] - positions[fromPosition * 3 + 1];
+                double ez = positions[b * 3 + 2] - positions[fromPosition * 3 + 2];
+                double fx = positions[c * 3] - positions[fromPosition * 3];
+                double fy = positions[c * 3 + 1] - positions[fromPosition * 3 + 1];
+                double fz = positions[c * 3 + 2] - positions[fromPosition * 3 + 2];
+                double gx = positions[b * 3] - positions[toPosition * 3];
+                double gy = positions[b * 3 + 1] - positions[toPosition * 3 + 1];
+                double gz = positions[b * 3 + 2] - positions[toPosition * 3 + 2];
+                double hx = positions[c * 3] - positions[toPosition * 3];
+                double hy = positions[c * 3 + 1] - positions[toPosition * 3 + 1];
+                double hz = positions[c * 3 + 2] - positions[toPosition * 3 + 2];
+                double nx = ey * fz - ez * fy;
+                double ny = ez * fx - ex * fz;
+                double nz = ex * fy - ey * fx;
+                double mx = gy * hz - gz * hy;
+                double my = gz * hx - gx * hz;
+                double mz = gx * hy - gy * hx;
+                // Turned over, or turned by more than 60 degrees; slivers turned further flip easily later
+                double dot = nx * mx + ny * my + nz * mz;
+                if (dot <= 0 || dot * dot <= MIN_NORMAL_COS * MIN_NORMAL_COS
+                        * (nx * nx + ny * ny + nz * nz) * (mx * mx + my * my + mz * mz)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds an area weighted plane quadric per triangle to its corners, and a quadric for the
+         * plane through each open edge perpendicular to its triangle to the edge's ends.
+         */
+        private void addQuadrics() {
+            for (int t = 0; t < triangleCount; t++) {
+                int a = positionIds[indices[t * 3]];
+                int b = positionIds[indices[t * 3 + 1]];
+                int c = positionIds[indices[t * 3 + 2]];
+                double ex = positions[b * 3] - positions[a * 3];
+                double ey = positions[b * 3 + 1] - positions[a * 3 + 1];
+                double ez = positions[b * 3 + 2] - positions[a * 3 + 2];
+                double fx = positions[c * 3] - positions[a * 3];
+                double fy = positions[c * 3 + 1] - positions[a * 3 + 1];
+                double fz = positions[c * 3 + 2] - positions[a * 3 + 2];
+                double nx = ey * fz - ez * fy;
+                double ny = ez * fx - ex * fz;
+                double nz = ex * fy - ey * fx;
+                double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+                if (length == 0) {
+                    continue;
+                }
+                nx /= length;
+                ny /= length;
+                nz /= length;
+                double area = length * 0.5;
+                for (int k = 0; k < 3; k++) {
+                    addPlane(positionIds[indices[t * 3 + k]], nx, ny, nz, a, area);
+                }
+
+                for (int k = 0; k < 3; k++) {
+                    int e = t * 3 + k;
+                    if (!isOpen(e)) {
+                        continue;
+                    }
+                    int p = positionIds[indices[e]];
+                    int q = positionIds[indices[next(e)]];
+                    double dx = positions[q * 3] - positions[p * 3];
+                    double dy = positions[q * 3 + 1] - positions[p * 3 + 1];
+                    double dz = positions[q * 3 + 2] - positions[p * 3 + 2];
+                    double edgeLength = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                    double px = dy * nz - dz * ny;
+                    double py = dz * nx - dx * nz;
+                    double pz = dx * ny - dy * nx;
+                    double planeLength = Math.sqrt(px * px + py * py + pz * pz);
+                    if (planeLength == 0) {
+                        continue;
+                    }
+                    double weight = edgeLength * EDGE_WEIGHT;
+                    addPlane(p, px / planeLength, py / planeLength, pz / planeLength, p, weight);
+                    addPlane(q, px / planeLength, py / planeLength, pz / planeLength, p, weight);
+                }
+            }
+        }
+
+        /**
+         * Adds the quadric of the plane with a normal through a point to a position.
+         */
+        private void addPlane(int position, double nx, double ny, double nz, int point, double weight) {
+            double d = -(nx * positions[point * 3] + ny * positions[point * 3 + 1] + nz * positions[point * 3 + 2]);
+            int q = position * QUADRIC_SIZE;
+            quadrics[q] += weight * nx * nx;
+            quadrics[q + 1] += weight * nx * ny;
+            quadrics[q + 2] += weight * nx * nz;
+            quadrics[q + 3] += weight * nx * d;
+            quadrics[q + 4] += weight * ny * ny;
+            quadrics[q + 5] += weight * ny * nz;
+            quadrics[q + 6] += weight * ny * d;
+            quadrics[q + 7] += weight * nz * nz;
+            quadrics[q + 8] += weight * nz * d;
+            quadrics[q + 9] += weight * d * d;
+            quadrics[q + 10] += weight;
+        }
+    }
+}
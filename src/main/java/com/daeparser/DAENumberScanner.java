@@ -0,0 +1,377 @@
+package com.daeparser;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Scanner for whitespace separated numeric lists such as &lt;float_array&gt;, &lt;p&gt;,
+ * &lt;vcount&gt; and &lt;v&gt;.
+ * Numbers are parsed straight from character data into a primitive array without creating
+ * intermediate Strings. Text may be fed in several chunks; a number split across two
+ * chunks is carried over to the next call.
+ *
+ * <p>Float results are bit-exact with {@link Float#parseFloat(String)}: numbers with at most
+ * 8 significant digits and a small decimal exponent (the common case in DAE files) are
+ * converted with a single correctly rounded float operation, everything else falls back to
+ * {@code Float.parseFloat}.</p>
+ */
+public final class DAENumberScanner {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int BYTE_CHUNK_SIZE = 8192;
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+    private static final float[] POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private final boolean integers;
+    private float[] floats;
+    private int[] ints;
+    private int size;
+
+    // Partial number left at the end of the previous chunk
+    private char[] carry = new char[32];
+    private int carryLength;
+    private char[] chunk;
+    private byte[] byteChunk;
+    private long inputLength;
+
+    private DAENumberScanner(boolean integers, int expectedCount) {
+        this.integers = integers;
+        int capacity = Math.max(expectedCount, 16);
+        if (integers) {
+            this.ints = new int[capacity];
+        } else {
+            this.floats = new float[capacity];
+        }
+    }
+
+    /**
+     * Creates a scanner producing floats.
+     *
+     * @param expectedCount Expected number of values (e.g. the count attribute), used to presize storage
+     * @return New scanner
+     */
+    public static DAENumberScanner forFloats(int expectedCount) {
+        return new DAENumberScanner(false, expectedCount);
+    }
+
+    /**
+     * Creates a scanner producing ints.
+     *
+     * @param expectedCount Expected number of values, used to presize storage
+     * @return New scanner
+     */
+    public static DAENumberScanner forInts(int expectedCount) {
+        return new DAENumberScanner(true, expectedCount);
+    }
+
+    /**
+     * Parses whitespace separated floats from text.
+     *
+     * @param text Text to parse
+     * @return Parsed values
+     */
+    public static float[] parseFloats(CharSequence text) {
+        DAENumberScanner scanner = forFloats(0);
+        scanner.feed(text);
+        return scanner.toFloatArray();
+    }
+
+    /**
+     * Parses whitespace separated ints from text.
+     *
+     * @param text Text to parse
+     * @return Parsed values
+     */
+    public static int[] parseInts(CharSequence text) {
+        DAENumberScanner scanner = forInts(0);
+        scanner.feed(text);
+        return scanner.toIntArray();
+    }
+
+    /**
+     * Feeds a chunk of character data.
+     *
+     * @param chars  Character buffer
+     * @param start  Index of the first character
+     * @param length Number of characters
+     */
+    public void feed(char[] chars, int start, int length) {
+        inputLength += length;
+        int end = start + length;
+        int i = start;
+
+        if (carryLength > 0) {
+            // Complete the number that was split at the previous chunk boundary
+            while (i < end && chars[i] > ' ') {
+                appendCarry(chars[i++]);
+            }
+            if (i == end) {
+                return;
+            }
+            accept(carry, 0, carryLength);
+            carryLength = 0;
+        }
+
+        while (i < end) {
+            while (i < end && chars[i] <= ' ') {
+                i++;
+            }
+            int tokenStart = i;
+            while (i < end && chars[i] > ' ') {
+                i++;
+            }
+            if (i == tokenStart) {
+                break;
+            }
+            if (i == end) {
+                // The number may continue in the next chunk
+                for (int j = tokenStart; j < end; j++) {
+                    appendCarry(chars[j]);
+                }
+                break;
+            }
+            accept(chars, tokenStart, i);
+        }
+    }
+
+    /**
+     * Feeds character data held in a CharSequence.
+     *
+     * @param text Text to feed
+     */
+    public void feed(CharSequence text) {
+        if (chunk == null) {
+            chunk = new char[CHUNK_SIZE];
+        }
+        int length = text.length();
+        for (int offset = 0; offset < length; offset += CHUNK_SIZE) {
+            int n = Math.min(CHUNK_SIZE, length - offset);
+            if (text instanceof String) {
+                ((String) text).getChars(offset, offset + n, chunk, 0);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    chunk[i] = text.charAt(offset + i);
+                }
+            }
+            feed(chunk, 0, n);
+        }
+    }
+
+    /**
+     * Feeds a chunk of ASCII encoded bytes, e.g. straight from a memory-mapped file.
+     * Tokens are collected in a small reusable buffer, so the bytes are never decoded into
+     * a full char array or String.
+     *
+     * @param bytes  Byte buffer
+     * @param start  Index of the first byte
+     * @param length Number of bytes
+     */
+    public void feed(byte[] bytes, int start, int length) {
+        inputLength += length;
+        int end = start + length;
+        for (int i = start; i < end; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b > ' ') {
+                appendCarry((char) b);
+            } else if (carryLength > 0) {
+                accept(carry, 0, carryLength);
+                carryLength = 0;
+            }
+        }
+    }
+
+    /**
+     * Feeds the remaining ASCII encoded bytes of a buffer, leaving its position at the limit.
+     *
+     * @param buffer Buffer holding the bytes
+     */
+    public void feed(ByteBuffer buffer) {
+        if (byteChunk == null) {
+            byteChunk = new byte[BYTE_CHUNK_SIZE];
+        }
+        while (buffer.hasRemaining()) {
+            int n = Math.min(BYTE_CHUNK_SIZE, buffer.remaining());
+            buffer.get(byteChunk, 0, n);
+            feed(byteChunk, 0, n);
+        }
+    }
+
+    /**
+     * Gets the number of characters or bytes fed so far.
+     *
+     * @return Input length
+     */
+    public long getInputLength() {
+        return inputLength;
+    }
+
+    /**
+     * Gets the number of values parsed so far, excluding a pending partial number.
+     *
+     * @return Number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finishes scanning and returns the parsed floats.
+     *
+     * @return Exactly sized float array
+     */
+    public float[] toFloatArray() {
+        flush();
+        return floats.length == size ? floats : Arrays.copyOf(floats, size);
+    }
+
+    /**
+     * Finishes scanning and returns the parsed ints.
+     *
+     * @return Exactly sized int array
+     */
+    public int[] toIntArray() {
+        flush();
+        return ints.length == size ? ints : Arrays.copyOf(ints, size);
+    }
+
+    private void flush() {
+        if (carryLength > 0) {
+            accept(carry, 0, carryLength);
+            carryLength = 0;
+        }
+    }
+
+    private void appendCarry(char c) {
+        if (carryLength == carry.length) {
+            carry = Arrays.copyOf(carry, carry.length * 2);
+        }
+        carry[carryLength++] = c;
+    }
+
+    private void accept(char[] chars, int start, int end) {
+        if (integers) {
+            if (size == ints.length) {
+                ints = Arrays.copyOf(ints, size + (size >> 1) + 1);
+            }
+            ints[size++] = parseInt(chars, start, end);
+        } else {
+            if (size == floats.length) {
+                floats = Arrays.copyOf(floats, size + (size >> 1) + 1);
+            }
+            floats[size++] = parseFloat(chars, start, end);
+        }
+    }
+
+    /**
+     * Parses a single float token, bit-exact with {@link Float#parseFloat(String)}.
+     */
+    static float parseFloat(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+
+        while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+            int d = chars[i++] - '0';
+            anyDigit = true;
+            if (mantissa != 0 || d != 0) {
+                mantissa = mantissa * 10 + d;
+                digits++;
+            }
+        }
+        if (i < end && chars[i] == '.') {
+            i++;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                int d = chars[i++] - '0';
+                anyDigit = true;
+                if (mantissa != 0 || d != 0) {
+                    mantissa = mantissa * 10 + d;
+                    digits++;
+                }
+                exponent--;
+            }
+        }
+        if (anyDigit && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int exponentValue = 0;
+            int exponentDigits = 0;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9' && exponentValue < 10000) {
+                exponentValue = exponentValue * 10 + (chars[i++] - '0');
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return slowParseFloat(chars, start, end);
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        if (!anyDigit || i != end || digits > 18) {
+            // NaN, Infinity, hex floats, type suffixes, very long mantissas and malformed input
+            return slowParseFloat(chars, start, end);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        while (mantissa % 10 == 0) {
+            mantissa /= 10;
+            exponent++;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -10 || exponent > 10) {
+            return slowParseFloat(chars, start, end);
+        }
+
+        // Both operands are exact floats, so one IEEE operation gives the correctly rounded result
+        float value = (float) mantissa;
+        value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private static float slowParseFloat(char[] chars, int start, int end) {
+        return Float.parseFloat(new String(chars, start, end - start));
+    }
+
+    /**
+     * Parses a single int token with the same rules as {@link Integer#parseInt(String)}.
+     */
+    static int parseInt(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 10) {
+            return Integer.parseInt(new String(chars, start, end - start));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                // Throws the usual NumberFormatException for malformed input
+                return Integer.parseInt(new String(chars, start, end - start));
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(new String(chars, start, end - start));
+        }
+        return (int) value;
+    }
+}
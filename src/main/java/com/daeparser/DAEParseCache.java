@@ -0,0 +1,268 @@
+package com.daeparser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache of parsed documents.
+ * {@link #parse(File)} returns a previously stored result when the input is unchanged and
+ * otherwise parses the file with {@link DAEParser#parse(File)} and stores the result in the
+ * binary format of {@link DAEBinaryWriter}.
+ *
+ * <p>Entries are keyed either by path, size and modification time (the default, which needs
+ * no read of the input), or by a SHA-256 hash of the input bytes when
+ * {@link #setHashContent(boolean)} is enabled, which also recognizes identical files under
+ * different names or with touched timestamps.</p>
+ *
+ * <p>Entries are written to a temporary file and atomically moved into place, so concurrent
+ * readers (including other processes) never see partial entries. When the cache directory
+ * grows beyond its size cap, the least recently used entries are deleted.</p>
+ */
+public class DAEParseCache {
+    private static final String ENTRY_SUFFIX = ".daeb";
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final File directory;
+    private final long maxSize;
+    private volatile boolean hashContent;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory Cache directory, created if it does not exist
+     * @param maxSize   Maximum total size of the cache entries in bytes
+     * @throws IOException if the directory cannot be created
+     */
+    public DAEParseCache(File directory, long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        Files.createDirectories(directory.toPath());
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isHashContent() {
+        return hashContent;
+    }
+
+    /**
+     * Sets whether entries are keyed by a hash of the file content instead of path, size and
+     * modification time. Hashing reads the whole input on every lookup.
+     *
+     * @param hashContent true to key entries by content hash
+     */
+    public void setHashContent(boolean hashContent) {
+        this.hashContent = hashContent;
+    }
+
+    /**
+     * Parses a DAE file, using the cached result if the file is unchanged.
+     *
+     * @param file DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public DAEDocument parse(File file) throws Exception {
+        File entry = new File(directory, getKey(file) + ENTRY_SUFFIX);
+        if (entry.isFile()) {
+            try {
+                DAEDocument document = DAEBinaryReader.read(entry);
+                hits.incrementAndGet();
+                touch(entry);
+                return document;
+            } catch (IOException | RuntimeException e) {
+                // Unreadable or damaged entry (e.g. written by another format version): parse
+                // again, so it does not fail every later call for this file
+                entry.delete();
+            }
+        }
+
+        misses.incrementAndGet();
+        DAEDocument document = DAEParser.parse(file);
+        store(document, entry);
+        evict();
+        return document;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries deleted to stay within the size cap.
+     *
+     * @return Eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the total size of the cache entries.
+     *
+     * @return Size in bytes
+     */
+    public long getSize() {
+        long size = 0;
+        for (File entry : listEntries()) {
+            size += entry.length();
+        }
+        return size;
+    }
+
+    /**
+     * Deletes all entries. Counters are kept.
+     */
+    public void clear() {
+        for (File entry : listEntries()) {
+            entry.delete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DAEParseCache{" +
+                "directory=" + directory +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    private String getKey(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        if (hashContent) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            try (InputStream in = new FileInputStream(file)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        } else {
+            String identity = file.getCanonicalPath() + '\n' + file.length() + '\n' + file.lastModified();
+            digest.update(identity.getBytes(StandardCharsets.UTF_8));
+        }
+        // The binary format version is part of the key so upgrades never read stale entries
+        digest.update((byte) DAEBinaryWriter.VERSION);
+        return toHex(digest.digest());
+    }
+
+    private void store(DAEDocument document, File entry) throws IOException {
+        File temp = File.createTempFile("entry", ".tmp", directory);
+        try {
+            DAEBinaryWriter.write(document, temp);
+            try {
+                Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Marks an entry as recently used. The modification time doubles as access time, which
+     * keeps the LRU order across processes without a separate index file.
+     */
+    private static void touch(File entry) {
+        try {
+            Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Read-only cache directory: the entry just keeps its old position
+        }
+    }
+
+    /**
+     * Deletes least recently used entries until the cache fits its size cap.
+     */
+    private synchronized void evict() {
+        List<File> entries = listEntries();
+        long size = 0;
+        final long[] lastUsed = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            size += entries.get(i).length();
+            lastUsed[i] = entries.get(i).lastModified();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+        for (int i = 0; i < order.length && size > maxSize; i++) {
+            File entry = entries.get(order[i]);
+            long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private List<File> listEntries() {
+        List<File> entries = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                    entries.add(file);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
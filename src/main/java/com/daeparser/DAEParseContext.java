@@ -0,0 +1,79 @@
+package com.daeparser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Per-parse state shared by the parser methods.
+ * Numeric decoding of independent elements (geometries, controllers, animations) is handed to
+ * {@link #execute(Runnable)}: it runs inline for a normal parse, or on the executor for a
+ * parallel parse. The structural walk, and therefore document order, always stays on the
+ * calling thread.
+ */
+final class DAEParseContext {
+
+    private final ExecutorService executor;
+    private final List<Future<?>> tasks;
+
+    DAEParseContext(ExecutorService executor) {
+        this.executor = executor;
+        this.tasks = new ArrayList<>();
+    }
+
+    /**
+     * Runs a decoding task, inline or on the executor.
+     */
+    void execute(Runnable task) {
+        if (executor == null) {
+            task.run();
+        } else {
+            tasks.add(executor.submit(task));
+        }
+    }
+
+    /**
+     * Runs a list of decoding tasks one after another as a single task.
+     */
+    void execute(final List<Runnable> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        execute(() -> {
+            for (Runnable step : steps) {
+                step.run();
+            }
+        });
+    }
+
+    /**
+     * Waits for all submitted tasks, rethrowing the first failure.
+     *
+     * @throws Exception the exception thrown by a failed task
+     */
+    void awaitTasks() throws Exception {
+        try {
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            for (Future<?> task : tasks) {
+                task.cancel(false);
+            }
+            tasks.clear();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.daeparser;
+
+/**
+ * Receives timings and counts from the streaming parser, see
+ * {@link DAEParseOptions#setListener(DAEParseListener)}.
+ * All methods have empty defaults, so implementations only override what they need.
+ * Calls are made on the parsing thread; a listener shared by concurrent parses must be
+ * thread-safe. Without a listener the parser does not even read the clock.
+ *
+ * <p>{@link DAEParseStatistics} is a ready-made implementation that aggregates the
+ * reports in memory.</p>
+ */
+public interface DAEParseListener {
+
+    /**
+     * Timed parse phases.
+     */
+    enum Phase {
+        /** The whole document; the count is the number of XML elements read. */
+        DOCUMENT,
+        /** The geometry library; the count is the number of geometries. */
+        GEOMETRIES,
+        /** The material library; the count is the number of materials. */
+        MATERIALS,
+        /** The animation library; the count is the number of animations. */
+        ANIMATIONS,
+        /** The controller library; the count is the number of controllers. */
+        CONTROLLERS,
+        /** The visual scene library; the count is the number of root nodes. */
+        SCENES,
+        /** One mesh; the id is the geometry id and the count is the triangle count. */
+        MESH,
+        /** One skin including its weights; the id is the controller id and the count is the vertex count. */
+        SKIN,
+        /** One animation; the count is the number of channels. */
+        ANIMATION
+    }
+
+    /**
+     * Called when a phase ends.
+     *
+     * @param phase Phase
+     * @param id    Id of the parsed element, or null for the document and libraries
+     * @param nanos Elapsed time in nanoseconds
+     * @param count Phase specific element count, see {@link Phase}
+     */
+    default void phaseCompleted(Phase phase, String id, long nanos, int count) {
+    }
+
+    /**
+     * Called after a float list (&lt;float_array&gt; or a matrix) is decoded.
+     * Lazily parsed data is decoded outside the parse and is not reported.
+     *
+     * @param length Number of characters or bytes of text decoded
+     * @param count  Number of floats
+     */
+    default void floatsDecoded(long length, int count) {
+    }
+
+    /**
+     * Called after an index list (&lt;p&gt;, &lt;vcount&gt; or &lt;v&gt;) is decoded.
+     *
+     * @param length Number of characters or bytes of text decoded
+     * @param count  Number of ints
+     */
+    default void intsDecoded(long length, int count) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.daeparser;
+
+import java.io.InputStream;
+import java.util.function.LongSupplier;
+
+/**
+ * Observes a file parse run by {@link DAEParser#parseMapped(java.nio.file.Path, DAEParseOptions, DAEParseMonitor)}.
+ * Either method may stop the parse by throwing an unchecked exception, such as a
+ * {@link java.util.concurrent.CancellationException}.
+ */
+interface DAEParseMonitor {
+
+    /**
+     * Wraps the stream the XML is read from.
+     *
+     * @param in       Stream of the document structure, or of the whole file if it is not mapped
+     * @param position Offset in the file read so far, or null if that is the number of bytes read from the stream
+     * @return Stream to parse instead
+     */
+    InputStream monitor(InputStream in, LongSupplier position);
+
+    /**
+     * Called before each slice of a numeric payload is scanned from the mapped file.
+     */
+    void decoding();
+}
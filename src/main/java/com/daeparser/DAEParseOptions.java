@@ -0,0 +1,145 @@
+package com.daeparser;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Selects which parts of a document {@link DAEParser#parse(java.nio.file.Path, DAEParseOptions)}
+ * reads. Excluded libraries, geometries and mesh inputs are passed over by the streaming parser
+ * without decoding any of their numbers.
+ *
+ * <p>By default everything is parsed:</p>
+ * <pre>
+ * DAEParseOptions options = new DAEParseOptions();
+ * options.exclude(DAEParseOptions.Library.ANIMATIONS, DAEParseOptions.Library.CONTROLLERS);
+ * options.skipSemantic("TEXCOORD", "COLOR");
+ * options.includeGeometry("Body-mesh");
+ * DAEDocument document = DAEParser.parse(path, options);
+ * </pre>
+ */
+public class DAEParseOptions {
+
+    /**
+     * Document libraries that can be included or excluded.
+     */
+    public enum Library {
+        GEOMETRIES, MATERIALS, ANIMATIONS, CONTROLLERS, SCENES
+    }
+
+    private final Set<Library> libraries = EnumSet.allOf(Library.class);
+    private final Set<String> skippedSemantics = new LinkedHashSet<>();
+    private final Set<String> geometryIds = new LinkedHashSet<>(); // Empty means all geometries
+    private boolean lazy;
+    private DAEParseListener listener;
+
+    /**
+     * Parses the given libraries again after they were excluded.
+     *
+     * @param libraries Libraries to parse
+     */
+    public void include(Library... libraries) {
+        Collections.addAll(this.libraries, libraries);
+    }
+
+    /**
+     * Skips the given libraries.
+     *
+     * @param libraries Libraries to skip
+     */
+    public void exclude(Library... libraries) {
+        for (Library library : libraries) {
+            this.libraries.remove(library);
+        }
+    }
+
+    /**
+     * Parses only the given libraries.
+     *
+     * @param libraries Libraries to parse
+     */
+    public void includeOnly(Library... libraries) {
+        this.libraries.clear();
+        include(libraries);
+    }
+
+    public boolean isIncluded(Library library) {
+        return libraries.contains(library);
+    }
+
+    /**
+     * Drops mesh inputs with the given semantics (e.g. TEXCOORD, COLOR). The sources they
+     * reference are not decoded and not added to the mesh, unless another input uses them.
+     * The index stride of the mesh is unchanged.
+     *
+     * @param semantics Input semantics to skip
+     */
+    public void skipSemantic(String... semantics) {
+        Collections.addAll(skippedSemantics, semantics);
+    }
+
+    public Set<String> getSkippedSemantics() {
+        return Collections.unmodifiableSet(skippedSemantics);
+    }
+
+    public boolean isSemanticSkipped(String semantic) {
+        return skippedSemantics.contains(semantic);
+    }
+
+    /**
+     * Restricts geometries to the given ids. Once any id is added, all other geometries are
+     * skipped.
+     *
+     * @param id Geometry id
+     */
+    public void includeGeometry(String id) {
+        geometryIds.add(id);
+    }
+
+    public Set<String> getGeometryIds() {
+        return Collections.unmodifiableSet(geometryIds);
+    }
+
+    public boolean isGeometryIncluded(String id) {
+        return geometryIds.isEmpty() || geometryIds.contains(id);
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether source data and triangle indices are decoded on first access, see
+     * {@link DAEParser#parseLazy(java.nio.file.Path)}. Only applies to files parsed from a path.
+     *
+     * @param lazy true to decode lazily
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public DAEParseListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets a listener receiving phase timings and decoding counts, e.g. {@link DAEParseStatistics}.
+     *
+     * @param listener Listener, or null for none
+     */
+    public void setListener(DAEParseListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public String toString() {
+        return "DAEParseOptions{" +
+                "libraries=" + libraries +
+                ", skippedSemantics=" + skippedSemantics +
+                ", geometryIds=" + geometryIds +
+                ", lazy=" + lazy +
+                ", listener=" + listener +
+                '}';
+    }
+}
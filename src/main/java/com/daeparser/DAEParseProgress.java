@@ -0,0 +1,32 @@
+package com.daeparser;
+
+/**
+ * Receives progress updates from {@link DAEParser#parseAsync(java.nio.file.Path,
+ * java.util.concurrent.Executor, DAEParseProgress)}.
+ * Called on the thread doing the parse, at most about a hundred times per file, so
+ * implementations should return quickly (e.g. just store the values for the UI thread).
+ */
+@FunctionalInterface
+public interface DAEParseProgress {
+
+    /**
+     * Parse phases, in order.
+     */
+    enum Phase {
+        /** Locating the numeric payloads of a memory-mapped file. */
+        SCANNING,
+        /** Reading the document. */
+        PARSING,
+        /** The document is parsed. */
+        COMPLETE
+    }
+
+    /**
+     * Reports progress.
+     *
+     * @param phase      Current phase
+     * @param bytesRead  Bytes of the file processed so far
+     * @param totalBytes Size of the file
+     */
+    void progress(Phase phase, long bytesRead, long totalBytes);
+}
@@ -0,0 +1,203 @@
+package com.daeparser;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * {@link DAEParseListener} that aggregates phase timings and decoding counts in memory.
+ * Durations are kept in a power-of-two histogram per phase (bucket {@code i} holds durations
+ * from 2<sup>i</sup> up to 2<sup>i+1</sup> nanoseconds), which is enough for percentiles
+ * within a factor of two without storing individual samples. One instance can be shared by
+ * any number of concurrent parses.
+ *
+ * <pre>
+ * DAEParseStatistics statistics = new DAEParseStatistics();
+ * DAEParseOptions options = new DAEParseOptions();
+ * options.setListener(statistics);
+ * DAEParser.parse(path, options);
+ * System.out.println(statistics);
+ * </pre>
+ */
+public class DAEParseStatistics implements DAEParseListener {
+    private static final int BUCKETS = 64;
+    private static final int PHASES = Phase.values().length;
+
+    private final long[] counts = new long[PHASES];
+    private final long[] totalNanos = new long[PHASES];
+    private final long[] minNanos = new long[PHASES];
+    private final long[] maxNanos = new long[PHASES];
+    private final long[] elements = new long[PHASES];
+    private final long[][] histograms = new long[PHASES][BUCKETS];
+    private long floatsDecoded;
+    private long intsDecoded;
+    private long bytesDecoded;
+
+    public DAEParseStatistics() {
+        Arrays.fill(minNanos, Long.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void phaseCompleted(Phase phase, String id, long nanos, int count) {
+        int p = phase.ordinal();
+        counts[p]++;
+        totalNanos[p] += nanos;
+        minNanos[p] = Math.min(minNanos[p], nanos);
+        maxNanos[p] = Math.max(maxNanos[p], nanos);
+        elements[p] += count;
+        histograms[p][bucket(nanos)]++;
+    }
+
+    @Override
+    public synchronized void floatsDecoded(long length, int count) {
+        floatsDecoded += count;
+        bytesDecoded += length;
+    }
+
+    @Override
+    public synchronized void intsDecoded(long length, int count) {
+        intsDecoded += count;
+        bytesDecoded += length;
+    }
+
+    /**
+     * Gets how often a phase completed.
+     *
+     * @param phase Phase
+     * @return Number of samples
+     */
+    public synchronized long getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    public synchronized long getTotalNanos(Phase phase) {
+        return totalNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the shortest duration of a phase.
+     *
+     * @param phase Phase
+     * @return Duration in nanoseconds, or 0 if there are no samples
+     */
+    public synchronized long getMinNanos(Phase phase) {
+        return counts[phase.ordinal()] == 0 ? 0 : minNanos[phase.ordinal()];
+    }
+
+    public synchronized long getMaxNanos(Phase phase) {
+        return maxNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the mean duration of a phase.
+     *
+     * @param phase Phase
+     * @return Duration in nanoseconds, or 0 if there are no samples
+     */
+    public synchronized double getMeanNanos(Phase phase) {
+        int p = phase.ordinal();
+        return counts[p] == 0 ? 0 : (double) totalNanos[p] / counts[p];
+    }
+
+    /**
+     * Estimates a percentile of the duration of a phase from its histogram.
+     *
+     * @param phase      Phase
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the histogram bucket holding the percentile (capped at the
+     *         maximum), or 0 if there are no samples
+     */
+    public synchronized long getPercentileNanos(Phase phase, double percentile) {
+        int p = phase.ordinal();
+        if (counts[p] == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(counts[p] * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histograms[p][i];
+            if (seen >= rank) {
+                long upper = i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upper, maxNanos[p]);
+            }
+        }
+        return maxNanos[p];
+    }
+
+    /**
+     * Gets the duration histogram of a phase.
+     *
+     * @param phase Phase
+     * @return Copy of the bucket counts, see the class description
+     */
+    public synchronized long[] getHistogram(Phase phase) {
+        return histograms[phase.ordinal()].clone();
+    }
+
+    /**
+     * Gets the sum of the element counts reported for a phase, e.g. all triangles of all
+     * meshes for {@link Phase#MESH}.
+     *
+     * @param phase Phase
+     * @return Element total
+     */
+    public synchronized long getElements(Phase phase) {
+        return elements[phase.ordinal()];
+    }
+
+    public synchronized long getFloatsDecoded() {
+        return floatsDecoded;
+    }
+
+    public synchronized long getIntsDecoded() {
+        return intsDecoded;
+    }
+
+    /**
+     * Gets the amount of numeric text decoded, in bytes (characters for non-mapped input).
+     *
+     * @return Decoded text length
+     */
+    public synchronized long getBytesDecoded() {
+        return bytesDecoded;
+    }
+
+    /**
+     * Discards all samples.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(totalNanos, 0);
+        Arrays.fill(minNanos, Long.MAX_VALUE);
+        Arrays.fill(maxNanos, 0);
+        Arrays.fill(elements, 0);
+        for (long[] histogram : histograms) {
+            Arrays.fill(histogram, 0);
+        }
+        floatsDecoded = 0;
+        intsDecoded = 0;
+        bytesDecoded = 0;
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder("DAEParseStatistics{\n");
+        for (Phase phase : Phase.values()) {
+            int p = phase.ordinal();
+            if (counts[p] == 0) {
+                continue;
+            }
+            text.append(String.format(Locale.ROOT,
+                    "  %-11s n=%d total=%.3f ms mean=%.3f ms p50=%.3f ms p99=%.3f ms max=%.3f ms elements=%d%n",
+                    phase, counts[p], totalNanos[p] / 1e6, getMeanNanos(phase) / 1e6,
+                    getPercentileNanos(phase, 50) / 1e6, getPercentileNanos(phase, 99) / 1e6,
+                    maxNanos[p] / 1e6, elements[p]));
+        }
+        text.append("  decoded ").append(floatsDecoded).append(" floats, ").append(intsDecoded)
+                .append(" ints from ").append(bytesDecoded).append(" bytes\n}");
+        return text.toString();
+    }
+}
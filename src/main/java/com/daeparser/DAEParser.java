@@ -4,9 +4,15 @@ import org.w3c.dom.*;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main parser class for COLLADA DAE files.
@@ -34,29 +40,273 @@ public class DAEParser {
      * @throws Exception if parsing fails
      */
     public static DAEDocument parse(File file) throws Exception {
+        return record(file, () -> {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document doc = builder.parse(file);
+            return parseDocument(doc, new DAEParseContext(null));
+        });
+    }
+
+    /**
+     * Parse a DAE file from an InputStream.
+     *
+     * @param inputStream InputStream containing DAE data
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parse(InputStream inputStream) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
         DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(file);
-        return parseDocument(doc);
+        Document doc = builder.parse(inputStream);
+        return parseDocument(doc, new DAEParseContext(null));
     }
 
     /**
-     * Parse a DAE file from an InputStream.
+     * Parse a DAE file, decoding geometries, controllers and animations in parallel
+     * on the common ForkJoinPool.
+     *
+     * @param file DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parseParallel(File file) throws Exception {
+        return parse(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a DAE file, decoding geometries, controllers and animations in parallel.
+     * The XML itself is read on the calling thread; the numeric payload of each geometry,
+     * controller and animation is then decoded as a separate task on the executor.
+     * The resulting document is identical to {@link #parse(File)}, in the same order.
+     *
+     * @param file     DAE file
+     * @param executor Executor to run decoding tasks on (not shut down by this method)
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parse(File file, ExecutorService executor) throws Exception {
+        return record(file, () -> {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document doc = builder.parse(file);
+            return parseDocument(doc, new DAEParseContext(executor));
+        });
+    }
+
+    /**
+     * Parse a DAE file from an InputStream, decoding geometries, controllers and animations in parallel.
      *
      * @param inputStream InputStream containing DAE data
+     * @param executor    Executor to run decoding tasks on (not shut down by this method)
      * @return Parsed DAEDocument
      * @throws Exception if parsing fails
+     * @see #parse(File, ExecutorService)
      */
-    public static DAEDocument parse(InputStream inputStream) throws Exception {
+    public static DAEDocument parse(InputStream inputStream, ExecutorService executor) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
         DocumentBuilder builder = factory.newDocumentBuilder();
         Document doc = builder.parse(inputStream);
-        return parseDocument(doc);
+        return parseDocument(doc, new DAEParseContext(executor));
+    }
+
+    /**
+     * Parse a DAE file from a file path using the streaming (StAX) parser.
+     * The document is read in a single forward pass without building a DOM,
+     * which keeps peak memory close to the size of the parsed data.
+     *
+     * @param filePath Path to the DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parseStreaming(String filePath) throws Exception {
+        return parseStreaming(new File(filePath));
+    }
+
+    /**
+     * Parse a DAE file from a File object using the streaming (StAX) parser.
+     *
+     * @param file DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parseStreaming(File file) throws Exception {
+        return record(file, () -> parseStreamingUnrecorded(file));
+    }
+
+    /**
+     * Parse a DAE file from an InputStream using the streaming (StAX) parser.
+     * The stream is not closed.
+     *
+     * @param inputStream InputStream containing DAE data
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parseStreaming(InputStream inputStream) throws Exception {
+        return DAEStreamParser.parse(inputStream);
+    }
+
+    /**
+     * Parse a DAE file by memory-mapping it.
+     * Only the document structure goes through the XML parser; the large numeric payloads
+     * (float_array, p, v and vcount) are located by a byte-level prescan and scanned straight
+     * from the mapped ASCII bytes without decoding them to characters. The result is the same
+     * as {@link #parseStreaming(File)}, which is also used for files this path cannot handle
+     * (over 2 GB, UTF-16 encoded or with a DOCTYPE).
+     *
+     * @param path DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parse(Path path) throws Exception {
+        return parseMapped(path, new DAEParseOptions(), null);
+    }
+
+    /**
+     * Parse a DAE file lazily. Like {@link #parse(Path)}, but source data and triangle indices
+     * are kept as byte ranges of the mapped file and only decoded on first access (for example
+     * {@link DAESource#getDataAsArray()} or {@link DAEMesh#getIndices()}), so reading just the
+     * scene graph or skeleton skips most of the numeric work. Decoding is thread-safe and
+     * decoded data can be dropped again with {@link DAESource#releaseData()} and
+     * {@link DAEMesh#releaseIndices()}.
+     *
+     * <p>The file stays mapped while the document is reachable. Skin data is always decoded,
+     * and files the mapped path cannot handle are parsed eagerly with
+     * {@link #parseStreaming(File)}.</p>
+     *
+     * @param path DAE file
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parseLazy(Path path) throws Exception {
+        DAEParseOptions options = new DAEParseOptions();
+        options.setLazy(true);
+        return parseMapped(path, options, null);
+    }
+
+    /**
+     * Parse only the parts of a DAE file selected by the options. The file is memory-mapped as in
+     * {@link #parse(Path)} (or lazily as in {@link #parseLazy(Path)} if the options ask for it),
+     * and excluded libraries, geometries and mesh inputs are skipped without decoding their data.
+     *
+     * @param path    DAE file
+     * @param options Parse options
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parse(Path path, DAEParseOptions options) throws Exception {
+        return parseMapped(path, options, null);
+    }
+
+    /**
+     * Parse only the parts of a DAE document selected by the options, using the streaming parser.
+     * Source data of skipped mesh inputs is read as text but never decoded. The stream is not closed.
+     *
+     * @param inputStream InputStream containing DAE data
+     * @param options     Parse options (the lazy option is ignored)
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails
+     */
+    public static DAEDocument parse(InputStream inputStream, DAEParseOptions options) throws Exception {
+        return DAEStreamParser.parse(inputStream, options);
+    }
+
+    /**
+     * Parse a DAE file asynchronously on the default executor: a virtual thread per file on
+     * Java 21 and later, otherwise a shared pool with one daemon thread per processor.
+     *
+     * @param path DAE file
+     * @return Future completed with the parsed DAEDocument
+     * @see #parseAsync(Path, Executor, DAEParseProgress)
+     */
+    public static CompletableFuture<DAEDocument> parseAsync(Path path) {
+        return DAEAsyncParser.parse(path, null, null);
+    }
+
+    /**
+     * Parse a DAE file asynchronously.
+     *
+     * @param path     DAE file
+     * @param executor Executor to parse on
+     * @return Future completed with the parsed DAEDocument
+     * @see #parseAsync(Path, Executor, DAEParseProgress)
+     */
+    public static CompletableFuture<DAEDocument> parseAsync(Path path, Executor executor) {
+        return DAEAsyncParser.parse(path, executor, null);
+    }
+
+    /**
+     * Parse a DAE file asynchronously, reporting progress. The result is the same as
+     * {@link #parse(Path)}. Cancelling the future stops the parse at the next read of the
+     * document structure; the future then completes with a CancellationException.
+     *
+     * @param path     DAE file
+     * @param executor Executor to parse on, or null for the default executor (see {@link #parseAsync(Path)})
+     * @param progress Progress callback, called on the parsing thread, or null
+     * @return Future completed with the parsed DAEDocument
+     */
+    public static CompletableFuture<DAEDocument> parseAsync(Path path, Executor executor, DAEParseProgress progress) {
+        return DAEAsyncParser.parse(path, executor, progress);
+    }
+
+    /**
+     * A parse of a file, run by {@link #record(File, FileParse)}.
+     */
+    private interface FileParse {
+        DAEDocument parse() throws Exception;
+    }
+
+    /**
+     * Runs a file parse inside a Flight Recorder document event (see {@link DAEFlightRecorder}).
+     */
+    private static DAEDocument record(File file, FileParse parse) throws Exception {
+        Object event = DAEFlightRecorder.beginParse(file.getPath());
+        DAEDocument document = null;
+        try {
+            document = parse.parse();
+            return document;
+        } finally {
+            DAEFlightRecorder.endParse(event, file.length(), document);
+        }
+    }
+
+    /**
+     * Parses a file through the memory-mapped path, or with the streaming parser if the file
+     * cannot be mapped (the lazy option then has no effect), inside a Flight Recorder document
+     * event. All parses of a {@link Path} go through here.
+     *
+     * @param path    DAE file
+     * @param options Parse options
+     * @param monitor Monitor of the XML stream and payload decoding, or null
+     * @return Parsed DAEDocument
+     * @throws Exception if parsing fails or the monitor stops it
+     */
+    static DAEDocument parseMapped(Path path, DAEParseOptions options, DAEParseMonitor monitor) throws Exception {
+        return record(path.toFile(), () -> {
+            DAEMappedInput input = DAEMappedInput.map(path, monitor);
+            if (input != null && input.isSupported()) {
+                DAEMappedInput.StructureStream structure = input.openStructure();
+                InputStream stream = monitor != null ? monitor.monitor(structure, structure::getFilePosition) : structure;
+                return DAEStreamParser.parse(stream, input, options);
+            }
+            try (InputStream inputStream = new FileInputStream(path.toFile())) {
+                InputStream stream = monitor != null ? monitor.monitor(inputStream, null) : inputStream;
+                return DAEStreamParser.parse(stream, options);
+            }
+        });
+    }
+
+    private static DAEDocument parseStreamingUnrecorded(File file) throws Exception {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return DAEStreamParser.parse(inputStream);
+        }
     }
 
-    private static DAEDocument parseDocument(Document doc) {
+    private static DAEDocument parseDocument(Document doc, DAEParseContext context) throws Exception {
         DAEDocument daeDoc = new DAEDocument();
 
         Element root = doc.getDocumentElement();
@@ -69,7 +319,14 @@ public class DAEParser {
             Element geometryLibrary = (Element) geometryLibraries.item(0);
             NodeList geometries = geometryLibrary.getElementsByTagName("geometry");
             for (int i = 0; i < geometries.getLength(); i++) {
-                DAEGeometry geometry = parseGeometry((Element) geometries.item(i));
+                List<Runnable> decoders = new ArrayList<>();
+                Object event = DAEFlightRecorder.beginGeometry();
+                DAEGeometry geometry = parseGeometry((Element) geometries.item(i), decoders);
+                if (event != null) {
+                    // Last decoding step, so the event covers the decoding and sees the decoded mesh
+                    decoders.add(() -> DAEFlightRecorder.endGeometry(event, geometry));
+                }
+                context.execute(decoders);
                 daeDoc.addGeometry(geometry);
             }
         }
@@ -94,7 +351,13 @@ public class DAEParser {
                 Element animationElement = (Element) animations.item(i);
                 // Only parse direct children, not nested animations
                 if (animationElement.getParentNode().equals(animationLibrary)) {
-                    DAEAnimation animation = parseAnimation(animationElement);
+                    List<Runnable> decoders = new ArrayList<>();
+                    Object event = DAEFlightRecorder.beginAnimation();
+                    DAEAnimation animation = parseAnimation(animationElement, decoders);
+                    if (event != null) {
+                        decoders.add(() -> DAEFlightRecorder.endAnimation(event, animation));
+                    }
+                    context.execute(decoders);
                     daeDoc.addAnimation(animation);
                 }
             }
@@ -106,7 +369,7 @@ public class DAEParser {
             Element controllerLibrary = (Element) controllerLibraries.item(0);
             NodeList controllers = controllerLibrary.getElementsByTagName("controller");
             for (int i = 0; i < controllers.getLength(); i++) {
-                DAEController controller = parseController((Element) controllers.item(i));
+                DAEController controller = parseController((Element) controllers.item(i), context);
                 daeDoc.addController(controller);
             }
         }
@@ -122,30 +385,36 @@ public class DAEParser {
             }
         }
 
+        // Wait for numeric decoding still running on the executor
+        context.awaitTasks();
+
         return daeDoc;
     }
 
-    private static DAEGeometry parseGeometry(Element geometryElement) {
+    /**
+     * Parses a geometry. Decoding of its numbers is appended to the given decoders.
+     */
+    private static DAEGeometry parseGeometry(Element geometryElement, List<Runnable> decoders) {
         DAEGeometry geometry = new DAEGeometry();
         geometry.setId(geometryElement.getAttribute("id"));
         geometry.setName(geometryElement.getAttribute("name"));
 
         NodeList meshes = geometryElement.getElementsByTagName("mesh");
         if (meshes.getLength() > 0) {
-            DAEMesh mesh = parseMesh((Element) meshes.item(0));
+            DAEMesh mesh = parseMesh((Element) meshes.item(0), decoders);
             geometry.setMesh(mesh);
         }
 
         return geometry;
     }
 
-    private static DAEMesh parseMesh(Element meshElement) {
+    private static DAEMesh parseMesh(Element meshElement, List<Runnable> decoders) {
         DAEMesh mesh = new DAEMesh();
 
         // Parse sources
         NodeList sources = meshElement.getElementsByTagName("source");
         for (int i = 0; i < sources.getLength(); i++) {
-            DAESource source = parseSource((Element) sources.item(i));
+            DAESource source = parseSource((Element) sources.item(i), decoders);
             mesh.addSource(source);
         }
 
@@ -172,91 +441,105 @@ public class DAEParser {
             }
         }
 
-        // Parse triangles
-        NodeList trianglesElements = meshElement.getElementsByTagName("triangles");
-        if (trianglesElements.getLength() > 0) {
-            Element trianglesElement = (Element) trianglesElements.item(0);
-            String countStr = trianglesElement.getAttribute("count");
-            if (!countStr.isEmpty()) {
-                mesh.setTriangleCount(Integer.parseInt(countStr));
+        // Parse the primitive elements, one group each, into one shared index array
+        DAEMeshPrimitives primitives = new DAEMeshPrimitives(mesh);
+        for (Node child = meshElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+            String name = child.getNodeName();
+            if (child.getNodeType() == Node.ELEMENT_NODE
+                    && (name.equals("triangles") || name.equals("polylist") || name.equals("polygons"))) {
+                parsePrimitives((Element) child, mesh, primitives, decoders);
             }
+        }
+        primitives.resolveInputs();
+        // Runs after the source decoders, since concave polygons need the positions
+        decoders.add(primitives::apply);
 
-            // Parse input elements and store semantics and offsets
-            NodeList inputElements = trianglesElement.getElementsByTagName("input");
-            int maxOffset = 0;
-            for (int i = 0; i < inputElements.getLength(); i++) {
-                Element input = (Element) inputElements.item(i);
-                String semantic = input.getAttribute("semantic");
-                String source = input.getAttribute("source");
-                String offsetStr = input.getAttribute("offset");
-                
-                if (source.startsWith("#")) {
-                    source = source.substring(1);
-                }
-                
-                int offset = 0;
-                if (!offsetStr.isEmpty()) {
-                    offset = Integer.parseInt(offsetStr);
-                    if (offset > maxOffset) {
-                        maxOffset = offset;
-                    }
-                }
-                
-                // Store semantic to offset mapping
-                mesh.addInputOffset(semantic, offset);
-                
-                // Store semantic to source mapping (except VERTEX which was already mapped)
-                if (!semantic.equals("VERTEX")) {
-                    mesh.addInputSemantic(semantic, source);
-                }
+        return mesh;
+    }
+
+    /**
+     * Parses a &lt;triangles&gt;, &lt;polylist&gt; or &lt;polygons&gt; element as a primitive group.
+     * Decoding of its indices is appended to the given decoders.
+     */
+    private static void parsePrimitives(Element primitiveElement, DAEMesh mesh, DAEMeshPrimitives primitives,
+                                        List<Runnable> decoders) {
+        String type = primitiveElement.getTagName();
+        String countStr = primitiveElement.getAttribute("count");
+        int count = countStr.isEmpty() ? 0 : Integer.parseInt(countStr);
+        String material = primitiveElement.getAttribute("material");
+        int group = primitives.addGroup(type, material.isEmpty() ? null : material, count);
+
+        // Parse input elements and store semantics and offsets
+        NodeList inputElements = primitiveElement.getElementsByTagName("input");
+        int maxOffset = 0;
+        for (int i = 0; i < inputElements.getLength(); i++) {
+            Element input = (Element) inputElements.item(i);
+            String semantic = input.getAttribute("semantic");
+            String source = input.getAttribute("source");
+            String offsetStr = input.getAttribute("offset");
+
+            if (source.startsWith("#")) {
+                source = source.substring(1);
             }
-            int stride = maxOffset + 1;
 
-            NodeList pElements = trianglesElement.getElementsByTagName("p");
-            if (pElements.getLength() > 0) {
-                Element pElement = (Element) pElements.item(0);
-                String[] indices = pElement.getTextContent().trim().split("\\s+");
-                
-                List<int[]> trianglesList = new ArrayList<>();
-                List<int[]> triangleIndicesList = new ArrayList<>();
-                
-                // Process triangles considering stride (multiple inputs with offsets)
-                for (int i = 0; i < indices.length; i += stride * 3) {
-                    if (i + stride * 2 < indices.length) {
-                        // For backward compatibility, keep simple vertex-only triangles
-                        int[] triangle = new int[3];
-                        triangle[0] = Integer.parseInt(indices[i]);
-                        triangle[1] = Integer.parseInt(indices[i + stride]);
-                        triangle[2] = Integer.parseInt(indices[i + stride * 2]);
-                        trianglesList.add(triangle);
-                        
-                        // Store full index data for triangulation
-                        int[] fullIndices = new int[stride * 3];
-                        for (int j = 0; j < stride * 3; j++) {
-                            fullIndices[j] = Integer.parseInt(indices[i + j]);
-                        }
-                        triangleIndicesList.add(fullIndices);
-                    }
+            int offset = 0;
+            if (!offsetStr.isEmpty()) {
+                offset = Integer.parseInt(offsetStr);
+                if (offset > maxOffset) {
+                    maxOffset = offset;
                 }
-                mesh.setTriangles(trianglesList);
-                mesh.setTriangleIndices(triangleIndicesList);
             }
+            primitives.addInput(group, semantic, source, offset);
         }
-
-        // Parse polylist (alternative to triangles)
-        NodeList polylistElements = meshElement.getElementsByTagName("polylist");
-        if (polylistElements.getLength() > 0) {
-            Element polylistElement = (Element) polylistElements.item(0);
-            String countStr = polylistElement.getAttribute("count");
-            if (!countStr.isEmpty()) {
-                mesh.setTriangleCount(Integer.parseInt(countStr));
+        int stride = maxOffset + 1;
+
+        if (type.equals("triangles")) {
+            // Declared count until the indices are decoded
+            mesh.setTriangleCount(mesh.getTriangleCount() + count);
+            Element pElement = getChildElement(primitiveElement, "p");
+            if (pElement != null) {
+                String text = pElement.getTextContent();
+                decoders.add(() -> primitives.setTriangles(group, DAENumberScanner.parseInts(text)));
+            }
+        } else if (type.equals("polylist")) {
+            Element vcountElement = getChildElement(primitiveElement, "vcount");
+            Element pElement = getChildElement(primitiveElement, "p");
+            if (vcountElement != null && pElement != null) {
+                String vcountText = vcountElement.getTextContent();
+                String text = pElement.getTextContent();
+                decoders.add(() -> primitives.setPolygons(group, DAENumberScanner.parseInts(vcountText),
+                        DAENumberScanner.parseInts(text)));
             }
+        } else {
+            // One <p> per polygon; of a polygon with holes (<ph>) only the outline is used
+            List<String> polygons = new ArrayList<>();
+            for (Node child = primitiveElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeName().equals("p")) {
+                    polygons.add(child.getTextContent());
+                } else if (child.getNodeName().equals("ph")) {
+                    Element outline = getChildElement((Element) child, "p");
+                    polygons.add(outline != null ? outline.getTextContent() : "");
+                }
+            }
+            decoders.add(() -> {
+                DAENumberScanner scanner = DAENumberScanner.forInts(0);
+                int[] vcounts = new int[polygons.size()];
+                for (int i = 0; i < vcounts.length; i++) {
+                    int start = scanner.size();
+                    scanner.feed(polygons.get(i));
+                    scanner.feed(" "); // Keeps the last number apart from the next polygon
+                    vcounts[i] = (scanner.size() - start) / stride;
+                }
+                primitives.setPolygons(group, vcounts, scanner.toIntArray());
+            });
         }
-
-        return mesh;
     }
 
-    private static DAESource parseSource(Element sourceElement) {
+    /**
+     * Parses a source element. Decoding of its float_array is appended to the given
+     * decoders so the caller can run it inline or on an executor.
+     */
+    private static DAESource parseSource(Element sourceElement, List<Runnable> decoders) {
         DAESource source = new DAESource();
         source.setId(sourceElement.getAttribute("id"));
         source.setName(sourceElement.getAttribute("name"));
@@ -269,14 +552,8 @@ public class DAEParser {
                 source.setCount(Integer.parseInt(countStr));
             }
 
-            String[] values = floatArray.getTextContent().trim().split("\\s+");
-            List<Float> data = new ArrayList<>();
-            for (String value : values) {
-                if (!value.isEmpty()) {
-                    data.add(Float.parseFloat(value));
-                }
-            }
-            source.setData(data);
+            String text = floatArray.getTextContent();
+            decoders.add(() -> source.setData(parseFloatArray(text, source.getCount())));
         }
 
         // Parse accessor for stride information
@@ -339,24 +616,18 @@ public class DAEParser {
             node.setType(type);
         }
 
-        // Parse transformation matrix
-        NodeList matrices = nodeElement.getElementsByTagName("matrix");
-        if (matrices.getLength() > 0) {
-            Element matrix = (Element) matrices.item(0);
-            String[] values = matrix.getTextContent().trim().split("\\s+");
-            if (values.length == 16) {
-                float[] transformation = new float[16];
-                for (int i = 0; i < 16; i++) {
-                    transformation[i] = Float.parseFloat(values[i]);
-                }
+        // Parse transformation matrix (own children only, not those of child nodes)
+        Element matrix = getChildElement(nodeElement, "matrix");
+        if (matrix != null) {
+            float[] transformation = toMatrix(DAENumberScanner.parseFloats(matrix.getTextContent()));
+            if (transformation != null) {
                 node.setTransformation(transformation);
             }
         }
 
         // Parse instance_geometry
-        NodeList instanceGeometries = nodeElement.getElementsByTagName("instance_geometry");
-        if (instanceGeometries.getLength() > 0) {
-            Element instanceGeometry = (Element) instanceGeometries.item(0);
+        Element instanceGeometry = getChildElement(nodeElement, "instance_geometry");
+        if (instanceGeometry != null) {
             String url = instanceGeometry.getAttribute("url");
             if (url.startsWith("#")) {
                 node.setGeometryRef(url.substring(1));
@@ -364,9 +635,8 @@ public class DAEParser {
         }
         
         // Parse instance_controller
-        NodeList instanceControllers = nodeElement.getElementsByTagName("instance_controller");
-        if (instanceControllers.getLength() > 0) {
-            Element instanceController = (Element) instanceControllers.item(0);
+        Element instanceController = getChildElement(nodeElement, "instance_controller");
+        if (instanceController != null) {
             String url = instanceController.getAttribute("url");
             if (url.startsWith("#")) {
                 node.setControllerRef(url.substring(1));
@@ -398,7 +668,24 @@ public class DAEParser {
         return node;
     }
 
-    private static DAEAnimation parseAnimation(Element animationElement) {
+    /**
+     * Gets the first direct child element with the given name.
+     *
+     * @return Child element, or null if there is none
+     */
+    private static Element getChildElement(Element parent, String name) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && child.getNodeName().equals(name)) {
+                return (Element) child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses an animation. Decoding of its sources is appended to the given decoders.
+     */
+    private static DAEAnimation parseAnimation(Element animationElement, List<Runnable> decoders) {
         DAEAnimation animation = new DAEAnimation();
         animation.setId(animationElement.getAttribute("id"));
         animation.setName(animationElement.getAttribute("name"));
@@ -409,7 +696,7 @@ public class DAEParser {
             Element sourceElement = (Element) sources.item(i);
             // Only parse direct children
             if (sourceElement.getParentNode().equals(animationElement)) {
-                DAESource source = parseSource(sourceElement);
+                DAESource source = parseSource(sourceElement, decoders);
                 animation.addSource(source);
             }
         }
@@ -471,7 +758,7 @@ public class DAEParser {
         return channel;
     }
 
-    private static DAEController parseController(Element controllerElement) {
+    private static DAEController parseController(Element controllerElement, DAEParseContext context) {
         DAEController controller = new DAEController();
         controller.setId(controllerElement.getAttribute("id"));
         controller.setName(controllerElement.getAttribute("name"));
@@ -479,14 +766,24 @@ public class DAEParser {
         // Parse skin element
         NodeList skins = controllerElement.getElementsByTagName("skin");
         if (skins.getLength() > 0) {
-            DAESkin skin = parseSkin((Element) skins.item(0));
+            List<Runnable> decoders = new ArrayList<>();
+            Object event = DAEFlightRecorder.beginSkin();
+            DAESkin skin = parseSkin((Element) skins.item(0), decoders);
+            if (event != null) {
+                decoders.add(() -> DAEFlightRecorder.endSkin(event, controller.getId(), skin));
+            }
+            context.execute(decoders);
             controller.setSkin(skin);
         }
 
         return controller;
     }
 
-    private static DAESkin parseSkin(Element skinElement) {
+    /**
+     * Parses a skin. Everything that depends on decoded numbers (matrices, weights and
+     * influences) is appended to the given decoders, run in document order.
+     */
+    private static DAESkin parseSkin(Element skinElement, List<Runnable> decoders) {
         DAESkin skin = new DAESkin();
         
         // Parse source reference (geometry being skinned)
@@ -500,14 +797,13 @@ public class DAEParser {
         NodeList bindShapeMatrices = skinElement.getElementsByTagName("bind_shape_matrix");
         if (bindShapeMatrices.getLength() > 0) {
             Element bindShapeMatrix = (Element) bindShapeMatrices.item(0);
-            String[] values = bindShapeMatrix.getTextContent().trim().split("\\s+");
-            if (values.length == 16) {
-                float[] matrix = new float[16];
-                for (int i = 0; i < 16; i++) {
-                    matrix[i] = Float.parseFloat(values[i]);
+            String text = bindShapeMatrix.getTextContent();
+            decoders.add(() -> {
+                float[] matrix = toMatrix(DAENumberScanner.parseFloats(text));
+                if (matrix != null) {
+                    skin.setBindShapeMatrix(matrix);
                 }
-                skin.setBindShapeMatrix(matrix);
-            }
+            });
         }
 
         // Parse sources (joint names, bind matrices, weights)
@@ -515,7 +811,7 @@ public class DAEParser {
         for (int i = 0; i < sources.getLength(); i++) {
             Element sourceElement = (Element) sources.item(i);
             if (sourceElement.getParentNode().equals(skinElement)) {
-                DAESource source2 = parseSourceForSkin(sourceElement);
+                DAESource source2 = parseSourceForSkin(sourceElement, decoders);
                 skin.addSource(source2);
             }
         }
@@ -544,20 +840,24 @@ public class DAEParser {
                 }
             }
             
-            // Extract joint names and inverse bind matrices
-            for (DAESource source2 : skin.getSources()) {
-                if (source2.getId().equals(jointNamesSourceId)) {
-                    // This is the joint names source (Name_array)
-                    List<String> names = source2.getNames();
-                    if (names != null) {
-                        skin.setJointNames(names);
+            // Extract joint names and inverse bind matrices once the sources are decoded
+            String jointsId = jointNamesSourceId;
+            String inverseBindId = inverseBindMatricesSourceId;
+            decoders.add(() -> {
+                for (DAESource source2 : skin.getSources()) {
+                    if (source2.getId().equals(jointsId)) {
+                        // This is the joint names source (Name_array)
+                        List<String> names = source2.getNames();
+                        if (names != null) {
+                            skin.setJointNames(names);
+                        }
+                    } else if (source2.getId().equals(inverseBindId)) {
+                        // This is the inverse bind matrices source
+                        float[] matrices = source2.getDataAsArray();
+                        skin.setInverseBindMatrices(matrices);
                     }
-                } else if (source2.getId().equals(inverseBindMatricesSourceId)) {
-                    // This is the inverse bind matrices source
-                    float[] matrices = source2.getDataAsArray();
-                    skin.setInverseBindMatrices(matrices);
                 }
-            }
+            });
         }
 
         // Parse vertex_weights element
@@ -598,64 +898,42 @@ public class DAEParser {
             
             int stride = maxOffset + 1;
             
-            // Get weights array
-            for (DAESource source2 : skin.getSources()) {
-                if (source2.getId().equals(weightsSourceId)) {
-                    float[] weightsArray = source2.getDataAsArray();
-                    skin.setWeights(weightsArray);
-                    break;
-                }
-            }
-            
-            // Parse vcount (number of influences per vertex)
             NodeList vcountElements = vertexWeightsElement.getElementsByTagName("vcount");
-            int[] vcounts = null;
-            if (vcountElements.getLength() > 0) {
-                Element vcountElement = (Element) vcountElements.item(0);
-                String[] vcountValues = vcountElement.getTextContent().trim().split("\\s+");
-                vcounts = new int[vcountValues.length];
-                int maxInfluences = 0;
-                for (int i = 0; i < vcountValues.length; i++) {
-                    vcounts[i] = Integer.parseInt(vcountValues[i]);
-                    if (vcounts[i] > maxInfluences) {
-                        maxInfluences = vcounts[i];
-                    }
-                }
-                skin.setMaxJointInfluences(maxInfluences);
-            }
-            
-            // Parse v (joint and weight indices)
+            String vcountText = vcountElements.getLength() > 0 ? vcountElements.item(0).getTextContent() : null;
             NodeList vElements = vertexWeightsElement.getElementsByTagName("v");
-            if (vElements.getLength() > 0 && vcounts != null) {
-                Element vElement = (Element) vElements.item(0);
-                String[] vValues = vElement.getTextContent().trim().split("\\s+");
-                
-                int vIndex = 0;
-                for (int i = 0; i < vcounts.length; i++) {
-                    int influenceCount = vcounts[i];
-                    int[] vertexWeight = new int[influenceCount * 2]; // pairs of (joint_index, weight_index)
-                    
-                    for (int j = 0; j < influenceCount; j++) {
-                        if (vIndex + stride <= vValues.length) {
-                            int jointIdx = Integer.parseInt(vValues[vIndex + jointOffset]);
-                            int weightIdx = Integer.parseInt(vValues[vIndex + weightOffset]);
-                            
-                            vertexWeight[j * 2] = jointIdx;
-                            vertexWeight[j * 2 + 1] = weightIdx;
-                            
-                            vIndex += stride;
-                        }
+            String vText = vElements.getLength() > 0 ? vElements.item(0).getTextContent() : null;
+            String weightsId = weightsSourceId;
+            int joints = jointOffset;
+            int weights = weightOffset;
+
+            decoders.add(() -> {
+                // Get weights array
+                for (DAESource source2 : skin.getSources()) {
+                    if (source2.getId().equals(weightsId)) {
+                        float[] weightsArray = source2.getDataAsArray();
+                        skin.setWeights(weightsArray);
+                        break;
                     }
-                    
-                    skin.addVertexWeight(vertexWeight);
                 }
-            }
+
+                // Parse vcount (number of influences per vertex)
+                int[] vcounts = null;
+                if (vcountText != null) {
+                    vcounts = setVertexCounts(skin, DAENumberScanner.parseInts(vcountText));
+                }
+
+                // Parse v (joint and weight indices)
+                if (vText != null && vcounts != null) {
+                    int[] vValues = DAENumberScanner.parseInts(vText);
+                    setVertexWeights(skin, vcounts, vValues, stride, joints, weights);
+                }
+            });
         }
 
         return skin;
     }
 
-    private static DAESource parseSourceForSkin(Element sourceElement) {
+    private static DAESource parseSourceForSkin(Element sourceElement, List<Runnable> decoders) {
         DAESource source = new DAESource();
         source.setId(sourceElement.getAttribute("id"));
         source.setName(sourceElement.getAttribute("name"));
@@ -669,14 +947,8 @@ public class DAEParser {
                 source.setCount(Integer.parseInt(countStr));
             }
 
-            String[] values = floatArray.getTextContent().trim().split("\\s+");
-            List<Float> data = new ArrayList<>();
-            for (String value : values) {
-                if (!value.isEmpty()) {
-                    data.add(Float.parseFloat(value));
-                }
-            }
-            source.setData(data);
+            String text = floatArray.getTextContent();
+            decoders.add(() -> source.setData(parseFloatArray(text, source.getCount())));
         }
         
         // Parse Name_array for joint names
@@ -710,4 +982,61 @@ public class DAEParser {
 
         return source;
     }
+
+    /**
+     * Parses whitespace separated float values straight into a primitive array.
+     *
+     * @param expectedCount Expected number of values (e.g. the count attribute), or 0 if unknown
+     */
+    static float[] parseFloatArray(String text, int expectedCount) {
+        DAENumberScanner scanner = DAENumberScanner.forFloats(expectedCount);
+        scanner.feed(text);
+        return scanner.toFloatArray();
+    }
+
+    /**
+     * Checks parsed values for a 4x4 matrix.
+     *
+     * @return The 16 matrix values, or null if the input does not hold exactly 16 values
+     */
+    static float[] toMatrix(float[] values) {
+        return values.length == 16 ? values : null;
+    }
+
+    /**
+     * Records the maximum influence count of a skin from its <vcount> list.
+     */
+    static int[] setVertexCounts(DAESkin skin, int[] vcounts) {
+        int maxInfluences = 0;
+        for (int vcount : vcounts) {
+            if (vcount > maxInfluences) {
+                maxInfluences = vcount;
+            }
+        }
+        skin.setMaxJointInfluences(maxInfluences);
+        return vcounts;
+    }
+
+    /**
+     * Groups the <v> list of a skin into (joint index, weight index) pairs per vertex.
+     */
+    static void setVertexWeights(DAESkin skin, int[] vcounts, int[] vValues,
+                                 int stride, int jointOffset, int weightOffset) {
+        int vIndex = 0;
+        for (int i = 0; i < vcounts.length; i++) {
+            int influenceCount = vcounts[i];
+            int[] vertexWeight = new int[influenceCount * 2]; // pairs of (joint_index, weight_index)
+            
+            for (int j = 0; j < influenceCount; j++) {
+                if (vIndex + stride <= vValues.length) {
+                    vertexWeight[j * 2] = vValues[vIndex + jointOffset];
+                    vertexWeight[j * 2 + 1] = vValues[vIndex + weightOffset];
+                    
+                    vIndex += stride;
+                }
+            }
+            
+            skin.addVertexWeight(vertexWeight);
+        }
+    }
 }
@@ -125,6 +125,7 @@ public class DAEParserExample {
         System.out.println("  1. DAEParser.parse(String filePath)");
         System.out.println("  2. DAEParser.parse(File file)");
         System.out.println("  3. DAEParser.parse(InputStream inputStream)");
+        System.out.println("  4. DAEParser.parseStreaming(File file) - low-memory StAX parser for large files");
         
         System.out.println("\nAvailable classes:");
         System.out.println("  - DAEDocument: Root document containing all elements");
@@ -0,0 +1,273 @@
+package com.daeparser;
+
+import java.util.Arrays;
+
+/**
+ * Triangulates &lt;polylist&gt; and &lt;polygons&gt; index data into the flat triangle index
+ * layout of {@link DAEMesh#setIndices(int[], int)}.
+ *
+ * <p>Convex polygons are fan triangulated from their first corner. Polygons that are concave
+ * when projected onto their dominant plane are triangulated by ear clipping. Both write
+ * straight into one preallocated output array; the scratch arrays used for ear clipping are
+ * reused across polygons, so there is no allocation per polygon. A polygon with n corners
+ * always yields n - 2 triangles, and the winding of the polygon is kept.</p>
+ */
+final class DAEPolygonTriangulator {
+
+    private final DAESource positionSource;
+    private final int vertexOffset;
+    private float[] positions;
+    private int positionStride;
+
+    // Scratch space reused across polygons
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    private int[] ring = new int[16];
+
+    /**
+     * Creates a triangulator.
+     *
+     * @param positionSource Source of the VERTEX input, or null to always fan triangulate
+     * @param vertexOffset   Offset of the VERTEX input within a corner, or -1 if there is none
+     */
+    DAEPolygonTriangulator(DAESource positionSource, int vertexOffset) {
+        this.positionSource = positionSource;
+        this.vertexOffset = vertexOffset;
+    }
+
+    /**
+     * Creates a triangulator for a primitive group, using the mesh's position source for
+     * concave polygon detection.
+     */
+    static DAEPolygonTriangulator forGroup(DAEMesh mesh, DAEPrimitiveGroup group) {
+        Integer offset = group.getInputOffsets().get("VERTEX");
+        String sourceId = mesh.getInputSemantics().get("VERTEX");
+        DAESource positionSource = null;
+        if (sourceId != null) {
+            for (DAESource source : mesh.getSources()) {
+                if (sourceId.equals(source.getId())) {
+                    positionSource = source;
+                    break;
+                }
+            }
+        }
+        return new DAEPolygonTriangulator(positionSource, offset != null ? offset : -1);
+    }
+
+    /**
+     * Triangulates polygons. Polygons with fewer than 3 corners are dropped, and index data
+     * ending in an incomplete polygon is cut off before it.
+     *
+     * @param vcounts Number of corners of each polygon
+     * @param indices Interleaved per-corner indices of all polygons
+     * @param stride  Number of indices per corner
+     * @return Flat triangle indices, 3 corners per triangle
+     */
+    int[] triangulate(int[] vcounts, int[] indices, int stride) {
+        long triangles = 0;
+        long corners = 0;
+        for (int vcount : vcounts) {
+            corners += vcount;
+            if (corners * stride > indices.length) {
+                break;
+            }
+            if (vcount >= 3) {
+                triangles += vcount - 2;
+            }
+        }
+        if (triangles * 3 * stride > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many triangles: " + triangles);
+        }
+
+        int[] output = new int[(int) (triangles * 3 * stride)];
+        int outputIndex = 0;
+        int corner = 0;
+        for (int vcount : vcounts) {
+            if ((long) (corner + vcount) * stride > indices.length) {
+                break;
+            }
+            if (vcount == 3 || (vcount > 3 && !isConcave(indices, corner, vcount, stride))) {
+                for (int k = 1; k < vcount - 1; k++) {
+                    outputIndex = copyCorner(indices, corner, stride, output, outputIndex);
+                    outputIndex = copyCorner(indices, corner + k, stride, output, outputIndex);
+                    outputIndex = copyCorner(indices, corner + k + 1, stride, output, outputIndex);
+                }
+            } else if (vcount > 3) {
+                outputIndex = clipEars(indices, corner, vcount, stride, output, outputIndex);
+            }
+            corner += vcount;
+        }
+        return output;
+    }
+
+    /**
+     * Projects a polygon onto the plane its Newell normal is most aligned with, oriented so the
+     * polygon winds counter-clockwise, and checks it for reflex corners.
+     *
+     * @return true if the polygon has a reflex corner; false if it is convex or has no usable positions
+     */
+    private boolean isConcave(int[] indices, int first, int n, int stride) {
+        if (vertexOffset < 0 || positionSource == null) {
+            return false;
+        }
+        if (positions == null) {
+            // Decoded on the first polygon with more than 3 corners
+            positions = positionSource.getDataArrayUnsafe();
+            positionStride = positionSource.getStride() > 0 ? positionSource.getStride() : 3;
+            if (positions == null || positionStride < 3) {
+                positions = new float[0];
+            }
+        }
+        if (xs.length < n) {
+            xs = new float[n * 2];
+            ys = new float[n * 2];
+            ring = new int[n * 2];
+        }
+
+        // Newell normal of the polygon
+        double nx = 0;
+        double ny = 0;
+        double nz = 0;
+        for (int i = 0; i < n; i++) {
+            int p = positionIndex(indices, first + i, stride);
+            int q = positionIndex(indices, first + (i + 1) % n, stride);
+            if (p < 0 || q < 0) {
+                return false;
+            }
+            nx += (positions[p + 1] - positions[q + 1]) * (positions[p + 2] + positions[q + 2]);
+            ny += (positions[p + 2] - positions[q + 2]) * (positions[p] + positions[q]);
+            nz += (positions[p] - positions[q]) * (positions[p + 1] + positions[q + 1]);
+        }
+
+        // Drop the dominant axis; mirror if needed so the projection winds counter-clockwise
+        double ax = Math.abs(nx);
+        double ay = Math.abs(ny);
+        double az = Math.abs(nz);
+        int u;
+        int v;
+        boolean mirror;
+        if (az >= ax && az >= ay) {
+            u = 0;
+            v = 1;
+            mirror = nz < 0;
+        } else if (ax >= ay) {
+            u = 1;
+            v = 2;
+            mirror = nx < 0;
+        } else {
+            u = 2;
+            v = 0;
+            mirror = ny < 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int p = positionIndex(indices, first + i, stride);
+            xs[i] = positions[p + u];
+            ys[i] = mirror ? -positions[p + v] : positions[p + v];
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (cross(xs, ys, (i + n - 1) % n, i, (i + 1) % n) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Triangulates a polygon projected by {@link #isConcave(int[], int, int, int)} by ear clipping.
+     */
+    private int clipEars(int[] indices, int first, int n, int stride, int[] output, int outputIndex) {
+        for (int i = 0; i < n; i++) {
+            ring[i] = i;
+        }
+        int remaining = n;
+        int i = 0;
+        int misses = 0;
+        while (remaining > 3 && misses < remaining) {
+            int prev = ring[(i + remaining - 1) % remaining];
+            int current = ring[i];
+            int next = ring[(i + 1) % remaining];
+            if (isEar(prev, current, next, remaining)) {
+                outputIndex = copyCorner(indices, first + prev, stride, output, outputIndex);
+                outputIndex = copyCorner(indices, first + current, stride, output, outputIndex);
+                outputIndex = copyCorner(indices, first + next, stride, output, outputIndex);
+                System.arraycopy(ring, i + 1, ring, i, remaining - i - 1);
+                remaining--;
+                if (i >= remaining) {
+                    i = 0;
+                }
+                misses = 0;
+            } else {
+                i = (i + 1) % remaining;
+                misses++;
+            }
+        }
+        // Last triangle, or a fan over what is left of a degenerate polygon
+        for (int k = 1; k < remaining - 1; k++) {
+            outputIndex = copyCorner(indices, first + ring[0], stride, output, outputIndex);
+            outputIndex = copyCorner(indices, first + ring[k], stride, output, outputIndex);
+            outputIndex = copyCorner(indices, first + ring[k + 1], stride, output, outputIndex);
+        }
+        return outputIndex;
+    }
+
+    private boolean isEar(int prev, int current, int next, int remaining) {
+        if (cross(xs, ys, prev, current, next) <= 0) {
+            return false;
+        }
+        for (int k = 0; k < remaining; k++) {
+            int other = ring[k];
+            if (other == prev || other == current || other == next) {
+                continue;
+            }
+            if (isSamePoint(other, prev) || isSamePoint(other, current) || isSamePoint(other, next)) {
+                continue;
+            }
+            if (cross(xs, ys, prev, current, other) >= 0 && cross(xs, ys, current, next, other) >= 0
+                    && cross(xs, ys, next, prev, other) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSamePoint(int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    /**
+     * Gets the index of the first position component of a corner.
+     *
+     * @return Array index, or -1 if the corner refers to a position that does not exist
+     */
+    private int positionIndex(int[] indices, int corner, int stride) {
+        int index = indices[corner * stride + vertexOffset];
+        long start = (long) index * positionStride;
+        return index < 0 || start + 3 > positions.length ? -1 : (int) start;
+    }
+
+    private static double cross(float[] xs, float[] ys, int a, int b, int c) {
+        return (double) (xs[b] - xs[a]) * (ys[c] - ys[a]) - (double) (ys[b] - ys[a]) * (xs[c] - xs[a]);
+    }
+
+    private static int copyCorner(int[] indices, int corner, int stride, int[] output, int outputIndex) {
+        int start = corner * stride;
+        for (int k = 0; k < stride; k++) {
+            output[outputIndex + k] = indices[start + k];
+        }
+        return outputIndex + stride;
+    }
+
+    /**
+     * Appends one polygon to a growing vcount array.
+     *
+     * @return The vcount array, grown if it was full
+     */
+    static int[] addPolygon(int[] vcounts, int polygonCount, int vcount) {
+        if (polygonCount == vcounts.length) {
+            vcounts = Arrays.copyOf(vcounts, Math.max(16, polygonCount * 2));
+        }
+        vcounts[polygonCount] = vcount;
+        return vcounts;
+    }
+}
@@ -0,0 +1,165 @@
+package com.daeparser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One &lt;triangles&gt;, &lt;polylist&gt; or &lt;polygons&gt; element of a mesh, usually one per material.
+ * The triangles of all groups are stored one after another in the flat index data of the
+ * {@link DAEMesh}, so a group is a range of triangles: draw it with
+ * {@link #getIndexCount()} indices starting at {@link #getFirstIndex()} in the index buffer of
+ * {@link DAEMesh#buildIndexedMesh()} or {@link DAEMesh#writeIndexedMesh(java.nio.ByteBuffer, java.nio.ByteBuffer)},
+ * or the same range of vertices in {@link DAEMesh#getTriangulatedVertexData()}.
+ */
+public class DAEPrimitiveGroup {
+    private String type;
+    private String material;
+    private int count;
+    private Map<String, String> inputSemantics; // Semantic to source ID as declared by this element
+    private Map<String, Integer> inputOffsets; // Semantic to offset within a corner of this element
+    private int indexStride;
+    private int firstTriangle;
+    private int triangleCount;
+
+    public DAEPrimitiveGroup() {
+        this.inputSemantics = new LinkedHashMap<>();
+        this.inputOffsets = new LinkedHashMap<>();
+    }
+
+    public DAEPrimitiveGroup(String type, String material) {
+        this();
+        this.type = type;
+        this.material = material;
+    }
+
+    /**
+     * Gets the element the group was read from.
+     *
+     * @return "triangles", "polylist" or "polygons"
+     */
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the material symbol, bound to a material by the &lt;instance_geometry&gt; of a node.
+     *
+     * @return Material symbol, or null if the element has none
+     */
+    public String getMaterial() {
+        return material;
+    }
+
+    public void setMaterial(String material) {
+        this.material = material;
+    }
+
+    /**
+     * Gets the count attribute: triangles for &lt;triangles&gt;, polygons otherwise.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * Gets the inputs of this element. VERTEX maps to the &lt;vertices&gt; id.
+     *
+     * @return Map of semantic to source ID
+     */
+    public Map<String, String> getInputSemantics() {
+        return inputSemantics;
+    }
+
+    public void setInputSemantics(Map<String, String> inputSemantics) {
+        this.inputSemantics = inputSemantics;
+    }
+
+    public void addInputSemantic(String semantic, String sourceId) {
+        this.inputSemantics.put(semantic, sourceId);
+    }
+
+    /**
+     * Gets the offsets of the inputs within a corner of this element's &lt;p&gt; data. The mesh
+     * stores all groups in one corner layout, see {@link DAEMesh#getInputOffsets()}.
+     *
+     * @return Map of semantic to offset
+     */
+    public Map<String, Integer> getInputOffsets() {
+        return inputOffsets;
+    }
+
+    public void setInputOffsets(Map<String, Integer> inputOffsets) {
+        this.inputOffsets = inputOffsets;
+    }
+
+    public void addInputOffset(String semantic, int offset) {
+        this.inputOffsets.put(semantic, offset);
+    }
+
+    /**
+     * Gets the number of indices per corner in this element's &lt;p&gt; data (max input offset + 1).
+     */
+    public int getIndexStride() {
+        return indexStride;
+    }
+
+    public void setIndexStride(int indexStride) {
+        this.indexStride = indexStride;
+    }
+
+    /**
+     * Gets the first triangle of this group in the mesh's index data.
+     */
+    public int getFirstTriangle() {
+        return firstTriangle;
+    }
+
+    public void setFirstTriangle(int firstTriangle) {
+        this.firstTriangle = firstTriangle;
+    }
+
+    /**
+     * Gets the number of triangles of this group after triangulation.
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    public void setTriangleCount(int triangleCount) {
+        this.triangleCount = triangleCount;
+    }
+
+    /**
+     * Gets the first index of this group in a triangle index buffer (3 per triangle).
+     *
+     * @return Index offset, or the vertex offset in triangulated vertex data
+     */
+    public int getFirstIndex() {
+        return firstTriangle * 3;
+    }
+
+    /**
+     * Gets the number of indices (or triangulated vertices) of this group.
+     */
+    public int getIndexCount() {
+        return triangleCount * 3;
+    }
+
+    @Override
+    public String toString() {
+        return "DAEPrimitiveGroup{" +
+                "type='" + type + '\'' +
+                ", material='" + material + '\'' +
+                ", firstTriangle=" + firstTriangle +
+                ", triangleCount=" + triangleCount +
+                '}';
+    }
+}
@@ -1,21 +1,32 @@
 package com.daeparser;
 
+import java.nio.FloatBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents a data source in a DAE mesh (positions, normals, texture coordinates, etc.).
+ * Numeric data is stored in a growable primitive float array.
  */
 public class DAESource {
+    private static final float[] EMPTY = new float[0];
+
     private String id;
     private String name;
-    private List<Float> data;
+    private float[] data;
+    private int dataSize;
+    private List<Float> dataView;
     private List<String> names; // For Name_array (e.g., joint names)
     private int stride;
     private int count;
+    private DAELazyPayload lazyData; // Raw text of a lazily parsed source, kept to decode again after release
+    private volatile DAELazyPayload pendingData; // Set while the data is not decoded
 
     public DAESource() {
-        this.data = new ArrayList<>();
+        this.data = EMPTY;
         this.names = new ArrayList<>();
     }
 
@@ -41,16 +52,58 @@ public class DAESource {
         this.name = name;
     }
 
+    /**
+     * Gets the data as a list of boxed floats.
+     * The list is a live view over the primitive storage, kept for compatibility;
+     * prefer {@link #getDataBuffer()} in performance sensitive code.
+     *
+     * @return List view of the data
+     */
     public List<Float> getData() {
-        return data;
+        ensureData();
+        if (dataView == null) {
+            dataView = new DataView();
+        }
+        return dataView;
     }
 
     public void setData(List<Float> data) {
-        this.data = data;
+        float[] array = new float[data.size()];
+        int i = 0;
+        for (Float value : data) {
+            array[i++] = value;
+        }
+        setData(array);
+    }
+
+    /**
+     * Sets the data, taking ownership of the given array without copying it.
+     *
+     * @param data Float values of this source
+     */
+    public void setData(float[] data) {
+        this.lazyData = null;
+        this.pendingData = null;
+        this.data = data != null ? data : EMPTY;
+        this.dataSize = this.data.length;
     }
 
     public void addData(float value) {
-        this.data.add(value);
+        ensureData();
+        if (dataSize == data.length) {
+            data = Arrays.copyOf(data, Math.max(16, dataSize + (dataSize >> 1)));
+        }
+        data[dataSize++] = value;
+    }
+
+    /**
+     * Gets the number of float values held by this source.
+     *
+     * @return Number of values
+     */
+    public int getDataSize() {
+        ensureData();
+        return dataSize;
     }
 
     public List<String> getNames() {
@@ -81,13 +134,90 @@ public class DAESource {
         this.count = count;
     }
 
+    /**
+     * Gets a copy of the data as a primitive array.
+     * Use {@link #getDataBuffer()} to read the data without copying it.
+     *
+     * @return Float values of this source
+     */
     public float[] getDataAsArray() {
-        float[] array = new float[data.size()];
-        int i = 0;
-        for (Float value : data) {
-            array[i++] = value;
+        ensureData();
+        return Arrays.copyOf(data, dataSize);
+    }
+
+    /**
+     * Gets the backing array of the data without copying it, for the parser's own read-only
+     * passes over large sources. The array must not be modified or handed to callers.
+     *
+     * @return Float values of this source
+     */
+    float[] getDataArrayUnsafe() {
+        ensureData();
+        synchronized (this) {
+            if (dataSize != data.length) {
+                // Trim spare capacity left over from addData once, then hand out the array itself
+                data = Arrays.copyOf(data, dataSize);
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Gets a read-only, zero-copy view of the data.
+     *
+     * @return Read-only FloatBuffer positioned at the first value
+     */
+    public FloatBuffer getDataBuffer() {
+        ensureData();
+        return FloatBuffer.wrap(data, 0, dataSize).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Checks whether the numeric data is decoded. Data of a lazily parsed source
+     * (see {@link DAEParser#parseLazy(java.nio.file.Path)}) is decoded on first access.
+     *
+     * @return false if the data is still held as raw text
+     */
+    public boolean isDataLoaded() {
+        return pendingData == null;
+    }
+
+    /**
+     * Drops the decoded data of a lazily parsed source to free memory; it is decoded
+     * again on next access. Has no effect on sources whose data was set directly.
+     * Must not be called while other threads are reading the source.
+     */
+    public synchronized void releaseData() {
+        if (lazyData != null) {
+            data = EMPTY;
+            dataSize = 0;
+            pendingData = lazyData;
+        }
+    }
+
+    /**
+     * Sets raw text to decode on first access.
+     */
+    synchronized void setLazyData(DAELazyPayload payload) {
+        this.data = EMPTY;
+        this.dataSize = 0;
+        this.lazyData = payload;
+        this.pendingData = payload;
+    }
+
+    private void ensureData() {
+        if (pendingData != null) {
+            synchronized (this) {
+                DAELazyPayload payload = pendingData;
+                if (payload != null) {
+                    float[] decoded = payload.decodeFloats();
+                    data = decoded;
+                    dataSize = decoded.length;
+                    // Volatile write publishes data and dataSize to other threads
+                    pendingData = null;
+                }
+            }
         }
-        return array;
     }
 
     public String[] getNamesAsArray() {
@@ -99,10 +229,51 @@ public class DAESource {
         return "DAESource{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
-                ", dataSize=" + data.size() +
+                ", dataSize=" + dataSize +
                 ", namesSize=" + names.size() +
                 ", stride=" + stride +
                 ", count=" + count +
                 '}';
     }
+
+    /**
+     * List adapter over the primitive storage, boxing values only on access.
+     */
+    private class DataView extends AbstractList<Float> implements RandomAccess {
+        @Override
+        public Float get(int index) {
+            ensureData();
+            if (index < 0 || index >= dataSize) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + dataSize);
+            }
+            return data[index];
+        }
+
+        @Override
+        public Float set(int index, Float value) {
+            Float previous = get(index);
+            data[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean add(Float value) {
+            addData(value);
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            ensureData();
+            dataSize = 0;
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            ensureData();
+            return dataSize;
+        }
+    }
 }
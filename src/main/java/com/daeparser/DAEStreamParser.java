@@ -0,0 +1,899 @@
+package com.daeparser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming COLLADA parser backed by a StAX pull parser.
+ * Fills the same model objects as the DOM based {@link DAEParser} in a single
+ * forward pass over the XML, so no document tree is ever held in memory.
+ */
+final class DAEStreamParser {
+
+    private final XMLStreamReader reader;
+    private final DAEMappedInput payloads;
+    private final DAEParseOptions options;
+    private final boolean lazy;
+    private final DAEParseListener listener; // Null unless timings are requested
+    private int elementCount;
+    private String pendingText; // Element text read by readLazyPayload that turned out not to be a marker
+
+    private boolean geometriesParsed;
+    private boolean materialsParsed;
+    private boolean animationsParsed;
+    private boolean controllersParsed;
+    private boolean scenesParsed;
+
+    private DAEStreamParser(XMLStreamReader reader, DAEMappedInput payloads, DAEParseOptions options) {
+        this.reader = reader;
+        this.payloads = payloads;
+        this.options = options;
+        this.lazy = payloads != null && options.isLazy();
+        this.listener = options.getListener();
+    }
+
+    /**
+     * Parse a DAE document from an InputStream using the streaming parser.
+     *
+     * @param inputStream InputStream containing DAE data
+     * @return Parsed DAEDocument
+     * @throws XMLStreamException if the XML is malformed
+     */
+    static DAEDocument parse(InputStream inputStream) throws XMLStreamException {
+        return parse(inputStream, null, new DAEParseOptions());
+    }
+
+    /**
+     * Parse a DAE document from an InputStream, reading only the parts selected by the options.
+     * The lazy option is ignored.
+     *
+     * @param inputStream InputStream containing DAE data
+     * @param options     Parse options
+     * @return Parsed DAEDocument
+     * @throws XMLStreamException if the XML is malformed
+     */
+    static DAEDocument parse(InputStream inputStream, DAEParseOptions options) throws XMLStreamException {
+        return parse(inputStream, null, options);
+    }
+
+    /**
+     * Parse a DAE document.
+     *
+     * @param inputStream XML to parse; the structure stream of the payloads when they are given
+     * @param payloads    Mapped input the markers in the stream refer to, or null
+     * @param options     Parse options
+     * @return Parsed DAEDocument
+     * @throws XMLStreamException if the XML is malformed
+     */
+    static DAEDocument parse(InputStream inputStream, DAEMappedInput payloads, DAEParseOptions options)
+            throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+        try {
+            return new DAEStreamParser(reader, payloads, options).parseDocument();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private DAEDocument parseDocument() throws XMLStreamException {
+        long start = startTime();
+        DAEDocument daeDoc = new DAEDocument();
+
+        reader.nextTag();
+        elementCount++;
+        String version = reader.getAttributeValue(null, "version");
+        daeDoc.setVersion(version != null ? version : "");
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            // Only the first library of each kind is read, matching the DOM parser.
+            // Excluded libraries fall through to skipElement, so their payloads are never decoded
+            if (name.equals("library_geometries") && !geometriesParsed
+                    && options.isIncluded(DAEParseOptions.Library.GEOMETRIES)) {
+                geometriesParsed = true;
+                long libraryStart = startTime();
+                parseGeometryLibrary(daeDoc);
+                completed(DAEParseListener.Phase.GEOMETRIES, null, libraryStart, daeDoc.getGeometries().size());
+            } else if (name.equals("library_materials") && !materialsParsed
+                    && options.isIncluded(DAEParseOptions.Library.MATERIALS)) {
+                materialsParsed = true;
+                long libraryStart = startTime();
+                parseMaterialLibrary(daeDoc);
+                completed(DAEParseListener.Phase.MATERIALS, null, libraryStart, daeDoc.getMaterials().size());
+            } else if (name.equals("library_animations") && !animationsParsed
+                    && options.isIncluded(DAEParseOptions.Library.ANIMATIONS)) {
+                animationsParsed = true;
+                long libraryStart = startTime();
+                parseAnimationLibrary(daeDoc);
+                completed(DAEParseListener.Phase.ANIMATIONS, null, libraryStart, daeDoc.getAnimations().size());
+            } else if (name.equals("library_controllers") && !controllersParsed
+                    && options.isIncluded(DAEParseOptions.Library.CONTROLLERS)) {
+                controllersParsed = true;
+                long libraryStart = startTime();
+                parseControllerLibrary(daeDoc);
+                completed(DAEParseListener.Phase.CONTROLLERS, null, libraryStart, daeDoc.getControllers().size());
+            } else if (name.equals("library_visual_scenes") && !scenesParsed
+                    && options.isIncluded(DAEParseOptions.Library.SCENES)) {
+                scenesParsed = true;
+                long libraryStart = startTime();
+                parseSceneLibrary(daeDoc);
+                completed(DAEParseListener.Phase.SCENES, null, libraryStart, daeDoc.getScene() != null ? daeDoc.getScene().getNodes().size() : 0);
+            } else {
+                skipElement();
+            }
+        }
+
+        completed(DAEParseListener.Phase.DOCUMENT, null, start, elementCount);
+        return daeDoc;
+    }
+
+    private void parseGeometryLibrary(DAEDocument daeDoc) throws XMLStreamException {
+        while (nextChild()) {
+            if (reader.getLocalName().equals("geometry") && options.isGeometryIncluded(attribute("id"))) {
+                daeDoc.addGeometry(parseGeometry());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAEGeometry parseGeometry() throws XMLStreamException {
+        DAEGeometry geometry = new DAEGeometry();
+        geometry.setId(attribute("id"));
+        geometry.setName(attribute("name"));
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("mesh") && geometry.getMesh() == null) {
+                long start = startTime();
+                Object event = DAEFlightRecorder.beginGeometry();
+                geometry.setMesh(parseMesh());
+                DAEFlightRecorder.endGeometry(event, geometry);
+                completed(DAEParseListener.Phase.MESH, geometry.getId(), start, geometry.getMesh().getTriangleCount());
+            } else {
+                skipElement();
+            }
+        }
+
+        return geometry;
+    }
+
+    private DAEMesh parseMesh() throws XMLStreamException {
+        DAEMesh mesh = new DAEMesh();
+        boolean verticesParsed = false;
+        DAEMeshPrimitives primitives = new DAEMeshPrimitives(mesh);
+        // With skipped semantics, source data is kept as text until the inputs are known
+        Map<DAESource, String> deferred = options.getSkippedSemantics().isEmpty() ? null : new LinkedHashMap<>();
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("source")) {
+                mesh.addSource(parseSource(false, deferred));
+            } else if (name.equals("vertices") && !verticesParsed) {
+                verticesParsed = true;
+                parseVertices(mesh);
+            } else if (name.equals("triangles") || name.equals("polylist") || name.equals("polygons")) {
+                parsePrimitives(mesh, primitives, name);
+            } else {
+                skipElement();
+            }
+        }
+
+        primitives.resolveInputs();
+        if (deferred != null) {
+            skipSemantics(mesh, deferred);
+        }
+        // Triangulated last, since concave polygons need the decoded positions
+        primitives.apply();
+        return mesh;
+    }
+
+    /**
+     * Removes the inputs with skipped semantics from a mesh together with the sources only
+     * they reference, and decodes the data of the remaining sources.
+     *
+     * @param deferred Undecoded float_array text (or payload marker) of each source
+     */
+    private void skipSemantics(DAEMesh mesh, Map<DAESource, String> deferred) {
+        Set<String> skippedSources = new HashSet<>();
+        Set<String> usedSources = new HashSet<>();
+        Iterator<Map.Entry<String, String>> inputs = mesh.getInputSemantics().entrySet().iterator();
+        while (inputs.hasNext()) {
+            Map.Entry<String, String> input = inputs.next();
+            if (options.isSemanticSkipped(input.getKey())) {
+                skippedSources.add(input.getValue());
+                mesh.getInputOffsets().remove(input.getKey());
+                inputs.remove();
+                for (DAEPrimitiveGroup group : mesh.getPrimitiveGroups()) {
+                    group.getInputSemantics().remove(input.getKey());
+                    group.getInputOffsets().remove(input.getKey());
+                }
+            } else {
+                usedSources.add(input.getValue());
+            }
+        }
+        skippedSources.removeAll(usedSources);
+
+        Iterator<DAESource> sources = mesh.getSources().iterator();
+        while (sources.hasNext()) {
+            DAESource source = sources.next();
+            String text = deferred.get(source);
+            if (skippedSources.contains(source.getId())) {
+                sources.remove();
+            } else if (text != null) {
+                if (lazy && DAEMappedInput.isMarker(text)) {
+                    source.setLazyData(new DAELazyPayload(payloads, text, source.getCount()));
+                } else {
+                    DAENumberScanner scanner = DAENumberScanner.forFloats(source.getCount());
+                    if (DAEMappedInput.isMarker(text)) {
+                        payloads.decode(text, scanner);
+                    } else {
+                        scanner.feed(text);
+                    }
+                    source.setData(scanner.toFloatArray());
+                    if (listener != null) {
+                        listener.floatsDecoded(scanner.getInputLength(), source.getDataSize());
+                    }
+                }
+            }
+        }
+        mesh.invalidateLayout();
+    }
+
+    private void parseVertices(DAEMesh mesh) throws XMLStreamException {
+        mesh.setVerticesId(attribute("id"));
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("input")) {
+                String semantic = attribute("semantic");
+                String source = reference(attribute("source"));
+                if (semantic.equals("POSITION")) {
+                    // Store the position source for VERTEX semantic
+                    mesh.addInputSemantic("VERTEX", source);
+                }
+            }
+            skipElement();
+        }
+    }
+
+    /**
+     * Parses a triangles, polylist or polygons element as a primitive group.
+     *
+     * @param type Element name
+     */
+    private void parsePrimitives(DAEMesh mesh, DAEMeshPrimitives primitives, String type) throws XMLStreamException {
+        String countStr = attribute("count");
+        int count = countStr.isEmpty() ? 0 : Integer.parseInt(countStr);
+        String material = attribute("material");
+        int group = primitives.addGroup(type, material.isEmpty() ? null : material, count);
+        if (type.equals("triangles")) {
+            // Declared count until the indices are decoded
+            mesh.setTriangleCount(mesh.getTriangleCount() + count);
+        }
+
+        DAENumberScanner polygonScanner = null;
+        int[] vcounts = null;
+        int[] indices = null;
+        int polygonCount = 0;
+        int maxOffset = 0;
+        boolean indicesParsed = false;
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            // Inputs always precede <p>, so the stride is known once indices are read
+            int stride = maxOffset + 1;
+            if (name.equals("input")) {
+                String offsetStr = attribute("offset");
+                int offset = 0;
+                if (!offsetStr.isEmpty()) {
+                    offset = Integer.parseInt(offsetStr);
+                    if (offset > maxOffset) {
+                        maxOffset = offset;
+                    }
+                }
+                primitives.addInput(group, attribute("semantic"), reference(attribute("source")), offset);
+                skipElement();
+            } else if (type.equals("triangles") && name.equals("p") && !indicesParsed) {
+                indicesParsed = true;
+                DAELazyPayload payload = readLazyPayload(count * stride * 3);
+                if (payload != null) {
+                    primitives.setLazyTriangles(group, payload);
+                } else {
+                    primitives.setTriangles(group, readInts(count * stride * 3));
+                }
+            } else if (type.equals("polylist") && name.equals("vcount")) {
+                vcounts = readInts(count);
+            } else if (type.equals("polylist") && name.equals("p") && !indicesParsed) {
+                indicesParsed = true;
+                indices = readInts(count * stride * 4);
+            } else if (type.equals("polygons") && (name.equals("p") || name.equals("ph"))) {
+                // One <p> per polygon; of a polygon with holes (<ph>) only the outline is used
+                if (polygonScanner == null) {
+                    polygonScanner = DAENumberScanner.forInts(count * stride * 4);
+                    vcounts = new int[Math.max(count, 16)];
+                }
+                int start = polygonScanner.size();
+                if (name.equals("p")) {
+                    scanText(polygonScanner);
+                } else {
+                    scanOutline(polygonScanner);
+                }
+                polygonScanner.feed(" "); // Keeps the last number apart from the next polygon
+                vcounts = DAEPolygonTriangulator.addPolygon(vcounts, polygonCount++,
+                        (polygonScanner.size() - start) / stride);
+            } else {
+                skipElement();
+            }
+        }
+
+        if (polygonScanner != null) {
+            vcounts = Arrays.copyOf(vcounts, polygonCount);
+            indices = polygonScanner.toIntArray();
+            if (listener != null) {
+                listener.intsDecoded(polygonScanner.getInputLength(), indices.length);
+            }
+        }
+        if (vcounts != null && indices != null) {
+            primitives.setPolygons(group, vcounts, indices);
+        }
+    }
+
+    /**
+     * Scans the outline <p> of a <ph> element, skipping its holes.
+     */
+    private void scanOutline(DAENumberScanner scanner) throws XMLStreamException {
+        boolean outlineParsed = false;
+        while (nextChild()) {
+            if (reader.getLocalName().equals("p") && !outlineParsed) {
+                outlineParsed = true;
+                scanText(scanner);
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAESource parseSource(boolean readNames) throws XMLStreamException {
+        return parseSource(readNames, null);
+    }
+
+    /**
+     * Parses a source element.
+     *
+     * @param deferred If not null, receives the float_array text instead of decoding it
+     */
+    private DAESource parseSource(boolean readNames, Map<DAESource, String> deferred) throws XMLStreamException {
+        DAESource source = new DAESource();
+        source.setId(attribute("id"));
+        source.setName(attribute("name"));
+        boolean floatsParsed = false;
+        boolean namesParsed = false;
+        boolean accessorParsed = false;
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("float_array") && !floatsParsed) {
+                floatsParsed = true;
+                String countStr = attribute("count");
+                if (!countStr.isEmpty()) {
+                    source.setCount(Integer.parseInt(countStr));
+                }
+
+                if (deferred != null) {
+                    deferred.put(source, readText());
+                } else {
+                    DAELazyPayload payload = readLazyPayload(source.getCount());
+                    if (payload != null) {
+                        source.setLazyData(payload);
+                    } else {
+                        source.setData(readFloats(source.getCount()));
+                    }
+                }
+            } else if (name.equals("Name_array") && readNames && !namesParsed) {
+                namesParsed = true;
+                String countStr = attribute("count");
+                if (!countStr.isEmpty()) {
+                    source.setCount(Integer.parseInt(countStr));
+                }
+
+                String[] values = readText().trim().split("\\s+");
+                List<String> names = new ArrayList<>();
+                for (String value : values) {
+                    if (!value.isEmpty()) {
+                        names.add(value);
+                    }
+                }
+                source.setNames(names);
+            } else if (name.equals("technique_common")) {
+                while (nextChild()) {
+                    if (reader.getLocalName().equals("accessor") && !accessorParsed) {
+                        accessorParsed = true;
+                        String strideStr = attribute("stride");
+                        if (!strideStr.isEmpty()) {
+                            source.setStride(Integer.parseInt(strideStr));
+                        }
+                    }
+                    skipElement();
+                }
+            } else {
+                skipElement();
+            }
+        }
+
+        return source;
+    }
+
+    private void parseMaterialLibrary(DAEDocument daeDoc) throws XMLStreamException {
+        while (nextChild()) {
+            if (reader.getLocalName().equals("material")) {
+                daeDoc.addMaterial(parseMaterial());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAEMaterial parseMaterial() throws XMLStreamException {
+        DAEMaterial material = new DAEMaterial();
+        material.setId(attribute("id"));
+        material.setName(attribute("name"));
+        boolean effectParsed = false;
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("instance_effect") && !effectParsed) {
+                effectParsed = true;
+                String url = attribute("url");
+                if (url.startsWith("#")) {
+                    material.setTextureId(url.substring(1));
+                }
+            }
+            skipElement();
+        }
+
+        return material;
+    }
+
+    private void parseSceneLibrary(DAEDocument daeDoc) throws XMLStreamException {
+        while (nextChild()) {
+            if (reader.getLocalName().equals("visual_scene") && daeDoc.getScene() == null) {
+                daeDoc.setScene(parseScene());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAEScene parseScene() throws XMLStreamException {
+        DAEScene scene = new DAEScene();
+        scene.setId(attribute("id"));
+        scene.setName(attribute("name"));
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("node")) {
+                scene.addNode(parseNode());
+            } else {
+                skipElement();
+            }
+        }
+
+        return scene;
+    }
+
+    private DAENode parseNode() throws XMLStreamException {
+        DAENode node = new DAENode();
+        node.setId(attribute("id"));
+        node.setName(attribute("name"));
+
+        String type = attribute("type");
+        if (!type.isEmpty()) {
+            node.setType(type);
+        }
+
+        boolean matrixParsed = false;
+        boolean geometryParsed = false;
+        boolean controllerParsed = false;
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("matrix") && !matrixParsed) {
+                matrixParsed = true;
+                float[] transformation = DAEParser.toMatrix(readFloats(16));
+                if (transformation != null) {
+                    node.setTransformation(transformation);
+                }
+            } else if (name.equals("instance_geometry") && !geometryParsed) {
+                geometryParsed = true;
+                String url = attribute("url");
+                if (url.startsWith("#")) {
+                    node.setGeometryRef(url.substring(1));
+                }
+                skipElement();
+            } else if (name.equals("instance_controller") && !controllerParsed) {
+                controllerParsed = true;
+                String url = attribute("url");
+                if (url.startsWith("#")) {
+                    node.setControllerRef(url.substring(1));
+                }
+                while (nextChild()) {
+                    if (reader.getLocalName().equals("skeleton")) {
+                        node.addSkeletonRef(reference(readText().trim()));
+                    } else {
+                        skipElement();
+                    }
+                }
+            } else if (name.equals("node")) {
+                node.addChild(parseNode());
+            } else {
+                skipElement();
+            }
+        }
+
+        return node;
+    }
+
+    private void parseAnimationLibrary(DAEDocument daeDoc) throws XMLStreamException {
+        while (nextChild()) {
+            if (reader.getLocalName().equals("animation")) {
+                long start = startTime();
+                Object event = DAEFlightRecorder.beginAnimation();
+                DAEAnimation animation = parseAnimation();
+                DAEFlightRecorder.endAnimation(event, animation);
+                completed(DAEParseListener.Phase.ANIMATION, animation.getId(), start, animation.getChannels().size());
+                daeDoc.addAnimation(animation);
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAEAnimation parseAnimation() throws XMLStreamException {
+        DAEAnimation animation = new DAEAnimation();
+        animation.setId(attribute("id"));
+        animation.setName(attribute("name"));
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("source")) {
+                animation.addSource(parseSource(false));
+            } else if (name.equals("sampler")) {
+                animation.addSampler(parseSampler());
+            } else if (name.equals("channel")) {
+                DAEChannel channel = new DAEChannel();
+                channel.setSource(reference(attribute("source")));
+                channel.setTarget(attribute("target"));
+                animation.addChannel(channel);
+                skipElement();
+            } else {
+                // Nested animations are skipped, matching the DOM parser
+                skipElement();
+            }
+        }
+
+        return animation;
+    }
+
+    private DAESampler parseSampler() throws XMLStreamException {
+        DAESampler sampler = new DAESampler();
+        sampler.setId(attribute("id"));
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("input")) {
+                sampler.addInput(attribute("semantic"), reference(attribute("source")));
+            }
+            skipElement();
+        }
+
+        return sampler;
+    }
+
+    private void parseControllerLibrary(DAEDocument daeDoc) throws XMLStreamException {
+        while (nextChild()) {
+            if (reader.getLocalName().equals("controller")) {
+                daeDoc.addController(parseController());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private DAEController parseController() throws XMLStreamException {
+        DAEController controller = new DAEController();
+        controller.setId(attribute("id"));
+        controller.setName(attribute("name"));
+
+        while (nextChild()) {
+            if (reader.getLocalName().equals("skin") && controller.getSkin() == null) {
+                long start = startTime();
+                Object event = DAEFlightRecorder.beginSkin();
+                controller.setSkin(parseSkin());
+                DAEFlightRecorder.endSkin(event, controller.getId(), controller.getSkin());
+                completed(DAEParseListener.Phase.SKIN, controller.getId(), start,
+                        controller.getSkin().getVertexWeights().size());
+            } else {
+                skipElement();
+            }
+        }
+
+        return controller;
+    }
+
+    private DAESkin parseSkin() throws XMLStreamException {
+        DAESkin skin = new DAESkin();
+        skin.setSource(reference(attribute("source")));
+
+        String jointNamesSourceId = null;
+        String inverseBindMatricesSourceId = null;
+        boolean matrixParsed = false;
+        boolean jointsParsed = false;
+        boolean weightsParsed = false;
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("bind_shape_matrix") && !matrixParsed) {
+                matrixParsed = true;
+                float[] matrix = DAEParser.toMatrix(readFloats(16));
+                if (matrix != null) {
+                    skin.setBindShapeMatrix(matrix);
+                }
+            } else if (name.equals("source")) {
+                skin.addSource(parseSource(true));
+            } else if (name.equals("joints") && !jointsParsed) {
+                jointsParsed = true;
+                while (nextChild()) {
+                    if (reader.getLocalName().equals("input")) {
+                        String semantic = attribute("semantic");
+                        String sourceRef = reference(attribute("source"));
+                        if (semantic.equals("JOINT")) {
+                            jointNamesSourceId = sourceRef;
+                        } else if (semantic.equals("INV_BIND_MATRIX")) {
+                            inverseBindMatricesSourceId = sourceRef;
+                        }
+                    }
+                    skipElement();
+                }
+            } else if (name.equals("vertex_weights") && !weightsParsed) {
+                weightsParsed = true;
+                parseVertexWeights(skin);
+            } else {
+                skipElement();
+            }
+        }
+
+        if (jointsParsed) {
+            for (DAESource source : skin.getSources()) {
+                if (source.getId().equals(jointNamesSourceId)) {
+                    List<String> names = source.getNames();
+                    if (names != null) {
+                        skin.setJointNames(names);
+                    }
+                } else if (source.getId().equals(inverseBindMatricesSourceId)) {
+                    skin.setInverseBindMatrices(source.getDataAsArray());
+                }
+            }
+        }
+
+        return skin;
+    }
+
+    private void parseVertexWeights(DAESkin skin) throws XMLStreamException {
+        String countStr = attribute("count");
+        int vertexCount = countStr.isEmpty() ? 0 : Integer.parseInt(countStr);
+        int jointOffset = -1;
+        int weightOffset = -1;
+        String weightsSourceId = null;
+        int maxOffset = 0;
+        int[] vcounts = null;
+        int[] vValues = null;
+
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (name.equals("input")) {
+                String semantic = attribute("semantic");
+                String offsetStr = attribute("offset");
+                String sourceRef = reference(attribute("source"));
+
+                int offset = offsetStr.isEmpty() ? 0 : Integer.parseInt(offsetStr);
+                if (offset > maxOffset) {
+                    maxOffset = offset;
+                }
+
+                if (semantic.equals("JOINT")) {
+                    jointOffset = offset;
+                } else if (semantic.equals("WEIGHT")) {
+                    weightOffset = offset;
+                    weightsSourceId = sourceRef;
+                }
+                skipElement();
+            } else if (name.equals("vcount") && vcounts == null) {
+                vcounts = DAEParser.setVertexCounts(skin, readInts(vertexCount));
+            } else if (name.equals("v") && vValues == null) {
+                vValues = readInts(0);
+            } else {
+                skipElement();
+            }
+        }
+
+        for (DAESource source : skin.getSources()) {
+            if (source.getId().equals(weightsSourceId)) {
+                skin.setWeights(source.getDataAsArray());
+                break;
+            }
+        }
+
+        if (vcounts != null && vValues != null) {
+            DAEParser.setVertexWeights(skin, vcounts, vValues, maxOffset + 1, jointOffset, weightOffset);
+        }
+    }
+
+    /**
+     * Advances to the next child element of the current element.
+     *
+     * @return true if positioned on a child START_ELEMENT, false once the parent's END_ELEMENT is reached
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                elementCount++;
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips the remainder of the current element, leaving the reader on its END_ELEMENT.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                elementCount++;
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the text content of the current element, including that of any nested elements,
+     * leaving the reader on its END_ELEMENT.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                elementCount++;
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parses the text content of the current element as floats, feeding the parser's
+     * character buffer straight into the scanner.
+     */
+    private float[] readFloats(int expectedCount) throws XMLStreamException {
+        DAENumberScanner scanner = DAENumberScanner.forFloats(expectedCount);
+        scanText(scanner);
+        float[] values = scanner.toFloatArray();
+        if (listener != null) {
+            listener.floatsDecoded(scanner.getInputLength(), values.length);
+        }
+        return values;
+    }
+
+    /**
+     * Parses the text content of the current element as ints.
+     */
+    private int[] readInts(int expectedCount) throws XMLStreamException {
+        DAENumberScanner scanner = DAENumberScanner.forInts(expectedCount);
+        scanText(scanner);
+        int[] values = scanner.toIntArray();
+        if (listener != null) {
+            listener.intsDecoded(scanner.getInputLength(), values.length);
+        }
+        return values;
+    }
+
+    /**
+     * In lazy mode, reads the payload marker of the current element.
+     *
+     * @return Payload to decode later, or null if the element must be read now (not lazy,
+     *         or the prescan left the text in the XML)
+     */
+    private DAELazyPayload readLazyPayload(int expectedCount) throws XMLStreamException {
+        if (!lazy) {
+            return null;
+        }
+        String text = readText();
+        if (DAEMappedInput.isMarker(text)) {
+            return new DAELazyPayload(payloads, text, expectedCount);
+        }
+        // Let the following readFloats/readInts call use the text already consumed
+        pendingText = text;
+        return null;
+    }
+
+    private void scanText(DAENumberScanner scanner) throws XMLStreamException {
+        if (pendingText != null) {
+            scanner.feed(pendingText);
+            pendingText = null;
+            return;
+        }
+        if (payloads != null) {
+            // Mapped input: the element holds a marker for a payload, unless the
+            // prescan left it in the XML
+            String text = readText();
+            if (DAEMappedInput.isMarker(text)) {
+                payloads.decode(text, scanner);
+            } else {
+                scanner.feed(text);
+            }
+            return;
+        }
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                scanner.feed(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                elementCount++;
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the clock if a listener is set.
+     */
+    private long startTime() {
+        return listener != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reports the end of a phase started at {@link #startTime()} to the listener, if any.
+     */
+    private void completed(DAEParseListener.Phase phase, String id, long start, int count) {
+        if (listener != null) {
+            listener.phaseCompleted(phase, id, System.nanoTime() - start, count);
+        }
+    }
+
+    private String attribute(String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    private static String reference(String uri) {
+        return uri.startsWith("#") ? uri.substring(1) : uri;
+    }
+}
@@ -0,0 +1,620 @@
+package com.daeparser;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates smooth normals and tangents for meshes that have none, and adds them to the mesh as
+ * new sources and inputs, so they appear in {@link DAEMesh#getTriangulatedVertexData()},
+ * {@link DAEMesh#buildIndexedMesh()} and the other vertex outputs.
+ *
+ * <p>Normals are shared by all corners with the same VERTEX index, summed from the faces around
+ * it weighted by corner angle or by face area. Tangents follow MikkTSpace: per face UV
+ * derivatives, projected onto the plane of each corner's normal and weighted by the projected
+ * corner angle, summed per vertex (position, normal and texcoord) and UV orientation. They have
+ * 4 components, the last being the bitangent sign: {@code bitangent = w * cross(normal, tangent)}.
+ * Unlike MikkTSpace, faces around a vertex are not split into disconnected fans.</p>
+ *
+ * <p>Both run as a face pass writing per corner values and a vertex pass summing them, each split
+ * into chunks on a fork/join pool. Every chunk writes its own range of an array, so there are no
+ * locks, and the sums are added in a fixed order: the result is the same for any pool.</p>
+ *
+ * <pre>
+ * DAETangentSpaceGenerator generator = new DAETangentSpaceGenerator();
+ * generator.generateNormals(mesh);   // if the mesh has no NORMAL input
+ * generator.generateTangents(mesh);  // TEXTANGENT, if the mesh has TEXCOORD and no TEXTANGENT
+ * </pre>
+ */
+public class DAETangentSpaceGenerator {
+
+    /** Triangles or vertices per task unless set otherwise. */
+    public static final int DEFAULT_CHUNK_SIZE = 16384;
+
+    /**
+     * How face normals are weighted when they are summed per vertex.
+     */
+    public enum NormalWeighting {
+        /** By face area: large faces dominate. */
+        AREA,
+        /** By the angle of the face at the vertex: independent of how faces are triangulated. */
+        ANGLE
+    }
+
+    private NormalWeighting normalWeighting;
+    private ForkJoinPool pool;
+    private int chunkSize;
+
+    /**
+     * Creates a generator with angle weighted normals, running on the common pool.
+     */
+    public DAETangentSpaceGenerator() {
+        this.normalWeighting = NormalWeighting.ANGLE;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+    }
+
+    public NormalWeighting getNormalWeighting() {
+        return normalWeighting;
+    }
+
+    public void setNormalWeighting(NormalWeighting normalWeighting) {
+        this.normalWeighting = normalWeighting;
+    }
+
+    /**
+     * Gets the pool the passes run on.
+     *
+     * @return Pool, or null for the common pool
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the number of triangles or vertices a task handles without splitting further.
+     *
+     * @param chunkSize Chunk size, at least 1
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Generates smooth normals, one per VERTEX index, and adds them as the NORMAL input.
+     * The index data is unchanged: the input uses the VERTEX offset.
+     *
+     * @param mesh Mesh to add normals to
+     * @return true if normals were added; false if the mesh already has normals or no positions
+     */
+    public boolean generateNormals(DAEMesh mesh) {
+        DAEMeshLayout layout = mesh.getLayout();
+        DAEMeshLayout.Attribute position = layout.getAttribute("VERTEX");
+        if (layout.hasAttribute("NORMAL") || position == null || position.getComponentCount() < 3) {
+            return false;
+        }
+        final int[] indices = mesh.getIndices();
+        final int stride = mesh.getIndexStride();
+        final int offset = position.getOffset();
+        final float[] positions = position.getSource().getDataArrayUnsafe();
+        final int positionStride = position.getComponentCount();
+        final int vertexCount = positions.length / positionStride;
+        final int cornerCount = stride == 0 ? 0 : indices.length / stride;
+        final boolean angleWeighted = normalWeighting == NormalWeighting.ANGLE;
+
+        // Face pass: the weighted face normal at each corner
+        final float[] cornerNormals = new float[cornerCount * 3];
+        run(cornerCount / 3, (from, to) -> {
+            int[] vertices = new int[3];
+            for (int t = from; t < to; t++) {
+                if (!readTriangle(indices, stride, offset, t, vertexCount, vertices)) {
+                    continue;
+                }
+                addFaceNormal(positions, positionStride, vertices, angleWeighted, cornerNormals, t * 9);
+            }
+        });
+
+        // Vertex pass: sum the corners of each vertex in corner order
+        final int[][] cornerLists = groupCorners(indices, stride, offset, cornerCount, vertexCount);
+        final float[] normals = new float[vertexCount * 3];
+        run(vertexCount, (from, to) -> {
+            int[] starts = cornerLists[0];
+            int[] corners = cornerLists[1];
+            for (int v = from; v < to; v++) {
+                double x = 0;
+                double y = 0;
+                double z = 0;
+                for (int k = starts[v]; k < starts[v + 1]; k++) {
+                    int corner = corners[k];
+                    x += cornerNormals[corner * 3];
+                    y += cornerNormals[corner * 3 + 1];
+                    z += cornerNormals[corner * 3 + 2];
+                }
+                double length = Math.sqrt(x * x + y * y + z * z);
+                if (length > 0) {
+                    normals[v * 3] = (float) (x / length);
+                    normals[v * 3 + 1] = (float) (y / length);
+                    normals[v * 3 + 2] = (float) (z / length);
+                }
+            }
+        });
+
+        String id = getGeneratedId(mesh, "normals");
+        DAESource source = new DAESource(id, "Generated normals");
+        source.setData(normals);
+        source.setStride(3);
+        source.setCount(vertexCount);
+        mesh.addSource(source);
+        mesh.addInputSemantic("NORMAL", id);
+        mesh.addInputOffset("NORMAL", offset);
+        addGroupInput(mesh, "NORMAL", id, "VERTEX");
+        return true;
+    }
+
+    /**
+     * Generates tangents and adds them as the TEXTANGENT input, generating normals first if
+     * the mesh has none. Tangents are shared by the corners with the same position, normal and
+     * texcoord indices and UV orientation, so the index data gets one more index per corner.
+     *
+     * @param mesh Mesh to add tangents to
+     * @return true if tangents were added; false if the mesh already has tangents, or has no
+     * positions or texcoords
+     */
+    public boolean generateTangents(DAEMesh mesh) {
+        DAEMeshLayout layout = mesh.getLayout();
+        if (layout.hasAttribute("TEXTANGENT") || !layout.hasAttribute("TEXCOORD")) {
+            return false;
+        }
+        if (!layout.hasAttribute("NORMAL")) {
+            if (!generateNormals(mesh)) {
+                return false;
+            }
+            layout = mesh.getLayout();
+        }
+        DAEMeshLayout.Attribute position = layout.getAttribute("VERTEX");
+        DAEMeshLayout.Attribute normal = layout.getAttribute("NORMAL");
+        DAEMeshLayout.Attribute texcoord = layout.getAttribute("TEXCOORD");
+        if (position == null || position.getComponentCount() < 3 || normal.getComponentCount() < 3
+                || texcoord.getComponentCount() < 2) {
+            return false;
+        }
+
+        final int[] indices = mesh.getIndices();
+        final int stride = mesh.getIndexStride();
+        final int cornerCount = indices.length / stride;
+        final TangentFaces faces = new TangentFaces(indices, stride, position, normal, texcoord);
+
+        // Vertices as deduplicated by the vertex outputs, doubled for the two UV orientations
+        DAEVertexIndexer indexer = DAEVertexIndexer.index(indices, stride, cornerCount,
+                new int[] {position.getOffset(), normal.getOffset(), texcoord.getOffset()});
+        final int[] remap = indexer.getRemap();
+        final int keyCount = indexer.getVertexCount() * 2;
+
+        // Face pass: the angle weighted tangent and the tangent vertex of each corner
+        final float[] cornerTangents = new float[cornerCount * 3];
+        final int[] cornerKeys = new int[cornerCount];
+        run(cornerCount / 3, (from, to) -> {
+            for (int t = from; t < to; t++) {
+                faces.addTriangle(t, remap, cornerTangents, cornerKeys);
+            }
+        });
+
+        // Number the tangent vertices that are used, in corner order
+        final int[] tangentIds = new int[keyCount];
+        Arrays.fill(tangentIds, -1);
+        int tangentCount = 0;
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int key = cornerKeys[corner];
+            if (tangentIds[key] < 0) {
+                tangentIds[key] = tangentCount++;
+            }
+        }
+        final int[] cornerTangentIds = new int[cornerCount];
+        for (int corner = 0; corner < cornerCount; corner++) {
+            cornerTangentIds[corner] = tangentIds[cornerKeys[corner]];
+        }
+
+        // Vertex pass: sum, orthonormalize and sign each tangent
+        final int[][] cornerLists = groupCorners(cornerTangentIds, 1, 0, cornerCount, tangentCount);
+        final float[] tangents = new float[tangentCount * 4];
+        run(tangentCount, (from, to) -> {
+            int[] starts = cornerLists[0];
+            int[] corners = cornerLists[1];
+            for (int v = from; v < to; v++) {
+                faces.sumTangent(corners, starts[v], starts[v + 1], cornerTangents, cornerKeys, tangents, v * 4);
+            }
+        });
+
+        // One more index per corner for the tangent
+        final int[] extended = new int[cornerCount * (stride + 1)];
+        run(cornerCount, (from, to) -> {
+            for (int corner = from; corner < to; corner++) {
+                System.arraycopy(indices, corner * stride, extended, corner * (stride + 1), stride);
+                extended[corner * (stride + 1) + stride] = cornerTangentIds[corner];
+            }
+        });
+
+        String id = getGeneratedId(mesh, "tangents");
+        DAESource source = new DAESource(id, "Generated tangents");
+        source.setData(tangents);
+        source.setStride(4);
+        source.setCount(tangentCount);
+        mesh.addSource(source);
+        mesh.setIndices(extended, stride + 1);
+        mesh.addInputSemantic("TEXTANGENT", id);
+        mesh.addInputOffset("TEXTANGENT", stride);
+        addGroupInput(mesh, "TEXTANGENT", id, null);
+        return true;
+    }
+
+    /**
+     * Adds a generated input to every primitive group, so the groups keep describing their
+     * corner layout (the binary format and simplified meshes copy it).
+     *
+     * @param sharedSemantic Input whose offset the new one uses, or null for a new index at the
+     *                       end of each corner
+     */
+    private static void addGroupInput(DAEMesh mesh, String semantic, String sourceId, String sharedSemantic) {
+        for (DAEPrimitiveGroup group : mesh.getPrimitiveGroups()) {
+            Integer offset;
+            if (sharedSemantic != null) {
+                offset = group.getInputOffsets().get(sharedSemantic);
+                if (offset == null) {
+                    continue;
+                }
+            } else {
+                offset = group.getIndexStride();
+                group.setIndexStride(offset + 1);
+            }
+            group.addInputSemantic(semantic, sourceId);
+            group.addInputOffset(semantic, offset);
+        }
+    }
+
+    private static String getGeneratedId(DAEMesh mesh, String suffix) {
+        return (mesh.getVerticesId() != null ? mesh.getVerticesId() : "mesh") + "-" + suffix + "-generated";
+    }
+
+    /**
+     * Reads the VERTEX indices of a triangle.
+     *
+     * @return false if a corner refers to a position that does not exist
+     */
+    private static boolean readTriangle(int[] indices, int stride, int offset, int triangle, int vertexCount,
+                                        int[] vertices) {
+        for (int c = 0; c < 3; c++) {
+            int vertex = indices[(triangle * 3 + c) * stride + offset];
+            if (vertex < 0 || vertex >= vertexCount) {
+                return false;
+            }
+            vertices[c] = vertex;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the weighted normal of a triangle for each of its corners.
+     */
+    private static void addFaceNormal(float[] positions, int stride, int[] vertices, boolean angleWeighted,
+                                      float[] output, int start) {
+        int a = vertices[0] * stride;
+        int b = vertices[1] * stride;
+        int c = vertices[2] * stride;
+        double ex = positions[b] - positions[a];
+        double ey = positions[b + 1] - positions[a + 1];
+        double ez = positions[b + 2] - positions[a + 2];
+        double fx = positions[c] - positions[a];
+        double fy = positions[c + 1] - positions[a + 1];
+        double fz = positions[c + 2] - positions[a + 2];
+        double nx = ey * fz - ez * fy;
+        double ny = ez * fx - ex * fz;
+        double nz = ex * fy - ey * fx;
+        if (!angleWeighted) {
+            // The cross product is twice the area
+            for (int k = 0; k < 3; k++) {
+                output[start + k * 3] = (float) nx;
+                output[start + k * 3 + 1] = (float) ny;
+                output[start + k * 3 + 2] = (float) nz;
+            }
+            return;
+        }
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0) {
+            return;
+        }
+        for (int k = 0; k < 3; k++) {
+            int p = vertices[k] * stride;
+            int q = vertices[(k + 1) % 3] * stride;
+            int r = vertices[(k + 2) % 3] * stride;
+            double angle = angle(positions[q] - positions[p], positions[q + 1] - positions[p + 1],
+                    positions[q + 2] - positions[p + 2], positions[r] - positions[p],
+                    positions[r + 1] - positions[p + 1], positions[r + 2] - positions[p + 2]);
+            output[start + k * 3] = (float) (nx / length * angle);
+            output[start + k * 3 + 1] = (float) (ny / length * angle);
+            output[start + k * 3 + 2] = (float) (nz / length * angle);
+        }
+    }
+
+    private static double angle(double ax, double ay, double az, double bx, double by, double bz) {
+        double lengths = Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+        if (lengths == 0) {
+            return 0;
+        }
+        double cos = (ax * bx + ay * by + az * bz) / lengths;
+        return acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    /**
+     * Arc cosine within 2e-8 (Abramowitz and Stegun 4.4.46), several times faster than
+     * {@link Math#acos(double)}, which is not intrinsified and dominated the face passes.
+     */
+    static double acos(double x) {
+        double a = Math.abs(x);
+        double p = -0.0012624911;
+        p = p * a + 0.0066700901;
+        p = p * a - 0.0170881256;
+        p = p * a + 0.0308918810;
+        p = p * a - 0.0501743046;
+        p = p * a + 0.0889789874;
+        p = p * a - 0.2145988016;
+        p = p * a + 1.5707963050;
+        double result = Math.sqrt(1 - a) * p;
+        return x < 0 ? Math.PI - result : result;
+    }
+
+    /**
+     * Groups corners by the index at an offset with a counting sort, keeping corner order.
+     * Corners with an index outside [0, count) are left out.
+     *
+     * @return List starts (count + 1 entries) and the grouped corners
+     */
+    private static int[][] groupCorners(int[] indices, int stride, int offset, int cornerCount, int count) {
+        int[] starts = new int[count + 1];
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int index = indices[corner * stride + offset];
+            if (index >= 0 && index < count) {
+                starts[index + 1]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            starts[i + 1] += starts[i];
+        }
+        int[] next = Arrays.copyOf(starts, count);
+        int[] corners = new int[starts[count]];
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int index = indices[corner * stride + offset];
+            if (index >= 0 && index < count) {
+                corners[next[index]++] = corner;
+            }
+        }
+        return new int[][] {starts, corners};
+    }
+
+    private void run(int count, RangeAction action) {
+        if (count <= chunkSize) {
+            action.run(0, count);
+            return;
+        }
+        ForkJoinPool target = pool != null ? pool : ForkJoinPool.commonPool();
+        target.invoke(new RangeTask(action, 0, count, chunkSize));
+    }
+
+    /**
+     * Work on a range of triangles or vertices.
+     */
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits a range in halves down to the chunk size.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeTask(RangeAction action, int from, int to, int chunkSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                action.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle, chunkSize), new RangeTask(action, middle, to, chunkSize));
+        }
+    }
+
+    /**
+     * Per face and per vertex tangent math, reading the mesh's positions, normals and texcoords.
+     */
+    private static final class TangentFaces {
+        private final int[] indices;
+        private final int stride;
+        private final int positionOffset;
+        private final int normalOffset;
+        private final int texcoordOffset;
+        private final float[] positions;
+        private final float[] normals;
+        private final float[] texcoords;
+        private final int positionStride;
+        private final int normalStride;
+        private final int texcoordStride;
+
+        TangentFaces(int[] indices, int stride, DAEMeshLayout.Attribute position, DAEMeshLayout.Attribute normal,
+                     DAEMeshLayout.Attribute texcoord) {
+            this.indices = indices;
+            this.stride = stride;
+            this.positionOffset = position.getOffset();
+            this.normalOffset = normal.getOffset();
+            this.texcoordOffset = texcoord.getOffset();
+            this.positions = position.getSource().getDataArrayUnsafe();
+            this.normals = normal.getSource().getDataArrayUnsafe();
+            this.texcoords = texcoord.getSource().getDataArrayUnsafe();
+            this.positionStride = position.getComponentCount();
+            this.normalStride = normal.getComponentCount();
+            this.texcoordStride = texcoord.getComponentCount();
+        }
+
+        /**
+         * Gets the start of an element in a source, or -1 if the corner's index is out of range.
+         */
+        private int element(int corner, int offset, int elementStride, int components, float[] data) {
+            int index = indices[corner * stride + offset];
+            long start = (long) index * elementStride;
+            return index < 0 || start + components > data.length ? -1 : (int) start;
+        }
+
+        /**
+         * Writes the tangent contribution and tangent vertex key of each corner of a triangle.
+         * Faces with degenerate UVs contribute nothing but still get a key, as orientation preserving.
+         */
+        void addTriangle(int triangle, int[] remap, float[] cornerTangents, int[] cornerKeys) {
+            int first = triangle * 3;
+            int[] p = new int[3];
+            int[] uv = new int[3];
+            boolean valid = true;
+            for (int c = 0; c < 3; c++) {
+                p[c] = element(first + c, positionOffset, positionStride, 3, positions);
+                uv[c] = element(first + c, texcoordOffset, texcoordStride, 2, texcoords);
+                valid &= p[c] >= 0 && uv[c] >= 0;
+            }
+            double sx = 0;
+            double sy = 0;
+            double sz = 0;
+            boolean preserving = true;
+            if (valid) {
+                double d1x = positions[p[1]] - positions[p[0]];
+                double d1y = positions[p[1] + 1] - positions[p[0] + 1];
+                double d1z = positions[p[1] + 2] - positions[p[0] + 2];
+                double d2x = positions[p[2]] - positions[p[0]];
+                double d2y = positions[p[2] + 1] - positions[p[0] + 1];
+                double d2z = positions[p[2] + 2] - positions[p[0] + 2];
+                double t21x = texcoords[uv[1]] - texcoords[uv[0]];
+                double t21y = texcoords[uv[1] + 1] - texcoords[uv[0] + 1];
+                double t31x = texcoords[uv[2]] - texcoords[uv[0]];
+                double t31y = texcoords[uv[2] + 1] - texcoords[uv[0] + 1];
+                double signedArea = t21x * t31y - t21y * t31x;
+                preserving = signedArea >= 0;
+                if (signedArea != 0) {
+                    double sign = preserving ? 1 : -1;
+                    sx = sign * (t31y * d1x - t21y * d2x);
+                    sy = sign * (t31y * d1y - t21y * d2y);
+                    sz = sign * (t31y * d1z - t21y * d2z);
+                }
+            }
+
+            for (int c = 0; c < 3; c++) {
+                int corner = first + c;
+                cornerKeys[corner] = remap[corner] * 2 + (preserving ? 0 : 1);
+                int n = element(corner, normalOffset, normalStride, 3, normals);
+                if (!valid || n < 0 || (sx == 0 && sy == 0 && sz == 0)) {
+                    continue;
+                }
+                double nx = normals[n];
+                double ny = normals[n + 1];
+                double nz = normals[n + 2];
+                double nLength = Math.sqrt(nx * nx + ny * ny + nz * nz);
+                if (nLength == 0) {
+                    continue;
+                }
+                nx /= nLength;
+                ny /= nLength;
+                nz /= nLength;
+
+                // Tangent and the corner's edges projected onto the normal plane
+                double dot = sx * nx + sy * ny + sz * nz;
+                double tx = sx - nx * dot;
+                double ty = sy - ny * dot;
+                double tz = sz - nz * dot;
+                double tLength = Math.sqrt(tx * tx + ty * ty + tz * tz);
+                if (tLength == 0) {
+                    continue;
+                }
+                int q = p[(c + 1) % 3];
+                int r = p[(c + 2) % 3];
+                double ax = positions[q] - positions[p[c]];
+                double ay = positions[q + 1] - positions[p[c] + 1];
+                double az = positions[q + 2] - positions[p[c] + 2];
+                double bx = positions[r] - positions[p[c]];
+                double by = positions[r + 1] - positions[p[c] + 1];
+                double bz = positions[r + 2] - positions[p[c] + 2];
+                double aDot = ax * nx + ay * ny + az * nz;
+                double bDot = bx * nx + by * ny + bz * nz;
+                double angle = angle(ax - nx * aDot, ay - ny * aDot, az - nz * aDot,
+                        bx - nx * bDot, by - ny * bDot, bz - nz * bDot);
+                cornerTangents[corner * 3] = (float) (tx / tLength * angle);
+                cornerTangents[corner * 3 + 1] = (float) (ty / tLength * angle);
+                cornerTangents[corner * 3 + 2] = (float) (tz / tLength * angle);
+            }
+        }
+
+        /**
+         * Sums the corner tangents of one tangent vertex and writes it normalized with its sign.
+         * A vertex without any usable face gets an arbitrary tangent perpendicular to its normal.
+         */
+        void sumTangent(int[] corners, int from, int to, float[] cornerTangents, int[] cornerKeys,
+                        float[] output, int start) {
+            double x = 0;
+            double y = 0;
+            double z = 0;
+            for (int k = from; k < to; k++) {
+                int corner = corners[k];
+                x += cornerTangents[corner * 3];
+                y += cornerTangents[corner * 3 + 1];
+                z += cornerTangents[corner * 3 + 2];
+            }
+            int corner = corners[from];
+            double length = Math.sqrt(x * x + y * y + z * z);
+            if (length == 0) {
+                int n = element(corner, normalOffset, normalStride, 3, normals);
+                double nx = n >= 0 ? normals[n] : 0;
+                double ny = n >= 0 ? normals[n + 1] : 0;
+                double nz = n >= 0 ? normals[n + 2] : 1;
+                // Cross the normal with the axis it is least aligned with
+                if (Math.abs(nx) <= Math.abs(ny) && Math.abs(nx) <= Math.abs(nz)) {
+                    x = 0;
+                    y = nz;
+                    z = -ny;
+                } else if (Math.abs(ny) <= Math.abs(nz)) {
+                    x = -nz;
+                    y = 0;
+                    z = nx;
+                } else {
+                    x = ny;
+                    y = -nx;
+                    z = 0;
+                }
+                length = Math.sqrt(x * x + y * y + z * z);
+                if (length == 0) {
+                    x = 1;
+                    length = 1;
+                }
+            }
+            output[start] = (float) (x / length);
+            output[start + 1] = (float) (y / length);
+            output[start + 2] = (float) (z / length);
+            output[start + 3] = (cornerKeys[corner] & 1) == 0 ? 1f : -1f;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.daeparser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs interleaved float vertex data into the encodings of a {@link DAEVertexFormat}, and
+ * unpacks it again for {@link DAEEncodedVertices#decode()}.
+ */
+final class DAEVertexEncoder {
+
+    private DAEVertexEncoder() {
+    }
+
+    /**
+     * Encodes interleaved vertex data.
+     *
+     * @param data       Interleaved floats, the components of all attributes for each vertex
+     * @param attributes Attributes of the data, in vertex order
+     * @param format     Encodings
+     * @return Packed vertices
+     * @throws IllegalArgumentException if the data does not hold whole vertices, or an
+     *                                  octahedral encoding is set for an attribute without 3 or 4 components
+     */
+    static DAEEncodedVertices encode(float[] data, DAEMeshLayout.Attribute[] attributes, DAEVertexFormat format) {
+        int floatStride = 0;
+        for (DAEMeshLayout.Attribute attribute : attributes) {
+            floatStride += attribute.getComponentCount();
+        }
+        if (floatStride == 0 || data.length % floatStride != 0) {
+            throw new IllegalArgumentException("Vertex data length " + data.length
+                    + " is not a multiple of the vertex stride " + floatStride);
+        }
+        int vertexCount = data.length / floatStride;
+
+        List<DAEEncodedVertices.Attribute> encoded = new ArrayList<>(attributes.length);
+        int byteOffset = 0;
+        int floatOffset = 0;
+        for (DAEMeshLayout.Attribute attribute : attributes) {
+            DAEVertexFormat.Encoding encoding = format.getEncoding(attribute.getSemantic());
+            int components = attribute.getComponentCount();
+            if (encoding.isOctahedral() && (components < 3 || components > 4)) {
+                throw new IllegalArgumentException(attribute.getSemantic() + " has " + components
+                        + " components; " + encoding + " needs 3, or 4 with a sign in w");
+            }
+            float[] scale = null;
+            float[] bias = null;
+            if (encoding.isQuantized()) {
+                scale = new float[components];
+                bias = new float[components];
+                getBounds(data, floatStride, floatOffset, components, scale, bias);
+            }
+            DAEEncodedVertices.Attribute result = new DAEEncodedVertices.Attribute(
+                    attribute.getSemantic(), encoding, byteOffset, components, scale, bias);
+            encoded.add(result);
+            byteOffset = align(byteOffset + result.getSize());
+            floatOffset += components;
+        }
+        int vertexSize = byteOffset;
+
+        if ((long) vertexCount * vertexSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices: " + vertexCount);
+        }
+        ByteBuffer output = ByteBuffer.allocateDirect(vertexCount * vertexSize).order(ByteOrder.nativeOrder());
+        floatOffset = 0;
+        for (DAEEncodedVertices.Attribute attribute : encoded) {
+            encodeAttribute(data, floatStride, floatOffset, vertexCount, attribute, output, vertexSize);
+            floatOffset += attribute.getSourceComponentCount();
+        }
+        return new DAEEncodedVertices(output, vertexCount, vertexSize, encoded);
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    /**
+     * Computes the bounding box of an attribute as bias (minimum) and scale (size) per component.
+     * NaN values are ignored; an attribute without finite values gets a zero box.
+     */
+    private static void getBounds(float[] data, int stride, int offset, int components, float[] scale, float[] bias) {
+        for (int c = 0; c < components; c++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = offset + c; i < data.length; i += stride) {
+                float value = data[i];
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+            if (min > max || Float.isInfinite(max - min)) {
+                min = 0f;
+                max = 0f;
+            }
+            bias[c] = min;
+            scale[c] = max - min;
+        }
+    }
+
+    private static void encodeAttribute(float[] data, int floatStride, int floatOffset, int vertexCount,
+                                        DAEEncodedVertices.Attribute attribute, ByteBuffer output, int vertexSize) {
+        DAEVertexFormat.Encoding encoding = attribute.getEncoding();
+        int components = attribute.getSourceComponentCount();
+        float[] scale = attribute.getScale();
+        float[] bias = attribute.getBias();
+        int src = floatOffset;
+        int dst = attribute.getByteOffset();
+        for (int v = 0; v < vertexCount; v++, src += floatStride, dst += vertexSize) {
+            switch (encoding) {
+                case FLOAT32:
+                    for (int c = 0; c < components; c++) {
+                        output.putFloat(dst + c * 4, data[src + c]);
+                    }
+                    break;
+                case FLOAT16:
+                    for (int c = 0; c < components; c++) {
+                        output.putShort(dst + c * 2, toHalf(data[src + c]));
+                    }
+                    break;
+                case SNORM8:
+                    for (int c = 0; c < components; c++) {
+                        output.put(dst + c, (byte) snorm(data[src + c], 127));
+                    }
+                    break;
+                case SNORM16:
+                    for (int c = 0; c < components; c++) {
+                        output.putShort(dst + c * 2, (short) snorm(data[src + c], 32767));
+                    }
+                    break;
+                case UNORM8:
+                    for (int c = 0; c < components; c++) {
+                        output.put(dst + c, (byte) unorm(data[src + c], 255));
+                    }
+                    break;
+                case UNORM16:
+                    for (int c = 0; c < components; c++) {
+                        output.putShort(dst + c * 2, (short) unorm(data[src + c], 65535));
+                    }
+                    break;
+                case QUANTIZED8:
+                    for (int c = 0; c < components; c++) {
+                        output.put(dst + c, (byte) unorm(normalize(data[src + c], bias[c], scale[c]), 255));
+                    }
+                    break;
+                case QUANTIZED16:
+                    for (int c = 0; c < components; c++) {
+                        output.putShort(dst + c * 2, (short) unorm(normalize(data[src + c], bias[c], scale[c]), 65535));
+                    }
+                    break;
+                case OCTAHEDRAL8:
+                case OCTAHEDRAL16:
+                    encodeOctahedral(data[src], data[src + 1], data[src + 2], encoding, output, dst);
+                    if (components == 4) {
+                        float sign = signNotZero(data[src + 3]);
+                        if (encoding == DAEVertexFormat.Encoding.OCTAHEDRAL8) {
+                            output.put(dst + 2, (byte) snorm(sign, 127));
+                        } else {
+                            output.putShort(dst + 4, (short) snorm(sign, 32767));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown encoding: " + encoding);
+            }
+        }
+    }
+
+    /**
+     * Folds a direction onto the octahedron |x| + |y| + |z| = 1 and its lower half onto the
+     * upper half, giving 2 coordinates in [-1, 1]. A zero vector is stored as (0, 0).
+     */
+    private static void encodeOctahedral(float x, float y, float z, DAEVertexFormat.Encoding encoding,
+                                         ByteBuffer output, int dst) {
+        float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        float u = 0f;
+        float v = 0f;
+        if (sum > 0f) {
+            u = x / sum;
+            v = y / sum;
+            if (z < 0f) {
+                float foldedU = (1f - Math.abs(v)) * signNotZero(u);
+                v = (1f - Math.abs(u)) * signNotZero(v);
+                u = foldedU;
+            }
+        }
+        if (encoding == DAEVertexFormat.Encoding.OCTAHEDRAL8) {
+            output.put(dst, (byte) snorm(u, 127));
+            output.put(dst + 1, (byte) snorm(v, 127));
+        } else {
+            output.putShort(dst, (short) snorm(u, 32767));
+            output.putShort(dst + 2, (short) snorm(v, 32767));
+        }
+    }
+
+    private static float signNotZero(float value) {
+        return value >= 0f ? 1f : -1f;
+    }
+
+    private static float normalize(float value, float bias, float scale) {
+        return scale > 0f ? (value - bias) / scale : 0f;
+    }
+
+    private static int snorm(float value, int max) {
+        if (!(value > -1f)) {
+            return value != value ? 0 : -max;
+        }
+        return value >= 1f ? max : Math.round(value * max);
+    }
+
+    private static int unorm(float value, int max) {
+        if (!(value > 0f)) {
+            return 0;
+        }
+        return value >= 1f ? max : Math.round(value * max);
+    }
+
+    /**
+     * Converts a float to the bits of the nearest half float, rounding ties to even.
+     * Values beyond the half range become infinity; NaN stays NaN.
+     */
+    static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+        if (exponent == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (halfExponent <= 0) {
+            // Subnormal half: 2^-24 units
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            int shift = 14 - halfExponent;
+            int half = mantissa >> shift;
+            int rest = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rest > halfway || (rest == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (halfExponent << 10) | (mantissa >> 13);
+        int rest = mantissa & 0x1FFF;
+        if (rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0)) {
+            // A carry into the exponent is correct, up to infinity
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    /**
+     * Converts the bits of a half float to a float.
+     */
+    static float toFloat(short half) {
+        int bits = half & 0xFFFF;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            float value = mantissa * 0x1p-24f;
+            return sign != 0 ? -value : value;
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Decodes packed vertices back to interleaved floats.
+     */
+    static float[] decode(DAEEncodedVertices vertices) {
+        int floatStride = 0;
+        for (DAEEncodedVertices.Attribute attribute : vertices.getAttributes()) {
+            floatStride += attribute.getSourceComponentCount();
+        }
+        ByteBuffer data = vertices.getData();
+        int vertexSize = vertices.getVertexSize();
+        float[] output = new float[vertices.getVertexCount() * floatStride];
+        float[] values = new float[4];
+        int dst = 0;
+        for (int v = 0; v < vertices.getVertexCount(); v++) {
+            for (DAEEncodedVertices.Attribute attribute : vertices.getAttributes()) {
+                int src = v * vertexSize + attribute.getByteOffset();
+                DAEVertexFormat.Encoding encoding = attribute.getEncoding();
+                int components = attribute.getComponentCount();
+                if (values.length < components) {
+                    values = new float[components];
+                }
+                for (int c = 0; c < components; c++) {
+                    values[c] = readComponent(data, src + c * encoding.getComponentSize(), encoding);
+                }
+                if (encoding.isOctahedral()) {
+                    dst = decodeOctahedral(values[0], values[1], output, dst);
+                    if (components == 3) {
+                        output[dst++] = signNotZero(values[2]);
+                    }
+                } else if (encoding.isQuantized()) {
+                    for (int c = 0; c < components; c++) {
+                        output[dst++] = attribute.getBias()[c] + attribute.getScale()[c] * values[c];
+                    }
+                } else {
+                    System.arraycopy(values, 0, output, dst, components);
+                    dst += components;
+                }
+            }
+        }
+        return output;
+    }
+
+    private static float readComponent(ByteBuffer data, int index, DAEVertexFormat.Encoding encoding) {
+        switch (encoding) {
+            case FLOAT32:
+                return data.getFloat(index);
+            case FLOAT16:
+                return toFloat(data.getShort(index));
+            case SNORM8:
+            case OCTAHEDRAL8:
+                return Math.max(data.get(index) / 127f, -1f);
+            case SNORM16:
+            case OCTAHEDRAL16:
+                return Math.max(data.getShort(index) / 32767f, -1f);
+            case UNORM8:
+            case QUANTIZED8:
+                return (data.get(index) & 0xFF) / 255f;
+            case UNORM16:
+            case QUANTIZED16:
+                return (data.getShort(index) & 0xFFFF) / 65535f;
+            default:
+                throw new IllegalStateException("Unknown encoding: " + encoding);
+        }
+    }
+
+    private static int decodeOctahedral(float u, float v, float[] output, int dst) {
+        float x = u;
+        float y = v;
+        float z = 1f - Math.abs(u) - Math.abs(v);
+        if (z < 0f) {
+            x = (1f - Math.abs(v)) * signNotZero(u);
+            y = (1f - Math.abs(u)) * signNotZero(v);
+        }
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        output[dst] = x / length;
+        output[dst + 1] = y / length;
+        output[dst + 2] = z / length;
+        return dst + 3;
+    }
+}
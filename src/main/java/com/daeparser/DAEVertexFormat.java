@@ -0,0 +1,164 @@
+package com.daeparser;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes how each vertex attribute is stored in a packed vertex buffer written by
+ * {@link DAEMesh#encodeVertexData(float[], DAEVertexFormat)}. Attributes without an encoding
+ * are stored as 32-bit floats, as in {@link DAEMesh#getTriangulatedVertexData()}.
+ *
+ * <pre>
+ * DAEVertexFormat format = new DAEVertexFormat();
+ * format.setEncoding("VERTEX", DAEVertexFormat.Encoding.QUANTIZED16);
+ * format.setEncoding("NORMAL", DAEVertexFormat.Encoding.OCTAHEDRAL16);
+ * format.setEncoding("TEXCOORD", DAEVertexFormat.Encoding.FLOAT16);
+ * </pre>
+ */
+public class DAEVertexFormat {
+
+    /**
+     * Storage of one attribute. Normalized encodings are read by the GPU as floats in [0, 1]
+     * (unsigned) or [-1, 1] (signed), e.g. GL_UNSIGNED_SHORT with normalized = true.
+     */
+    public enum Encoding {
+        /** 32-bit float per component. */
+        FLOAT32(4, false, true),
+        /** IEEE 754 half float per component; about 3 significant digits, range +-65504. */
+        FLOAT16(2, false, true),
+        /** Signed normalized byte per component; values are clamped to [-1, 1]. */
+        SNORM8(1, true, true),
+        /** Signed normalized short per component; values are clamped to [-1, 1]. */
+        SNORM16(2, true, true),
+        /** Unsigned normalized byte per component; values are clamped to [0, 1]. */
+        UNORM8(1, true, false),
+        /** Unsigned normalized short per component; values are clamped to [0, 1]. */
+        UNORM16(2, true, false),
+        /**
+         * Unit vector folded onto an octahedron: 2 signed normalized bytes. A 4-component
+         * attribute (e.g. a TEXTANGENT with the bitangent sign in w) stores the sign of w as a
+         * third component, -1 or 1.
+         */
+        OCTAHEDRAL8(1, true, true),
+        /** Like {@link #OCTAHEDRAL8} with signed normalized shorts. */
+        OCTAHEDRAL16(2, true, true),
+        /** Unsigned normalized byte per component relative to the attribute's bounding box. */
+        QUANTIZED8(1, true, false),
+        /** Unsigned normalized short per component relative to the attribute's bounding box. */
+        QUANTIZED16(2, true, false);
+
+        private final int componentSize;
+        private final boolean normalized;
+        private final boolean signed;
+
+        Encoding(int componentSize, boolean normalized, boolean signed) {
+            this.componentSize = componentSize;
+            this.normalized = normalized;
+            this.signed = signed;
+        }
+
+        /**
+         * Gets the size of one stored component in bytes.
+         */
+        public int getComponentSize() {
+            return componentSize;
+        }
+
+        /**
+         * Checks whether the stored integers are read as normalized floats.
+         */
+        public boolean isNormalized() {
+            return normalized;
+        }
+
+        public boolean isSigned() {
+            return signed;
+        }
+
+        public boolean isOctahedral() {
+            return this == OCTAHEDRAL8 || this == OCTAHEDRAL16;
+        }
+
+        /**
+         * Checks whether values are stored relative to a bounding box and need
+         * {@link DAEEncodedVertices.Attribute#getScale()} and {@link DAEEncodedVertices.Attribute#getBias()}.
+         */
+        public boolean isQuantized() {
+            return this == QUANTIZED8 || this == QUANTIZED16;
+        }
+
+        /**
+         * Gets the number of stored components for an attribute.
+         *
+         * @param sourceComponents Number of float components of the attribute
+         * @return 2 for octahedral encodings (3 with the sign of a fourth component), otherwise
+         *         sourceComponents
+         */
+        public int getComponentCount(int sourceComponents) {
+            if (isOctahedral()) {
+                return sourceComponents > 3 ? 3 : 2;
+            }
+            return sourceComponents;
+        }
+    }
+
+    private final Map<String, Encoding> encodings = new LinkedHashMap<>();
+
+    /**
+     * Creates a format storing compact positions, normals and texcoords: positions quantized to
+     * 16 bits within the mesh bounds, octahedral 16-bit normals and half float texcoords.
+     * Other attributes stay 32-bit floats. A position, normal and texcoord vertex takes 16 bytes
+     * instead of 32.
+     *
+     * @return New format
+     */
+    public static DAEVertexFormat compact() {
+        DAEVertexFormat format = new DAEVertexFormat();
+        format.setEncoding("VERTEX", Encoding.QUANTIZED16);
+        format.setEncoding("NORMAL", Encoding.OCTAHEDRAL16);
+        format.setEncoding("TEXCOORD", Encoding.FLOAT16);
+        return format;
+    }
+
+    /**
+     * Gets the encoding of an attribute.
+     *
+     * @param semantic Input semantic (VERTEX, NORMAL, TEXCOORD, ...)
+     * @return Encoding, FLOAT32 if none was set
+     */
+    public Encoding getEncoding(String semantic) {
+        Encoding encoding = encodings.get(semantic);
+        return encoding != null ? encoding : Encoding.FLOAT32;
+    }
+
+    /**
+     * Sets the encoding of an attribute.
+     *
+     * @param semantic Input semantic
+     * @param encoding Encoding, or null for FLOAT32
+     */
+    public void setEncoding(String semantic, Encoding encoding) {
+        if (encoding == null) {
+            encodings.remove(semantic);
+        } else {
+            encodings.put(semantic, encoding);
+        }
+    }
+
+    /**
+     * Gets the encodings that were set.
+     *
+     * @return Map of semantic to encoding
+     */
+    public Map<String, Encoding> getEncodings() {
+        return Collections.unmodifiableMap(encodings);
+    }
+
+    @Override
+    public String toString() {
+        return "DAEVertexFormat{" +
+                "encodings=" + encodings +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.daeparser;
+
+import java.util.Arrays;
+
+/**
+ * Deduplicates triangle corners by their attribute index tuple.
+ * Uses a primitive open-addressing hash table, so no boxing happens while indexing.
+ */
+final class DAEVertexIndexer {
+
+    private final int[] remap;
+    private final int[] uniqueCorners;
+    private final int vertexCount;
+
+    private DAEVertexIndexer(int[] remap, int[] uniqueCorners, int vertexCount) {
+        this.remap = remap;
+        this.uniqueCorners = uniqueCorners;
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Assigns a unique vertex number to every distinct index tuple.
+     *
+     * @param indices     Flat corner indices
+     * @param stride      Indices per corner
+     * @param cornerCount Number of corners to index
+     * @param offsets     Offsets within a corner that make up the tuple
+     * @return Indexer holding the corner to vertex mapping
+     */
+    static DAEVertexIndexer index(int[] indices, int stride, int cornerCount, int[] offsets) {
+        int[] remap = new int[cornerCount];
+        int[] uniqueCorners = new int[Math.max(cornerCount, 1)];
+        int capacity = Integer.highestOneBit(Math.max(cornerCount, 1) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        int[] table = new int[capacity]; // unique vertex + 1, 0 marks an empty slot
+        int vertexCount = 0;
+
+        for (int corner = 0; corner < cornerCount; corner++) {
+            int base = corner * stride;
+            int hash = 0;
+            for (int offset : offsets) {
+                hash = hash * 0x9E3779B1 + indices[base + offset];
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            while (true) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    table[slot] = vertexCount + 1;
+                    uniqueCorners[vertexCount] = corner;
+                    remap[corner] = vertexCount++;
+                    break;
+                }
+                int otherBase = uniqueCorners[entry - 1] * stride;
+                boolean equal = true;
+                for (int offset : offsets) {
+                    if (indices[base + offset] != indices[otherBase + offset]) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) {
+                    remap[corner] = entry - 1;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        return new DAEVertexIndexer(remap, Arrays.copyOf(uniqueCorners, vertexCount), vertexCount);
+    }
+
+    /**
+     * Gets the unique vertex number of every corner, i.e. the triangle index list.
+     */
+    int[] getRemap() {
+        return remap;
+    }
+
+    /**
+     * Gets the first corner that produced each unique vertex.
+     */
+    int[] getUniqueCorners() {
+        return uniqueCorners;
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+}
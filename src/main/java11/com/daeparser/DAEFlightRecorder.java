@@ -0,0 +1,285 @@
+package com.daeparser;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events, loaded instead of the Java 8 no-op version on Java 11 and later.
+ * Events are only allocated while a recording has them enabled. Geometry, skin and animation
+ * events carry the path of the document being parsed on the thread that begins them, and may
+ * end on the executor thread that decoded the element.
+ */
+final class DAEFlightRecorder {
+
+    private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+    private static final EventType GEOMETRY = EventType.getEventType(GeometryEvent.class);
+    private static final EventType SKIN = EventType.getEventType(SkinEvent.class);
+    private static final EventType ANIMATION = EventType.getEventType(AnimationEvent.class);
+    private static final EventType TRIANGULATION = EventType.getEventType(TriangulationEvent.class);
+
+    private static final ThreadLocal<String> CURRENT_PATH = new ThreadLocal<>();
+
+    private DAEFlightRecorder() {
+    }
+
+    static Object beginParse(String path) {
+        if (path != null) {
+            CURRENT_PATH.set(path);
+        }
+        if (!PARSE.isEnabled()) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        event.path = path;
+        event.begin();
+        return event;
+    }
+
+    static void endParse(Object event, long bytes, DAEDocument document) {
+        CURRENT_PATH.remove();
+        if (event == null) {
+            return;
+        }
+        ParseEvent parseEvent = (ParseEvent) event;
+        parseEvent.end();
+        if (parseEvent.shouldCommit()) {
+            parseEvent.bytes = bytes;
+            parseEvent.succeeded = document != null;
+            if (document != null) {
+                parseEvent.geometries = document.getGeometries().size();
+                parseEvent.materials = document.getMaterials().size();
+                parseEvent.animations = document.getAnimations().size();
+                parseEvent.controllers = document.getControllers().size();
+            }
+            parseEvent.commit();
+        }
+    }
+
+    static Object beginGeometry() {
+        if (!GEOMETRY.isEnabled()) {
+            return null;
+        }
+        GeometryEvent event = new GeometryEvent();
+        event.path = CURRENT_PATH.get();
+        event.begin();
+        return event;
+    }
+
+    static void endGeometry(Object event, DAEGeometry geometry) {
+        if (event == null) {
+            return;
+        }
+        GeometryEvent geometryEvent = (GeometryEvent) event;
+        geometryEvent.end();
+        if (geometryEvent.shouldCommit()) {
+            geometryEvent.id = geometry.getId();
+            DAEMesh mesh = geometry.getMesh();
+            if (mesh != null) {
+                // Declared counts only, so lazily parsed data is not decoded here
+                long floats = 0;
+                for (DAESource source : mesh.getSources()) {
+                    floats += source.getCount();
+                }
+                geometryEvent.triangles = mesh.getTriangleCount();
+                geometryEvent.sources = mesh.getSources().size();
+                geometryEvent.floats = floats;
+                geometryEvent.bytes = (floats + (long) mesh.getTriangleCount() * 3 * mesh.getIndexStride()) * 4;
+            }
+            geometryEvent.commit();
+        }
+    }
+
+    static Object beginSkin() {
+        if (!SKIN.isEnabled()) {
+            return null;
+        }
+        SkinEvent event = new SkinEvent();
+        event.path = CURRENT_PATH.get();
+        event.begin();
+        return event;
+    }
+
+    static void endSkin(Object event, String controllerId, DAESkin skin) {
+        if (event == null) {
+            return;
+        }
+        SkinEvent skinEvent = (SkinEvent) event;
+        skinEvent.end();
+        if (skinEvent.shouldCommit()) {
+            skinEvent.id = controllerId;
+            skinEvent.vertices = skin.getVertexWeights().size();
+            skinEvent.joints = skin.getJointNames().size();
+            skinEvent.weights = skin.getWeights() != null ? skin.getWeights().length : 0;
+            skinEvent.commit();
+        }
+    }
+
+    static Object beginAnimation() {
+        if (!ANIMATION.isEnabled()) {
+            return null;
+        }
+        AnimationEvent event = new AnimationEvent();
+        event.path = CURRENT_PATH.get();
+        event.begin();
+        return event;
+    }
+
+    static void endAnimation(Object event, DAEAnimation animation) {
+        if (event == null) {
+            return;
+        }
+        AnimationEvent animationEvent = (AnimationEvent) event;
+        animationEvent.end();
+        if (animationEvent.shouldCommit()) {
+            long values = 0;
+            for (DAESource source : animation.getSources()) {
+                values += source.getCount();
+            }
+            animationEvent.id = animation.getId();
+            animationEvent.channels = animation.getChannels().size();
+            animationEvent.values = values;
+            animationEvent.bytes = values * 4;
+            animationEvent.commit();
+        }
+    }
+
+    static Object beginTriangulation() {
+        if (!TRIANGULATION.isEnabled()) {
+            return null;
+        }
+        TriangulationEvent event = new TriangulationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endTriangulation(Object event, DAEMesh mesh, int floatCount) {
+        if (event == null) {
+            return;
+        }
+        TriangulationEvent triangulationEvent = (TriangulationEvent) event;
+        triangulationEvent.end();
+        if (triangulationEvent.shouldCommit()) {
+            triangulationEvent.id = mesh.getVerticesId();
+            triangulationEvent.triangles = mesh.getTriangleCount();
+            triangulationEvent.bytes = floatCount * 4L;
+            triangulationEvent.commit();
+        }
+    }
+
+    @Name("com.daeparser.Parse")
+    @Label("DAE Document Parse")
+    @Category("DAE Parser")
+    @Description("Parse of a whole COLLADA document")
+    static final class ParseEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Succeeded")
+        boolean succeeded;
+
+        @Label("Geometries")
+        int geometries;
+
+        @Label("Materials")
+        int materials;
+
+        @Label("Animations")
+        int animations;
+
+        @Label("Controllers")
+        int controllers;
+    }
+
+    @Name("com.daeparser.Geometry")
+    @Label("DAE Geometry Parse")
+    @Category("DAE Parser")
+    @Description("Parse of one geometry and its mesh")
+    static final class GeometryEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Geometry Id")
+        String id;
+
+        @Label("Triangles")
+        int triangles;
+
+        @Label("Sources")
+        int sources;
+
+        @Label("Floats")
+        long floats;
+
+        @Label("Data Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.daeparser.Skin")
+    @Label("DAE Skin Parse")
+    @Category("DAE Parser")
+    @Description("Parse of one skin controller including its vertex weights")
+    static final class SkinEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Controller Id")
+        String id;
+
+        @Label("Vertices")
+        int vertices;
+
+        @Label("Joints")
+        int joints;
+
+        @Label("Weights")
+        int weights;
+    }
+
+    @Name("com.daeparser.Animation")
+    @Label("DAE Animation Parse")
+    @Category("DAE Parser")
+    @Description("Parse of one animation and its keyframe sources")
+    static final class AnimationEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Animation Id")
+        String id;
+
+        @Label("Channels")
+        int channels;
+
+        @Label("Values")
+        long values;
+
+        @Label("Data Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.daeparser.Triangulation")
+    @Label("DAE Triangulation")
+    @Category("DAE Parser")
+    @Description("DAEMesh.getTriangulatedVertexData call")
+    static final class TriangulationEvent extends Event {
+        @Label("Vertices Id")
+        String id;
+
+        @Label("Triangles")
+        int triangles;
+
+        @Label("Output Size")
+        @DataAmount
+        long bytes;
+    }
+}
@@ -1,10 +1,47 @@
 package com.daeparser;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
 /**
  * Unit tests for the DAE parser.
@@ -130,6 +167,76 @@ public class DAEParserTest {
         assertEquals("First vertex Z should be 0.0", 0.0f, dataArray[2], 0.001f);
     }
 
+    @Test
+    public void testSourcePrimitiveStorage() {
+        DAESource source = new DAESource("s", "s");
+        for (int i = 0; i < 100; i++) {
+            source.addData(i * 0.5f);
+        }
+        assertEquals("Source should hold 100 values", 100, source.getDataSize());
+        assertEquals("List view should report 100 values", 100, source.getData().size());
+        assertEquals("List view should box stored values", Float.valueOf(49.5f), source.getData().get(99));
+
+        float[] array = source.getDataAsArray();
+        assertEquals("Array should be trimmed to the data size", 100, array.length);
+        array[0] = 3.0f;
+        assertEquals("Array should be a copy", 0.0f, source.getDataAsArray()[0], 0f);
+        float[] backing = source.getDataArrayUnsafe();
+        assertEquals("Backing array should be trimmed to the data size", 100, backing.length);
+        assertSame("Backing array should not be copied on every call", backing, source.getDataArrayUnsafe());
+
+        source.getData().set(0, 7.0f);
+        assertEquals("List view writes through to the storage", 7.0f, source.getDataAsArray()[0], 0f);
+        assertEquals("List view writes through to the storage", 7.0f, backing[0], 0f);
+        assertEquals("Buffer view should expose all values", 100, source.getDataBuffer().remaining());
+        assertTrue("Buffer view should be read-only", source.getDataBuffer().isReadOnly());
+    }
+
+    @Test
+    public void testNumberScannerMatchesParseFloat() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        String[] tokens = new String[5000];
+        for (int i = 0; i < tokens.length; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            switch (i % 5) {
+                case 0: tokens[i] = Float.toString(value); break;
+                case 1: tokens[i] = String.format(java.util.Locale.ROOT, "%.6f", random.nextFloat() * 200 - 100); break;
+                case 2: tokens[i] = String.format(java.util.Locale.ROOT, "%.9f", random.nextDouble() * 2 - 1); break;
+                case 3: tokens[i] = Integer.toString(random.nextInt(1000)) + "." + random.nextInt(100000); break;
+                default: tokens[i] = String.format(java.util.Locale.ROOT, "%.4e", random.nextDouble() * 1e6); break;
+            }
+            text.append(tokens[i]).append(i % 7 == 0 ? "\n\t" : " ");
+        }
+
+        // Feed in small uneven chunks so numbers get split across chunk boundaries
+        DAENumberScanner scanner = DAENumberScanner.forFloats(0);
+        char[] chars = text.toString().toCharArray();
+        for (int offset = 0; offset < chars.length; offset += 37) {
+            scanner.feed(chars, offset, Math.min(37, chars.length - offset));
+        }
+        float[] parsed = scanner.toFloatArray();
+
+        assertEquals("Scanner should produce one value per token", tokens.length, parsed.length);
+        for (int i = 0; i < tokens.length; i++) {
+            assertEquals("Token " + tokens[i] + " should be bit-exact",
+                    Float.floatToRawIntBits(Float.parseFloat(tokens[i])), Float.floatToRawIntBits(parsed[i]));
+        }
+    }
+
+    @Test
+    public void testNumberScannerInts() {
+        int[] values = DAENumberScanner.parseInts("  0 1 -2\n+3\t2147483647 -2147483648 ");
+        assertArrayEquals(new int[] {0, 1, -2, 3, Integer.MAX_VALUE, Integer.MIN_VALUE}, values);
+        assertEquals("Empty text should give no values", 0, DAENumberScanner.parseInts("  ").length);
+        try {
+            DAENumberScanner.parseInts("1 2x 3");
+            fail("Malformed ints should be rejected");
+        } catch (NumberFormatException expected) {
+            // expected
+        }
+    }
+
     @Test
     public void testMaterialDefaults() {
         DAEMaterial material = new DAEMaterial("test-id", "test-material");
@@ -177,6 +284,29 @@ public class DAEParserTest {
         assertNotNull("Root node children list should not be null", rootNode.getChildren());
     }
 
+    @Test
+    public void testNestedNodeInstances() throws Exception {
+        InputStream is = getClass().getResourceAsStream("/nested_nodes.dae");
+        DAEDocument doc = DAEParser.parse(is);
+
+        // A group node only has what its own children declare, not what its child nodes declare
+        DAENode group = doc.getScene().getNodes().get(0);
+        assertEquals("Group", group.getId());
+        assertNull("Group should not take the geometry of a child node", group.getGeometryRef());
+        assertNull("Group should not take the controller of a child node", group.getControllerRef());
+        assertArrayEquals("Group without a matrix should keep the identity",
+                new DAENode().getTransformation(), group.getTransformation(), 0f);
+
+        DAENode mesh = group.getChildren().get(0);
+        assertEquals("Mesh-mesh", mesh.getGeometryRef());
+        assertFalse("Mesh node should have its own matrix",
+                Arrays.equals(new DAENode().getTransformation(), mesh.getTransformation()));
+
+        DAENode skinned = group.getChildren().get(1);
+        assertEquals("Skinned-skin", skinned.getControllerRef());
+        assertNull(skinned.getGeometryRef());
+    }
+
     @Test
     public void testParseAnimation() throws Exception {
         InputStream is = getClass().getResourceAsStream("/animated_cube.dae");
@@ -326,6 +456,134 @@ public class DAEParserTest {
         }
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testFlatIndexBuffer() throws Exception {
+        DAEMesh mesh = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+
+        assertEquals("Cube corners hold VERTEX and NORMAL indices", 2, mesh.getIndexStride());
+        assertEquals("Should have 12 indexed triangles", 12, mesh.getIndexedTriangleCount());
+        int[] indices = mesh.getIndices();
+        assertEquals("Flat buffer should hold 12 * 3 * 2 indices", 72, indices.length);
+        assertEquals("Read-only view should expose the same indices", 72, mesh.getIndexBuffer().remaining());
+
+        // First triangle in cube.dae: <p>0 0 2 0 3 0 ...
+        assertArrayEquals(new int[] {0, 0, 2, 0, 3, 0}, Arrays.copyOf(indices, 6));
+
+        // Compatibility views are derived from the flat buffer
+        List<int[]> triangleIndices = mesh.getTriangleIndices();
+        assertEquals(12, triangleIndices.size());
+        assertArrayEquals(new int[] {0, 0, 2, 0, 3, 0}, triangleIndices.get(0));
+        List<int[]> triangles = mesh.getTriangles();
+        assertArrayEquals(new int[] {0, 2, 3}, triangles.get(0));
+        try {
+            triangles.add(new int[] {0, 1, 2});
+            fail("Copies are unmodifiable rather than silently detached");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        // Vertex-only triangles only replace the VERTEX column
+        List<int[]> reversed = new ArrayList<>();
+        for (int[] triangle : triangles) {
+            reversed.add(new int[] {triangle[2], triangle[1], triangle[0]});
+        }
+        mesh.setTriangles(reversed);
+        assertEquals(2, mesh.getIndexStride());
+        assertArrayEquals(new int[] {3, 0, 2, 0, 0, 0}, Arrays.copyOf(mesh.getIndices(), 6));
+        try {
+            mesh.setTriangles(reversed.subList(0, 1));
+            fail("Vertex indices for fewer triangles than the mesh has");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // A vertex-only triangle uses its vertex index for every input
+        mesh.addTriangle(new int[] {1, 5, 7});
+        assertEquals(13, mesh.getIndexedTriangleCount());
+        assertArrayEquals(new int[] {1, 1, 5, 5, 7, 7}, Arrays.copyOfRange(mesh.getIndices(), 72, 78));
+        assertArrayEquals(new int[] {1, 5, 7}, mesh.getTriangles().get(12));
+    }
+
+    @Test
+    public void testBuildIndexedMesh() throws Exception {
+        DAEMesh mesh = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+
+        DAEIndexedMesh indexed = mesh.buildIndexedMesh();
+        assertNotNull("Indexed mesh should not be null", indexed);
+        assertEquals("Each vertex has position and normal", 6, indexed.getVertexStride());
+        assertEquals("Should keep all 12 triangles", 12, indexed.getTriangleCount());
+        // cube.dae references 25 distinct (position, normal) pairs across its 36 corners
+        assertEquals("Should deduplicate shared corners", 25, indexed.getVertexCount());
+        assertTrue("Small meshes should fit 16-bit indices", indexed.hasShortIndices());
+        assertEquals(36, indexed.getShortIndices().length);
+
+        // Expanding the indexed data must reproduce the triangulated vertex stream
+        float[] expanded = mesh.getTriangulatedVertexData();
+        float[] vertices = indexed.getVertices();
+        int[] indices = indexed.getIndices();
+        for (int corner = 0; corner < indices.length; corner++) {
+            for (int c = 0; c < 6; c++) {
+                assertEquals(expanded[corner * 6 + c], vertices[indices[corner] * 6 + c], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void testMeshLayoutSinglePassExtraction() throws Exception {
+        DAEMesh mesh = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+
+        DAEMeshLayout layout = mesh.getLayout();
+        assertSame("Layout should be cached", layout, mesh.getLayout());
+        assertEquals("VERTEX offset", 0, layout.getAttribute("VERTEX").getOffset());
+        assertEquals("NORMAL offset", 1, layout.getAttribute("NORMAL").getOffset());
+        assertNull("Cube has no texcoords", layout.getAttribute("TEXCOORD"));
+
+        float[][] attributes = mesh.getTriangulatedAttributes("VERTEX", "NORMAL");
+        assertArrayEquals(mesh.getTriangulatedPositions(), attributes[0], 0f);
+        assertArrayEquals(mesh.getTriangulatedNormals(), attributes[1], 0f);
+
+        FloatBuffer buffer = FloatBuffer.allocate(mesh.getTriangulatedVertexDataLength());
+        mesh.writeTriangulatedVertexData(buffer);
+        assertEquals("Buffer should be filled", 0, buffer.remaining());
+        assertArrayEquals(mesh.getTriangulatedVertexData(), buffer.array(), 0f);
+
+        mesh.addInputOffset("NORMAL", 0);
+        assertNotSame("Mutating the mesh should invalidate the layout", layout, mesh.getLayout());
+    }
+
+    @Test
+    public void testDirectBufferOutput() throws Exception {
+        DAEMesh mesh = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+
+        ByteBuffer expanded = ByteBuffer.allocateDirect(mesh.getTriangulatedVertexDataSize());
+        mesh.writeTriangulatedVertexData(expanded);
+        assertEquals("Vertex buffer should be filled", 0, expanded.remaining());
+        expanded.flip();
+        float[] fromBuffer = new float[expanded.remaining() / 4];
+        expanded.order(ByteOrder.nativeOrder()).asFloatBuffer().get(fromBuffer);
+        assertArrayEquals(mesh.getTriangulatedVertexData(), fromBuffer, 0f);
+
+        DAEIndexedMesh indexed = mesh.buildIndexedMesh();
+        assertEquals(indexed.getVertexCount(), mesh.getIndexedVertexCount());
+        assertEquals("Small meshes should use 16-bit indices", 2, mesh.getIndexElementSize());
+
+        ByteBuffer vertices = ByteBuffer.allocateDirect(mesh.getIndexedVertexDataSize());
+        ByteBuffer indices = ByteBuffer.allocateDirect(mesh.getIndexDataSize());
+        mesh.writeIndexedMesh(vertices, indices);
+        assertEquals(0, vertices.remaining());
+        assertEquals(0, indices.remaining());
+
+        vertices.flip();
+        float[] vertexData = new float[indexed.getVertices().length];
+        vertices.order(ByteOrder.nativeOrder()).asFloatBuffer().get(vertexData);
+        assertArrayEquals(indexed.getVertices(), vertexData, 0f);
+
+        indices.flip();
+        ShortBuffer shortIndices = indices.order(ByteOrder.nativeOrder()).asShortBuffer();
+        for (int index : indexed.getIndices()) {
+            assertEquals(index, shortIndices.get() & 0xFFFF);
+        }
+    }
+
     @Test
     public void testParseSkinnedMesh() throws Exception {
         InputStream is = getClass().getResourceAsStream("/skinned_cylinder.dae");
@@ -504,4 +762,1251 @@ public class DAEParserTest {
         assertEquals("Third bone should be Bone3", "Bone3", bone3.getName());
         assertTrue("Bone3 should be a joint", bone3.isJoint());
     }
+
+    private static final String[] FIXTURES = {
+        "/triangle.dae", "/cube.dae", "/animated_cube.dae", "/skinned_cylinder.dae"
+    };
+
+    @Test
+    public void testStreamingParserMatchesDom() throws Exception {
+        for (String fixture : FIXTURES) {
+            DAEDocument expected = DAEParser.parse(getClass().getResourceAsStream(fixture));
+            DAEDocument actual = DAEParser.parseStreaming(getClass().getResourceAsStream(fixture));
+            assertDocumentsEqual(fixture, expected, actual);
+        }
+    }
+
+    @Test
+    public void testParallelParserMatchesSerial() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (String fixture : FIXTURES) {
+                DAEDocument expected = DAEParser.parse(getClass().getResourceAsStream(fixture));
+                DAEDocument actual = DAEParser.parse(getClass().getResourceAsStream(fixture), executor);
+                assertDocumentsEqual(fixture, expected, actual);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGeneratedDocument() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(1001);
+        generator.setTexCoordSets(2);
+        generator.setColors(true);
+        generator.setJointCount(5);
+        generator.setInfluencesPerVertex(3);
+        generator.setKeyframeCount(7);
+        generator.setNodeDepth(4);
+        String xml = generator.generate();
+        assertEquals("Generator output should be deterministic", xml, generator.generate());
+
+        DAEDocument doc = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        DAEMesh mesh = doc.getGeometries().get(0).getMesh();
+        assertEquals(1001, mesh.getTriangleCount());
+        assertEquals(1001, mesh.getIndexedTriangleCount());
+        assertEquals("VERTEX, NORMAL, 2 UV sets and COLOR", 5, mesh.getIndexStride());
+        assertEquals(generator.getVertexCount() * 3, mesh.getSources().get(0).getDataSize());
+
+        DAESkin skin = doc.getControllers().get(0).getSkin();
+        assertEquals(5, skin.getJointCount());
+        assertEquals(3, skin.getMaxJointInfluences());
+        assertEquals(generator.getVertexCount(), skin.getVertexWeights().size());
+        float[] influences = skin.getVertexJointInfluences(0);
+        assertEquals(1.0f, influences[1] + influences[3] + influences[5], 1e-4f);
+
+        assertEquals("One animation per joint", 5, doc.getAnimations().size());
+        assertEquals(7, doc.getAnimations().get(0).getSources().get(0).getDataSize());
+
+        // Joint chain first, then the mesh node under 3 group nodes
+        List<DAENode> roots = doc.getScene().getNodes();
+        assertEquals(2, roots.size());
+        DAENode node = roots.get(1);
+        for (int depth = 1; depth < 4; depth++) {
+            assertEquals("Group" + depth, node.getId());
+            node = node.getChildren().get(0);
+        }
+        assertEquals("Grid-skin", node.getControllerRef());
+
+        DAEDocument streamed = DAEParser.parseStreaming(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertDocumentsEqual("generated", doc, streamed);
+    }
+
+    @Test
+    public void testGeneratedMeshCount() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(200);
+        generator.setJointCount(3);
+        generator.setNodeDepth(2);
+        generator.setMeshCount(3);
+        String xml = generator.generate();
+
+        DAEDocument doc = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, doc.getGeometries().size());
+        assertEquals(3, doc.getControllers().size());
+        assertEquals("Grid-mesh", doc.getGeometries().get(0).getId());
+        assertEquals("Grid2-mesh", doc.getGeometries().get(2).getId());
+        for (DAEGeometry geometry : doc.getGeometries()) {
+            assertEquals(200, geometry.getMesh().getTriangleCount());
+        }
+
+        // One node per mesh under the group node, after the joint chain
+        List<DAENode> meshNodes = doc.getScene().getNodes().get(1).getChildren();
+        assertEquals(3, meshNodes.size());
+        assertEquals("Grid1-skin", meshNodes.get(1).getControllerRef());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            DAEDocument parallel = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), executor);
+            assertDocumentsEqual("meshes", doc, parallel);
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            generator.setMeshCount(0);
+            fail("Mesh count 0 should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(500);
+        generator.setJointCount(3);
+        generator.setKeyframeCount(4);
+        List<DAEDocument> documents = new ArrayList<>();
+        for (String fixture : FIXTURES) {
+            documents.add(DAEParser.parse(getClass().getResourceAsStream(fixture)));
+        }
+        documents.add(DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8))));
+
+        File file = File.createTempFile("dae-binary", ".daeb");
+        try {
+            for (DAEDocument expected : documents) {
+                DAEBinaryWriter.write(expected, file);
+                DAEDocument actual = DAEBinaryReader.read(file);
+                assertDocumentsEqual("binary", expected, actual);
+                assertArrayEquals(expected.getGeometries().get(0).getMesh().getIndices(),
+                        actual.getGeometries().get(0).getMesh().getIndices());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryRejectsOtherData() throws Exception {
+        DAEBinaryReader.read(ByteBuffer.wrap("<COLLADA/>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testBinaryRejectsCorruptLengths() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DAEBinaryWriter.write(DAEParser.parse(getClass().getResourceAsStream("/skinned_cylinder.dae")), out);
+        byte[] bytes = out.toByteArray();
+
+        // Length of the version string, right after the magic and format version
+        ByteBuffer header = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(8, 0x7FFFFFF0);
+        try {
+            DAEBinaryReader.read(header);
+            fail("Huge string length should be rejected");
+        } catch (IOException expected) {
+            assertEquals("Corrupt binary DAE document", expected.getMessage());
+        }
+
+        // Any field set to a huge or negative value is read or rejected, never allocated
+        for (int value : new int[] {0x7FFFFFF0, 0x40000000, -2}) {
+            for (int offset = 8; offset + 4 <= bytes.length; offset += 4) {
+                ByteBuffer corrupt = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+                corrupt.putInt(offset, value);
+                try {
+                    DAEBinaryReader.read(corrupt);
+                } catch (IOException expected) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseCache() throws Exception {
+        File directory = Files.createTempDirectory("dae-cache").toFile();
+        File input = File.createTempFile("cube", ".dae");
+        File copy = File.createTempFile("cube-copy", ".dae");
+        try {
+            Files.copy(getClass().getResourceAsStream("/cube.dae"), input.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(input.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            DAEParseCache cache = new DAEParseCache(directory, 1 << 20);
+            DAEDocument parsed = cache.parse(input);
+            DAEDocument cached = cache.parse(input);
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+            assertDocumentsEqual("cached", parsed, cached);
+
+            // Path keys miss on a copy, content hashes hit
+            cache.parse(copy);
+            assertEquals(2, cache.getMissCount());
+            cache.setHashContent(true);
+            cache.parse(input);
+            cache.parse(copy);
+            assertEquals(3, cache.getMissCount());
+            assertEquals(2, cache.getHitCount());
+
+            // A damaged body behind a valid header is parsed again and replaced
+            for (File entry : directory.listFiles()) {
+                byte[] bytes = Files.readAllBytes(entry.toPath());
+                Arrays.fill(bytes, 12, bytes.length, (byte) 0x7F);
+                Files.write(entry.toPath(), bytes);
+            }
+            assertDocumentsEqual("damaged", parsed, cache.parse(input));
+            assertEquals(4, cache.getMissCount());
+            assertDocumentsEqual("replaced", parsed, cache.parse(input));
+            assertEquals(3, cache.getHitCount());
+
+            // A cap below two entries keeps only the most recent one
+            DAEParseCache small = new DAEParseCache(directory, cache.getSize() / 3 + 1);
+            small.clear();
+            small.parse(input);
+            small.parse(copy);
+            assertEquals(1, small.getEvictionCount());
+            assertTrue(small.getSize() <= small.getMaxSize());
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+            input.delete();
+            copy.delete();
+        }
+    }
+
+    @Test
+    public void testMappedParserMatchesStreaming() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(300);
+        generator.setJointCount(4);
+        generator.setKeyframeCount(5);
+        File file = File.createTempFile("dae-mapped", ".dae");
+        try {
+            for (String fixture : FIXTURES) {
+                Files.copy(getClass().getResourceAsStream(fixture), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                assertDocumentsEqual(fixture, DAEParser.parseStreaming(file), DAEParser.parse(file.toPath()));
+            }
+            generator.write(file);
+            assertDocumentsEqual("generated", DAEParser.parseStreaming(file), DAEParser.parse(file.toPath()));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testMappedParserSkipsMarkup() throws Exception {
+        // Payload-like text in comments and CDATA, and a payload with a character reference
+        String xml = "<?xml version=\"1.0\"?>\n" +
+                "<COLLADA xmlns=\"http://www.collada.org/2005/11/COLLADASchema\" version=\"1.4.1\">\n" +
+                "<!-- <p>9 9 9</p> -->\n" +
+                "<asset><title><![CDATA[<float_array>1 2</float_array>]]></title></asset>\n" +
+                "<library_geometries><geometry id=\"g\"><mesh>\n" +
+                "<source id=\"s\"><float_array id=\"a\" count=\"3\">1.5&#32;2.5 3.5</float_array>\n" +
+                "<technique_common><accessor source=\"#a\" count=\"1\" stride=\"3\"/></technique_common></source>\n" +
+                "<vertices id=\"v\"><input semantic=\"POSITION\" source=\"#s\"/></vertices>\n" +
+                "<triangles count=\"1\"><input semantic=\"VERTEX\" source=\"#v\" offset=\"0\"/><p>0 0 0</p></triangles>\n" +
+                "</mesh></geometry></library_geometries>\n" +
+                "</COLLADA>\n";
+        File file = File.createTempFile("dae-mapped", ".dae");
+        try {
+            Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+            DAEDocument doc = DAEParser.parse(file.toPath());
+            DAEMesh mesh = doc.getGeometries().get(0).getMesh();
+            assertArrayEquals(new float[] {1.5f, 2.5f, 3.5f}, mesh.getSources().get(0).getDataAsArray(), 0f);
+            assertArrayEquals(new int[] {0, 0, 0}, mesh.getIndices());
+            assertDocumentsEqual("markup", DAEParser.parseStreaming(file), doc);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLazyParsing() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(2000);
+        generator.setJointCount(3);
+        generator.setKeyframeCount(10);
+        File file = File.createTempFile("dae-lazy", ".dae");
+        try {
+            generator.write(file);
+            DAEDocument lazy = DAEParser.parseLazy(file.toPath());
+            DAEMesh mesh = lazy.getGeometries().get(0).getMesh();
+            DAESource positions = mesh.getSources().get(0);
+            assertFalse(positions.isDataLoaded());
+            assertFalse(mesh.isIndicesLoaded());
+            assertEquals("Scene graph is available without decoding", 2, lazy.getScene().getNodes().size());
+            assertEquals(2000, mesh.getTriangleCount());
+            assertFalse(mesh.isIndicesLoaded());
+
+            // Concurrent first access decodes once and publishes the same array to every thread
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<float[]>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(executor.submit(positions::getDataArrayUnsafe));
+                }
+                for (Future<float[]> result : results) {
+                    assertSame(results.get(0).get(), result.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertTrue(positions.isDataLoaded());
+
+            DAEDocument eager = DAEParser.parseStreaming(file);
+            assertDocumentsEqual("lazy", eager, lazy);
+
+            float[] decoded = positions.getDataAsArray();
+            positions.releaseData();
+            mesh.releaseIndices();
+            assertFalse(positions.isDataLoaded());
+            assertFalse(mesh.isIndicesLoaded());
+            assertArrayEquals(decoded, positions.getDataAsArray(), 0f);
+            assertArrayEquals(eager.getGeometries().get(0).getMesh().getIndices(), mesh.getIndices());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseOptions() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(200);
+        generator.setColors(true);
+        generator.setJointCount(2);
+        generator.setKeyframeCount(4);
+        File file = File.createTempFile("dae-options", ".dae");
+        try {
+            generator.write(file);
+            DAEDocument full = DAEParser.parse(file.toPath());
+
+            DAEParseOptions options = new DAEParseOptions();
+            options.exclude(DAEParseOptions.Library.ANIMATIONS, DAEParseOptions.Library.CONTROLLERS);
+            options.skipSemantic("TEXCOORD", "COLOR");
+            for (DAEDocument document : new DAEDocument[] {
+                    DAEParser.parse(file.toPath(), options),
+                    DAEParser.parse(new ByteArrayInputStream(Files.readAllBytes(file.toPath())), options)}) {
+                assertTrue(document.getAnimations().isEmpty());
+                assertTrue(document.getControllers().isEmpty());
+                assertEquals(full.getScene().getNodes().size(), document.getScene().getNodes().size());
+
+                DAEMesh expected = full.getGeometries().get(0).getMesh();
+                DAEMesh mesh = document.getGeometries().get(0).getMesh();
+                assertEquals(2, mesh.getSources().size());
+                assertFalse(mesh.getInputSemantics().containsKey("TEXCOORD"));
+                assertFalse(mesh.getInputOffsets().containsKey("COLOR"));
+                assertEquals("Skipped inputs keep their slot in the index stride",
+                        expected.getIndexStride(), mesh.getIndexStride());
+                assertArrayEquals(expected.getIndices(), mesh.getIndices());
+                assertArrayEquals(expected.getTriangulatedPositions(), mesh.getTriangulatedPositions(), 0f);
+                assertArrayEquals(expected.getTriangulatedNormals(), mesh.getTriangulatedNormals(), 0f);
+            }
+
+            options.setLazy(true);
+            DAEMesh lazy = DAEParser.parse(file.toPath(), options).getGeometries().get(0).getMesh();
+            assertFalse(lazy.getSources().get(0).isDataLoaded());
+            assertEquals(2, lazy.getSources().size());
+
+            options.includeOnly(DAEParseOptions.Library.GEOMETRIES);
+            options.includeGeometry("Missing-mesh");
+            DAEDocument none = DAEParser.parse(file.toPath(), options);
+            assertTrue(none.getGeometries().isEmpty());
+            assertNull(none.getScene());
+            assertTrue(none.getMaterials().isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBatchConverter() throws Exception {
+        File input = Files.createTempDirectory("dae-batch-in").toFile();
+        File output = Files.createTempDirectory("dae-batch-out").toFile();
+        try {
+            new File(input, "sub").mkdir();
+            Files.copy(getClass().getResourceAsStream("/cube.dae"), new File(input, "cube.dae").toPath());
+            Files.copy(getClass().getResourceAsStream("/skinned_cylinder.dae"),
+                    new File(input, "sub/skinned_cylinder.dae").toPath());
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(report, true);
+
+            DAEBatchConverter converter = new DAEBatchConverter(output);
+            converter.setThreads(2);
+            assertEquals(0, converter.convert(Arrays.asList(input.getPath()), out));
+            File cube = new File(output, "cube.daeb");
+            assertDocumentsEqual("batch", DAEParser.parse(new File(input, "cube.dae")), DAEBinaryReader.read(cube));
+            assertTrue(new File(output, "sub/skinned_cylinder.daeb").isFile());
+
+            // A second run resumes: nothing is converted again
+            report.reset();
+            assertEquals(0, converter.convert(Arrays.asList(input.getPath()), out));
+            assertTrue(report.toString(), report.toString().contains("0 converted, 2 up to date, 0 failed"));
+
+            Files.write(new File(input, "broken.dae").toPath(), "<COLLADA>".getBytes(StandardCharsets.UTF_8));
+            converter.setFormat(DAEBatchConverter.Format.INDEXED);
+            assertEquals(1, converter.convert(Arrays.asList(input.getPath() + File.separator + "**.dae"), out));
+            ByteBuffer mesh = ByteBuffer.wrap(Files.readAllBytes(new File(output, "cube.mesh").toPath()))
+                    .order(ByteOrder.nativeOrder());
+            assertEquals('D', mesh.get(0));
+            assertEquals(DAEBatchConverter.MESH_VERSION, mesh.getInt(4));
+            assertEquals(1, mesh.getInt(8));
+            assertFalse(new File(output, "broken.mesh").exists());
+
+            // Globs match below their directory part; "**/" also matches no directory
+            Map<Path, Path> matched = DAEBatchConverter.resolveInputs(
+                    Arrays.asList(input.getPath() + File.separator + "**/*.dae"));
+            assertEquals(Paths.get("sub", "skinned_cylinder.dae"),
+                    matched.get(new File(input, "sub/skinned_cylinder.dae").toPath().toAbsolutePath()));
+            assertEquals(Paths.get("cube.dae"), matched.get(new File(input, "cube.dae").toPath().toAbsolutePath()));
+            assertEquals(3, matched.size());
+            // A bare glob is relative to the working directory
+            matched = DAEBatchConverter.resolveInputs(Arrays.asList("*.xml"));
+            assertEquals(Paths.get("pom.xml"), matched.get(Paths.get("pom.xml").toAbsolutePath()));
+            try {
+                DAEBatchConverter.resolveInputs(Arrays.asList(input.getPath() + File.separator + "*.obj"));
+                fail("A glob matching nothing is an error like a missing file");
+            } catch (IOException expected) {
+            }
+
+            // Two inputs with the same relative name would overwrite each other's output
+            new File(input, "other").mkdir();
+            Files.copy(new File(input, "cube.dae").toPath(), new File(input, "other/cube.dae").toPath());
+            try {
+                converter.convert(Arrays.asList(new File(input, "cube.dae").getPath(),
+                        new File(input, "other/cube.dae").getPath()), out);
+                fail("Colliding outputs");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("same output path"));
+            }
+        } finally {
+            deleteRecursively(input);
+            deleteRecursively(output);
+        }
+    }
+
+    @Test
+    public void testParseAsync() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(20000);
+        File file = File.createTempFile("dae-async", ".dae");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            generator.write(file);
+            List<DAEParseProgress.Phase> phases = new ArrayList<>();
+            List<Long> positions = new ArrayList<>();
+            DAEDocument document = DAEParser.parseAsync(file.toPath(), executor, (phase, bytesRead, totalBytes) -> {
+                assertEquals(file.length(), totalBytes);
+                phases.add(phase);
+                positions.add(bytesRead);
+            }).get();
+            assertDocumentsEqual("async", DAEParser.parse(file.toPath()), document);
+            assertEquals(DAEParseProgress.Phase.SCANNING, phases.get(0));
+            assertTrue(phases.contains(DAEParseProgress.Phase.PARSING));
+            assertEquals(DAEParseProgress.Phase.COMPLETE, phases.get(phases.size() - 1));
+            for (int i = 1; i < positions.size(); i++) {
+                assertTrue(positions.get(i) >= positions.get(i - 1));
+            }
+            assertEquals(file.length(), (long) positions.get(positions.size() - 1));
+
+            // Cancelling from the first progress report stops the parse
+            CountDownLatch ready = new CountDownLatch(1);
+            AtomicReference<CompletableFuture<DAEDocument>> cancelled = new AtomicReference<>();
+            List<DAEParseProgress.Phase> cancelledPhases = new ArrayList<>();
+            cancelled.set(DAEParser.parseAsync(file.toPath(), executor, (phase, bytesRead, totalBytes) -> {
+                cancelledPhases.add(phase);
+                if (phase == DAEParseProgress.Phase.PARSING) {
+                    try {
+                        ready.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    cancelled.get().cancel(true);
+                }
+            }));
+            ready.countDown();
+            try {
+                cancelled.get().get();
+                fail("Expected cancellation");
+            } catch (CancellationException e) {
+                // expected
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertFalse(cancelledPhases.contains(DAEParseProgress.Phase.COMPLETE));
+
+            // Payload decoding polls the monitor too, not only reads of the structure
+            AtomicInteger slices = new AtomicInteger();
+            try {
+                DAEParser.parseMapped(file.toPath(), new DAEParseOptions(), new DAEParseMonitor() {
+                    @Override
+                    public InputStream monitor(InputStream in, LongSupplier position) {
+                        return in;
+                    }
+
+                    @Override
+                    public void decoding() {
+                        if (slices.incrementAndGet() == 2) {
+                            throw new CancellationException("Parse cancelled");
+                        }
+                    }
+                });
+                fail("Expected cancellation while decoding");
+            } catch (CancellationException e) {
+                assertEquals(2, slices.get());
+            }
+
+            assertNotNull(DAEParser.parseAsync(file.toPath()).get().getScene());
+        } finally {
+            executor.shutdownNow();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseStatistics() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(500);
+        generator.setJointCount(3);
+        generator.setKeyframeCount(6);
+        File file = File.createTempFile("dae-statistics", ".dae");
+        try {
+            generator.write(file);
+            DAEParseStatistics statistics = new DAEParseStatistics();
+            DAEParseOptions options = new DAEParseOptions();
+            options.setListener(statistics);
+            DAEDocument document = DAEParser.parse(file.toPath(), options);
+            DAEParser.parse(new ByteArrayInputStream(Files.readAllBytes(file.toPath())), options);
+
+            assertEquals(2, statistics.getCount(DAEParseListener.Phase.DOCUMENT));
+            assertEquals(2, statistics.getCount(DAEParseListener.Phase.GEOMETRIES));
+            assertEquals(2, statistics.getCount(DAEParseListener.Phase.MESH));
+            assertEquals(1000, statistics.getElements(DAEParseListener.Phase.MESH));
+            assertEquals(2, statistics.getCount(DAEParseListener.Phase.SKIN));
+            assertEquals(2L * document.getAnimations().size(), statistics.getCount(DAEParseListener.Phase.ANIMATION));
+            assertEquals(2L * 500 * 3 * document.getGeometries().get(0).getMesh().getIndexStride(),
+                    statistics.getIntsDecoded() - 2L * countSkinInts(document));
+
+            long[] histogram = statistics.getHistogram(DAEParseListener.Phase.MESH);
+            assertEquals(2, Arrays.stream(histogram).sum());
+            long max = statistics.getMaxNanos(DAEParseListener.Phase.MESH);
+            assertTrue(statistics.getMinNanos(DAEParseListener.Phase.MESH) <= max);
+            assertTrue(statistics.getPercentileNanos(DAEParseListener.Phase.MESH, 99) <= max);
+            assertTrue(statistics.getPercentileNanos(DAEParseListener.Phase.MESH, 50) > 0);
+            assertTrue(statistics.getBytesDecoded() > 0);
+            assertTrue(statistics.toString().contains("MESH"));
+
+            statistics.reset();
+            assertEquals(0, statistics.getCount(DAEParseListener.Phase.DOCUMENT));
+            assertEquals(0, statistics.getFloatsDecoded());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static long countSkinInts(DAEDocument document) {
+        long count = 0;
+        for (DAEController controller : document.getControllers()) {
+            List<int[]> weights = controller.getSkin().getVertexWeights();
+            count += weights.size();
+            for (int[] pairs : weights) {
+                count += pairs.length;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testFlightRecorderEventsPackaged() {
+        // The Java 11 event classes are only built on JDK 11+; the Java 8 hooks are no-ops
+        Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        assertNotNull(getClass().getResource("/META-INF/versions/11/com/daeparser/DAEFlightRecorder.class"));
+        assertNull(DAEFlightRecorder.beginParse("model.dae"));
+        DAEFlightRecorder.endParse(null, 0, null);
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        File file = File.createTempFile("skinned", ".dae");
+        Path dump = Files.createTempFile("events", ".jfr");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Files.copy(getClass().getResourceAsStream("/skinned_cylinder.dae"), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            // Load the library as the JVM loads the multi-release JAR: Java 11 classes first
+            URL classes = DAEParser.class.getProtectionDomain().getCodeSource().getLocation();
+            URL[] urls = {new URL(classes, "META-INF/versions/11/"), classes};
+            try (Recording recording = new Recording();
+                 URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent())) {
+                recording.start();
+                // Decoded on the executor, so the events end on its threads
+                loader.loadClass(DAEParser.class.getName()).getMethod("parse", File.class, ExecutorService.class)
+                        .invoke(null, file, executor);
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            DAEDocument expected = DAEParser.parse(file);
+            DAEMesh mesh = expected.getGeometries().get(0).getMesh();
+            DAESkin skin = expected.getControllers().get(0).getSkin();
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                if (event.getEventType().getName().startsWith("com.daeparser.")) {
+                    events.add(event);
+                }
+            }
+            assertEquals(events.toString(), 3, events.size());
+            for (RecordedEvent event : events) {
+                assertEquals(file.getPath(), event.getString("path"));
+                if (event.getEventType().getName().equals("com.daeparser.Parse")) {
+                    assertTrue(event.getBoolean("succeeded"));
+                    assertEquals(1, event.getInt("geometries"));
+                    assertEquals(1, event.getInt("controllers"));
+                } else if (event.getEventType().getName().equals("com.daeparser.Geometry")) {
+                    assertEquals("Cylinder-mesh", event.getString("id"));
+                    assertEquals(mesh.getIndexedTriangleCount(), event.getInt("triangles"));
+                    assertEquals(mesh.getSources().size(), event.getInt("sources"));
+                } else {
+                    assertEquals("com.daeparser.Skin", event.getEventType().getName());
+                    assertEquals("Cylinder-skin", event.getString("id"));
+                    assertEquals(skin.getVertexWeights().size(), event.getInt("vertices"));
+                    assertEquals(skin.getJointNames().size(), event.getInt("joints"));
+                    assertEquals(skin.getWeights().length, event.getInt("weights"));
+                    assertTrue(event.getInt("weights") > 0);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            file.delete();
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void testPolylistMatchesTriangles() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(1001);
+        generator.setTexCoordSets(2);
+        DAEDocument expected = DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8)));
+        generator.setPolylist(true);
+        String xml = generator.generate();
+        assertTrue(xml.contains("<polylist count=\"501\">"));
+
+        File file = File.createTempFile("dae-quads", ".dae");
+        try {
+            Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+            DAEDocument[] documents = {
+                    DAEParser.parse(file),
+                    DAEParser.parseStreaming(file),
+                    DAEParser.parse(file.toPath()),
+                    DAEParser.parseLazy(file.toPath())
+            };
+            for (DAEDocument actual : documents) {
+                DAEMesh mesh = actual.getGeometries().get(0).getMesh();
+                assertEquals(1001, mesh.getTriangleCount());
+                assertArrayEquals(expected.getGeometries().get(0).getMesh().getIndices(), mesh.getIndices());
+                assertDocumentsEqual("polylist", expected, actual);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testConcavePolygonTriangulation() throws Exception {
+        // Arrow shape with a reflex corner at vertex 3, which a fan from vertex 0 gets wrong
+        String polygon = "<input semantic=\"VERTEX\" source=\"#Shape-vertices\" offset=\"0\"/>"
+                + "<p>0 1 2 3 4</p><ph><p>0 1 2</p><h>1 2 3</h></ph>";
+        String xml = "<COLLADA><library_geometries><geometry id=\"Shape\"><mesh>"
+                + "<source id=\"Shape-positions\"><float_array id=\"Shape-positions-array\" count=\"15\">"
+                + "0 0 0 4 0 0 4 4 0 2 1 0 0 4 0</float_array>"
+                + "<technique_common><accessor source=\"#Shape-positions-array\" count=\"5\" stride=\"3\"/>"
+                + "</technique_common></source>"
+                + "<vertices id=\"Shape-vertices\"><input semantic=\"POSITION\" source=\"#Shape-positions\"/></vertices>"
+                + "<polygons count=\"2\">" + polygon + "</polygons>"
+                + "</mesh></geometry></library_geometries></COLLADA>";
+
+        DAEMesh mesh = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        DAEMesh streamed = DAEParser.parseStreaming(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        assertEquals("3 triangles for the arrow, 1 for the outline of the polygon with a hole",
+                4, mesh.getTriangleCount());
+        assertArrayEquals(mesh.getIndices(), streamed.getIndices());
+
+        float[] positions = mesh.getSources().get(0).getDataAsArray();
+        int[] indices = mesh.getIndices();
+        float area = 0;
+        for (int t = 0; t < 3; t++) {
+            float x0 = positions[indices[t * 3] * 3], y0 = positions[indices[t * 3] * 3 + 1];
+            float x1 = positions[indices[t * 3 + 1] * 3], y1 = positions[indices[t * 3 + 1] * 3 + 1];
+            float x2 = positions[indices[t * 3 + 2] * 3], y2 = positions[indices[t * 3 + 2] * 3 + 1];
+            float triangleArea = ((x1 - x0) * (y2 - y0) - (y1 - y0) * (x2 - x0)) / 2;
+            assertTrue("Triangle " + t + " keeps the winding", triangleArea > 0);
+            area += triangleArea;
+        }
+        assertEquals("Triangles cover the arrow exactly", 10f, area, 1e-6f);
+        assertArrayEquals(new int[]{0, 1, 2}, Arrays.copyOfRange(indices, 9, 12));
+    }
+
+    @Test
+    public void testPrimitiveGroups() throws Exception {
+        // Two materials with different inputs: the polylist has texture coordinates but no normals
+        String xml = "<COLLADA><library_geometries><geometry id=\"Quad\"><mesh>"
+                + "<source id=\"Quad-positions\"><float_array id=\"Quad-positions-array\" count=\"12\">"
+                + "0 0 0 1 0 0 1 1 0 0 1 0</float_array>"
+                + "<technique_common><accessor source=\"#Quad-positions-array\" count=\"4\" stride=\"3\"/>"
+                + "</technique_common></source>"
+                + "<source id=\"Quad-normals\"><float_array id=\"Quad-normals-array\" count=\"3\">0 0 1</float_array>"
+                + "<technique_common><accessor source=\"#Quad-normals-array\" count=\"1\" stride=\"3\"/>"
+                + "</technique_common></source>"
+                + "<source id=\"Quad-map\"><float_array id=\"Quad-map-array\" count=\"8\">0 0 1 0 1 1 0 1</float_array>"
+                + "<technique_common><accessor source=\"#Quad-map-array\" count=\"4\" stride=\"2\"/>"
+                + "</technique_common></source>"
+                + "<vertices id=\"Quad-vertices\"><input semantic=\"POSITION\" source=\"#Quad-positions\"/></vertices>"
+                + "<triangles material=\"Red\" count=\"1\">"
+                + "<input semantic=\"VERTEX\" source=\"#Quad-vertices\" offset=\"0\"/>"
+                + "<input semantic=\"NORMAL\" source=\"#Quad-normals\" offset=\"1\"/>"
+                + "<p>0 0 1 0 2 0</p></triangles>"
+                + "<polylist material=\"Blue\" count=\"1\">"
+                + "<input semantic=\"VERTEX\" source=\"#Quad-vertices\" offset=\"0\"/>"
+                + "<input semantic=\"TEXCOORD\" source=\"#Quad-map\" offset=\"1\" set=\"0\"/>"
+                + "<vcount>4</vcount><p>0 0 1 1 2 2 3 3</p></polylist>"
+                + "</mesh></geometry></library_geometries></COLLADA>";
+
+        DAEDocument doc = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        DAEMesh mesh = doc.getGeometries().get(0).getMesh();
+        assertEquals(2, mesh.getPrimitiveGroups().size());
+        DAEPrimitiveGroup red = mesh.getPrimitiveGroup("Red");
+        DAEPrimitiveGroup blue = mesh.getPrimitiveGroup("Blue");
+        assertEquals("triangles", red.getType());
+        assertEquals(0, red.getFirstIndex());
+        assertEquals(3, red.getIndexCount());
+        assertEquals("polylist", blue.getType());
+        assertEquals(3, blue.getFirstIndex());
+        assertEquals(6, blue.getIndexCount());
+        assertEquals("Inputs of the groups keep their own offsets", Integer.valueOf(1), blue.getInputOffsets().get("TEXCOORD"));
+
+        // One corner layout for both groups, -1 where a group lacks the input
+        assertEquals(3, mesh.getIndexStride());
+        assertEquals(3, mesh.getTriangleCount());
+        assertArrayEquals(new int[]{
+                0, 0, -1, 1, 0, -1, 2, 0, -1,
+                0, -1, 0, 1, -1, 1, 2, -1, 2,
+                0, -1, 0, 2, -1, 2, 3, -1, 3}, mesh.getIndices());
+
+        DAEIndexedMesh indexed = mesh.buildIndexedMesh();
+        assertEquals("One shared vertex buffer", 3 + 4, indexed.getVertexCount());
+        assertEquals(2, indexed.getPrimitiveGroups().size());
+        assertEquals(9, indexed.getIndices().length);
+
+        DAEDocument streamed = DAEParser.parseStreaming(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertDocumentsEqual("groups", doc, streamed);
+        assertArrayEquals(mesh.getIndices(), streamed.getGeometries().get(0).getMesh().getIndices());
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        DAEBinaryWriter.write(doc, binary);
+        DAEDocument read = DAEBinaryReader.read(ByteBuffer.wrap(binary.toByteArray()));
+        assertDocumentsEqual("binary groups", doc, read);
+        assertEquals("Blue", read.getGeometries().get(0).getMesh().getPrimitiveGroups().get(1).getMaterial());
+    }
+
+    @Test
+    public void testVertexCacheOptimization() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(20000);
+        DAEMesh mesh = DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        DAEIndexedMesh indexed = mesh.buildIndexedMesh();
+
+        // Shuffle the triangles so the input order is cache hostile
+        int[] shuffled = indexed.getIndices().clone();
+        Random random = new Random(42);
+        for (int t = shuffled.length / 3 - 1; t > 0; t--) {
+            int other = random.nextInt(t + 1);
+            for (int c = 0; c < 3; c++) {
+                int swap = shuffled[t * 3 + c];
+                shuffled[t * 3 + c] = shuffled[other * 3 + c];
+                shuffled[other * 3 + c] = swap;
+            }
+        }
+        DAEIndexedMesh input = new DAEIndexedMesh(indexed.getVertices(), indexed.getVertexStride(), shuffled,
+                mesh.getPrimitiveGroups());
+
+        DAEVertexCacheOptimizer.Result result = new DAEVertexCacheOptimizer().optimize(input);
+        assertEquals(result.getAcmrBefore(), DAEVertexCacheOptimizer.getAcmr(shuffled, 16), 1e-9);
+        assertTrue(result.toString(), result.getAcmrBefore() > 2.5);
+        assertTrue(result.toString(), result.getAcmrAfter() < 0.8);
+        assertTrue(result.toString(), result.getAtvrAfter() < result.getAtvrBefore());
+        assertEquals(result.getAtvrAfter(), DAEVertexCacheOptimizer.getAtvr(result.getMesh().getIndices(),
+                indexed.getVertexCount(), 16), 1e-9);
+
+        // Vertices are numbered in first-use order
+        int[] optimized = result.getMesh().getIndices();
+        int next = 0;
+        for (int index : optimized) {
+            assertTrue(index <= next);
+            next = Math.max(next, index + 1);
+        }
+
+        // Same triangles with the same vertex data and winding
+        int stride = indexed.getVertexStride();
+        float[] before = indexed.getVertices();
+        float[] after = result.getMesh().getVertices();
+        Set<String> expected = new HashSet<>();
+        Set<String> actual = new HashSet<>();
+        for (int t = 0; t < shuffled.length / 3; t++) {
+            StringBuilder expectedTriangle = new StringBuilder();
+            StringBuilder actualTriangle = new StringBuilder();
+            for (int c = 0; c < 3; c++) {
+                expectedTriangle.append(Arrays.toString(Arrays.copyOfRange(before, shuffled[t * 3 + c] * stride,
+                        shuffled[t * 3 + c] * stride + stride)));
+                actualTriangle.append(Arrays.toString(Arrays.copyOfRange(after, optimized[t * 3 + c] * stride,
+                        optimized[t * 3 + c] * stride + stride)));
+            }
+            expected.add(expectedTriangle.toString());
+            actual.add(actualTriangle.toString());
+        }
+        assertEquals(expected, actual);
+
+        assertEquals(indexed.getTriangleCount(), mesh.buildOptimizedIndexedMesh().getTriangleCount());
+    }
+
+    @Test
+    public void testVertexQuantization() throws Exception {
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(2000);
+        DAEMesh mesh = DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        float[] vertices = mesh.buildIndexedMesh().getVertices();
+
+        DAEEncodedVertices compact = mesh.encodeVertexData(vertices, DAEVertexFormat.compact());
+        assertEquals(16, compact.getVertexSize());
+        assertEquals(vertices.length / 8, compact.getVertexCount());
+        assertEquals(compact.getDataSize(), compact.getData().remaining());
+        assertEquals(0, compact.getAttribute("VERTEX").getByteOffset());
+        assertEquals(8, compact.getAttribute("NORMAL").getByteOffset());
+        assertEquals(2, compact.getAttribute("NORMAL").getComponentCount());
+        assertEquals(12, compact.getAttribute("TEXCOORD").getByteOffset());
+
+        // Positions within half a quantization step of the bounds, unit normals within a small angle
+        DAEEncodedVertices.Attribute position = compact.getAttribute("VERTEX");
+        float[] decoded = compact.decode();
+        assertEquals(vertices.length, decoded.length);
+        for (int v = 0; v < vertices.length; v += 8) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(vertices[v + c], decoded[v + c], position.getScale()[c] / 65535 + 1e-6f);
+            }
+            double dot = vertices[v + 3] * decoded[v + 3] + vertices[v + 4] * decoded[v + 4]
+                    + vertices[v + 5] * decoded[v + 5];
+            assertTrue(dot > 0.99999);
+            assertEquals(vertices[v + 6], decoded[v + 6], Math.abs(vertices[v + 6]) / 1024 + 1e-7f);
+            assertEquals(vertices[v + 7], decoded[v + 7], Math.abs(vertices[v + 7]) / 1024 + 1e-7f);
+        }
+
+        // The default format keeps 32-bit floats
+        DAEEncodedVertices full = mesh.encodeVertexData(vertices, new DAEVertexFormat());
+        assertEquals(32, full.getVertexSize());
+        assertArrayEquals(vertices, full.decode(), 0f);
+
+        // Octahedral normals on both hemispheres, 8-bit
+        DAEMesh cube = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+        float[] cubeVertices = cube.getTriangulatedVertexData();
+        DAEVertexFormat format = new DAEVertexFormat();
+        format.setEncoding("VERTEX", DAEVertexFormat.Encoding.SNORM16);
+        format.setEncoding("NORMAL", DAEVertexFormat.Encoding.OCTAHEDRAL8);
+        DAEEncodedVertices encodedCube = cube.encodeVertexData(cubeVertices, format);
+        assertEquals(12, encodedCube.getVertexSize());
+        assertArrayEquals(cubeVertices, encodedCube.decode(), 1e-4f);
+
+        // Octahedral tangents keep the bitangent sign in w, with the other sign on every second vertex
+        DAEMesh tangentMesh = DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        assertTrue(tangentMesh.generateTangents());
+        float[] tangentVertices = tangentMesh.getTriangulatedVertexData();
+        int tangentStride = 12;
+        for (int v = tangentStride; v < tangentVertices.length; v += tangentStride * 2) {
+            tangentVertices[v + 11] = -tangentVertices[v + 11];
+        }
+        for (DAEVertexFormat.Encoding encoding : new DAEVertexFormat.Encoding[] {
+                DAEVertexFormat.Encoding.OCTAHEDRAL8, DAEVertexFormat.Encoding.OCTAHEDRAL16}) {
+            DAEVertexFormat tangentFormat = new DAEVertexFormat();
+            tangentFormat.setEncoding("TEXTANGENT", encoding);
+            DAEEncodedVertices encodedTangents = tangentMesh.encodeVertexData(tangentVertices, tangentFormat);
+            assertEquals(3, encodedTangents.getAttribute("TEXTANGENT").getComponentCount());
+            float[] decodedTangents = encodedTangents.decode();
+            for (int v = 0; v < tangentVertices.length; v += tangentStride) {
+                double dot = tangentVertices[v + 8] * decodedTangents[v + 8] + tangentVertices[v + 9] * decodedTangents[v + 9]
+                        + tangentVertices[v + 10] * decodedTangents[v + 10];
+                assertTrue(dot > 0.99);
+                assertEquals(tangentVertices[v + 11], decodedTangents[v + 11], 0f);
+            }
+        }
+
+        try {
+            format.setEncoding("TEXCOORD", DAEVertexFormat.Encoding.OCTAHEDRAL16);
+            mesh.encodeVertexData(vertices, format);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Texcoords have 2 components
+        }
+
+        assertEquals(0x3C00, DAEVertexEncoder.toHalf(1f));
+        assertEquals(0x7BFF, DAEVertexEncoder.toHalf(65504f));
+        assertEquals(0x7C00, DAEVertexEncoder.toHalf(65520f));
+        assertEquals(0x0001, DAEVertexEncoder.toHalf(0x1p-24f));
+        assertEquals((short) 0xC000, DAEVertexEncoder.toHalf(-2f));
+        assertEquals(0x3C00, DAEVertexEncoder.toHalf(1f + 0x1p-11f)); // Tie rounds to even
+        assertTrue(Float.isNaN(DAEVertexEncoder.toFloat(DAEVertexEncoder.toHalf(Float.NaN))));
+        assertEquals(0.333251953125f, DAEVertexEncoder.toFloat(DAEVertexEncoder.toHalf(1f / 3)), 0f);
+    }
+
+    @Test
+    public void testMeshSimplification() {
+        // 40 x 40 quad grid over a gentle bump, with a UV seam down column 20 and two primitive
+        // groups (lower and upper half) sharing the vertices of row 20
+        int size = 40;
+        int seam = size / 2;
+        int columns = size + 2; // Column 20 twice: left and right side of the seam
+        float[] vertices = new float[(size + 1) * columns * 5];
+        for (int row = 0; row <= size; row++) {
+            for (int column = 0; column < columns; column++) {
+                int x = column <= seam ? column : column - 1;
+                int v = (row * columns + column) * 5;
+                vertices[v] = x;
+                vertices[v + 1] = row;
+                vertices[v + 2] = (float) Math.sin(x * 0.15) * (float) Math.cos(row * 0.15) * 4;
+                vertices[v + 3] = column <= seam ? x / (float) seam : (x - seam) / (float) seam;
+                vertices[v + 4] = row / (float) size;
+            }
+        }
+        int[] indices = new int[size * size * 6];
+        int i = 0;
+        for (int row = 0; row < size; row++) {
+            for (int x = 0; x < size; x++) {
+                int left = row * columns + (x < seam ? x : x + 1);
+                int a = left;
+                int b = left + 1;
+                int c = left + columns;
+                int d = left + columns + 1;
+                indices[i++] = a;
+                indices[i++] = b;
+                indices[i++] = d;
+                indices[i++] = a;
+                indices[i++] = d;
+                indices[i++] = c;
+            }
+        }
+        List<DAEPrimitiveGroup> groups = new ArrayList<>();
+        for (int g = 0; g < 2; g++) {
+            DAEPrimitiveGroup group = new DAEPrimitiveGroup("triangles", g == 0 ? "Lower" : "Upper");
+            group.setFirstTriangle(g * size * size);
+            group.setTriangleCount(size * size);
+            groups.add(group);
+        }
+        DAEIndexedMesh mesh = new DAEIndexedMesh(vertices, 5, indices, groups);
+
+        DAEMeshSimplifier simplifier = new DAEMeshSimplifier();
+        simplifier.setLodRatios(0.1f, 0.5f, 0.25f);
+        List<DAEMeshSimplifier.Lod> lods = simplifier.buildLodChain(mesh);
+        assertEquals(3, lods.size());
+        assertEquals(0.5f, lods.get(0).getRatio(), 0f);
+        assertEquals(0.1f, lods.get(2).getRatio(), 0f);
+        float previousError = 0f;
+        for (DAEMeshSimplifier.Lod lod : lods) {
+            DAEIndexedMesh level = lod.getMesh();
+            assertSame(vertices, level.getVertices());
+            assertTrue(lod.toString(), lod.getTriangleCount() <= (int) (size * size * 2 * lod.getRatio()));
+            assertTrue(lod.toString(), lod.getTriangleCount() > 0);
+            assertTrue(lod.getError() >= previousError);
+            previousError = lod.getError();
+
+            int[] levelIndices = level.getIndices();
+            Set<Integer> used = new HashSet<>();
+            for (int t = 0; t < level.getTriangleCount(); t++) {
+                int side = 0;
+                float minY = Float.MAX_VALUE;
+                float maxY = -Float.MAX_VALUE;
+                for (int c = 0; c < 3; c++) {
+                    int vertex = levelIndices[t * 3 + c];
+                    used.add(vertex);
+                    // Never across the seam: all corners left of it or on its left copy, or all right
+                    int column = vertex % columns;
+                    int vertexSide = column < seam ? -1 : column > seam + 1 ? 1 : column == seam ? -2 : 2;
+                    if (Math.abs(vertexSide) == 1 || side == 0) {
+                        assertTrue(side == 0 || Integer.signum(side) == Integer.signum(vertexSide));
+                        side = vertexSide;
+                    }
+                    minY = Math.min(minY, vertices[vertex * 5 + 1]);
+                    maxY = Math.max(maxY, vertices[vertex * 5 + 1]);
+                }
+                assertTrue(Integer.signum(side) != 0);
+
+                // Never turned over: the grid faces +z (slivers along grid diagonals may be edge-on)
+                float[] p = new float[9];
+                for (int c = 0; c < 3; c++) {
+                    System.arraycopy(vertices, levelIndices[t * 3 + c] * 5, p, c * 3, 3);
+                }
+                float nz = (p[3] - p[0]) * (p[7] - p[1]) - (p[4] - p[1]) * (p[6] - p[0]);
+                assertTrue(nz >= 0);
+
+                // Groups keep their half of the grid
+                boolean lower = t < level.getPrimitiveGroups().get(1).getFirstTriangle();
+                assertTrue(lower ? maxY <= seam : minY >= seam);
+            }
+
+            // Group ranges cover the level; mesh corners are kept
+            assertEquals(2, level.getPrimitiveGroups().size());
+            assertEquals("Upper", level.getPrimitiveGroups().get(1).getMaterial());
+            assertEquals(level.getTriangleCount(), level.getPrimitiveGroups().get(0).getTriangleCount()
+                    + level.getPrimitiveGroups().get(1).getTriangleCount());
+            assertTrue(used.contains(0));
+            assertTrue(used.contains(columns - 1));
+            assertTrue(used.contains(size * columns));
+            assertTrue(used.contains(size * columns + columns - 1));
+        }
+
+        // An error limit stops early
+        simplifier.setMaxError(1e-6f);
+        DAEMeshSimplifier.Lod limited = simplifier.simplify(mesh, 0.1f);
+        assertTrue(limited.getTriangleCount() > lods.get(2).getTriangleCount());
+        assertTrue(limited.getError() <= 1e-6f);
+    }
+
+    @Test
+    public void testNormalAndTangentGeneration() throws Exception {
+        DAEMesh cube = DAEParser.parse(getClass().getResourceAsStream("/cube.dae")).getGeometries().get(0).getMesh();
+        assertFalse(cube.generateNormals());
+        assertFalse(cube.generateTangents());
+
+        DAEGenerator generator = new DAEGenerator();
+        generator.setTriangleCount(5000);
+        float[] expected = DAEParser.parse(new ByteArrayInputStream(generator.generate().getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh().getTriangulatedNormals();
+        generator.setNormals(false);
+        String xml = generator.generate();
+        DAEMesh mesh = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        int triangles = mesh.getIndexedTriangleCount();
+
+        // Normals close to the analytic normals of the wave the generator writes
+        DAETangentSpaceGenerator areaWeighted = new DAETangentSpaceGenerator();
+        areaWeighted.setNormalWeighting(DAETangentSpaceGenerator.NormalWeighting.AREA);
+        for (DAETangentSpaceGenerator normalGenerator : new DAETangentSpaceGenerator[] {areaWeighted, null}) {
+            DAEMesh smooth = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                    .getGeometries().get(0).getMesh();
+            assertTrue(normalGenerator != null ? normalGenerator.generateNormals(smooth) : smooth.generateNormals());
+            float[] normals = smooth.getTriangulatedNormals();
+            assertEquals(expected.length, normals.length);
+            for (int i = 0; i < normals.length; i += 3) {
+                float dot = normals[i] * expected[i] + normals[i + 1] * expected[i + 1] + normals[i + 2] * expected[i + 2];
+                assertTrue(dot > 0.99f);
+            }
+        }
+
+        assertTrue(mesh.generateTangents());
+        assertFalse(mesh.generateTangents());
+        assertEquals(triangles, mesh.getIndexedTriangleCount());
+
+        // The primitive group describes the extended corners too, so the binary format keeps them
+        DAEPrimitiveGroup group = mesh.getPrimitiveGroups().get(0);
+        assertEquals(mesh.getIndexStride(), group.getIndexStride());
+        assertEquals(mesh.getInputOffsets(), group.getInputOffsets());
+        assertEquals(mesh.getInputOffsets().get("VERTEX"), group.getInputOffsets().get("NORMAL"));
+        assertEquals(mesh.getInputSemantics().get("TEXTANGENT"), group.getInputSemantics().get("TEXTANGENT"));
+        DAEDocument tangentDocument = new DAEDocument();
+        DAEGeometry tangentGeometry = new DAEGeometry();
+        tangentGeometry.setMesh(mesh);
+        tangentDocument.addGeometry(tangentGeometry);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        DAEBinaryWriter.write(tangentDocument, binary);
+        DAEPrimitiveGroup read = DAEBinaryReader.read(ByteBuffer.wrap(binary.toByteArray()))
+                .getGeometries().get(0).getMesh().getPrimitiveGroups().get(0);
+        assertEquals(group.getIndexStride(), read.getIndexStride());
+        assertEquals(group.getInputOffsets(), read.getInputOffsets());
+        float[] vertices = mesh.getTriangulatedVertexData();
+        assertEquals(triangles * 3 * 12, vertices.length);
+        for (int v = 0; v < vertices.length; v += 12) {
+            float nx = vertices[v + 3];
+            float ny = vertices[v + 4];
+            float nz = vertices[v + 5];
+            float tx = vertices[v + 8];
+            float ty = vertices[v + 9];
+            float tz = vertices[v + 10];
+            assertEquals(1f, tx * tx + ty * ty + tz * tz, 1e-4f);
+            assertEquals(0f, nx * tx + ny * ty + nz * tz, 1e-4f);
+            assertTrue(nz > 0.5f);
+            // u grows along +x over the wave
+            assertTrue(tx > 0.5f);
+            assertEquals(1f, vertices[v + 11], 0f);
+        }
+        assertArrayEquals(mesh.getTriangulatedAttributes("TEXTANGENT")[0], mesh.getTriangulatedTangents(), 0f);
+
+        // Mirrored UVs flip the bitangent sign; a small chunk size on another pool gives the same result
+        DAEMesh mirrored = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        DAEMesh split = DAEParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+                .getGeometries().get(0).getMesh();
+        DAESource texcoordSource = mirrored.getLayout().getAttribute("TEXCOORD").getSource();
+        float[] texcoords = texcoordSource.getDataAsArray();
+        for (int i = 0; i < texcoords.length; i += 2) {
+            texcoords[i] = -texcoords[i];
+        }
+        texcoordSource.setData(texcoords);
+        mirrored.invalidateLayout();
+        assertTrue(mirrored.generateTangents());
+        float[] tangents = mirrored.getTriangulatedTangents();
+        for (int i = 0; i < tangents.length; i += 4) {
+            assertTrue(tangents[i] < -0.5f);
+            assertEquals(-1f, tangents[i + 3], 0f);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DAETangentSpaceGenerator parallel = new DAETangentSpaceGenerator();
+            parallel.setPool(pool);
+            parallel.setChunkSize(64);
+            assertTrue(parallel.generateTangents(split));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(vertices, split.getTriangulatedVertexData(), 0f);
+        for (int i = -1000; i <= 1000; i++) {
+            assertEquals(Math.acos(i / 1000.0), DAETangentSpaceGenerator.acos(i / 1000.0), 1e-7);
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void assertDocumentsEqual(String fixture, DAEDocument expected, DAEDocument actual) {
+        assertEquals(fixture + " version", expected.getVersion(), actual.getVersion());
+
+        assertEquals(fixture + " geometry count", expected.getGeometries().size(), actual.getGeometries().size());
+        for (int i = 0; i < expected.getGeometries().size(); i++) {
+            DAEGeometry e = expected.getGeometries().get(i);
+            DAEGeometry a = actual.getGeometries().get(i);
+            assertEquals(fixture + " geometry id", e.getId(), a.getId());
+            assertEquals(fixture + " geometry name", e.getName(), a.getName());
+            assertMeshesEqual(fixture, e.getMesh(), a.getMesh());
+        }
+
+        assertEquals(fixture + " material count", expected.getMaterials().size(), actual.getMaterials().size());
+        for (int i = 0; i < expected.getMaterials().size(); i++) {
+            DAEMaterial e = expected.getMaterials().get(i);
+            DAEMaterial a = actual.getMaterials().get(i);
+            assertEquals(fixture + " material id", e.getId(), a.getId());
+            assertEquals(fixture + " material name", e.getName(), a.getName());
+            assertEquals(fixture + " material effect", e.getTextureId(), a.getTextureId());
+        }
+
+        assertEquals(fixture + " animation count", expected.getAnimations().size(), actual.getAnimations().size());
+        for (int i = 0; i < expected.getAnimations().size(); i++) {
+            DAEAnimation e = expected.getAnimations().get(i);
+            DAEAnimation a = actual.getAnimations().get(i);
+            assertEquals(fixture + " animation id", e.getId(), a.getId());
+            assertSourcesEqual(fixture, e.getSources(), a.getSources());
+            assertEquals(fixture + " sampler count", e.getSamplers().size(), a.getSamplers().size());
+            for (int j = 0; j < e.getSamplers().size(); j++) {
+                assertEquals(fixture + " sampler id", e.getSamplers().get(j).getId(), a.getSamplers().get(j).getId());
+                assertEquals(fixture + " sampler inputs", e.getSamplers().get(j).getInputs(), a.getSamplers().get(j).getInputs());
+            }
+            assertEquals(fixture + " channel count", e.getChannels().size(), a.getChannels().size());
+            for (int j = 0; j < e.getChannels().size(); j++) {
+                assertEquals(fixture + " channel source", e.getChannels().get(j).getSource(), a.getChannels().get(j).getSource());
+                assertEquals(fixture + " channel target", e.getChannels().get(j).getTarget(), a.getChannels().get(j).getTarget());
+            }
+        }
+
+        assertEquals(fixture + " controller count", expected.getControllers().size(), actual.getControllers().size());
+        for (int i = 0; i < expected.getControllers().size(); i++) {
+            DAEController e = expected.getControllers().get(i);
+            DAEController a = actual.getControllers().get(i);
+            assertEquals(fixture + " controller id", e.getId(), a.getId());
+            DAESkin es = e.getSkin();
+            DAESkin as = a.getSkin();
+            assertEquals(fixture + " skin source", es.getSource(), as.getSource());
+            assertArrayEquals(fixture + " bind shape", es.getBindShapeMatrix(), as.getBindShapeMatrix(), 0f);
+            assertEquals(fixture + " joint names", es.getJointNames(), as.getJointNames());
+            assertArrayEquals(fixture + " inverse binds", es.getInverseBindMatrices(), as.getInverseBindMatrices(), 0f);
+            assertArrayEquals(fixture + " weights", es.getWeights(), as.getWeights(), 0f);
+            assertEquals(fixture + " max influences", es.getMaxJointInfluences(), as.getMaxJointInfluences());
+            assertEquals(fixture + " vertex weight count", es.getVertexWeights().size(), as.getVertexWeights().size());
+            for (int j = 0; j < es.getVertexWeights().size(); j++) {
+                assertArrayEquals(fixture + " vertex weight", es.getVertexWeights().get(j), as.getVertexWeights().get(j));
+            }
+            assertSourcesEqual(fixture, es.getSources(), as.getSources());
+        }
+
+        if (expected.getScene() == null) {
+            assertNull(fixture + " scene", actual.getScene());
+        } else {
+            assertEquals(fixture + " scene id", expected.getScene().getId(), actual.getScene().getId());
+            assertNodesEqual(fixture, expected.getScene().getNodes(), actual.getScene().getNodes());
+        }
+    }
+
+    private static void assertMeshesEqual(String fixture, DAEMesh expected, DAEMesh actual) {
+        assertEquals(fixture + " triangle count", expected.getTriangleCount(), actual.getTriangleCount());
+        assertEquals(fixture + " vertices id", expected.getVerticesId(), actual.getVerticesId());
+        assertEquals(fixture + " input semantics", expected.getInputSemantics(), actual.getInputSemantics());
+        assertEquals(fixture + " input offsets", expected.getInputOffsets(), actual.getInputOffsets());
+        assertSourcesEqual(fixture, expected.getSources(), actual.getSources());
+        assertEquals(fixture + " primitive groups", expected.getPrimitiveGroups().size(), actual.getPrimitiveGroups().size());
+        for (int i = 0; i < expected.getPrimitiveGroups().size(); i++) {
+            DAEPrimitiveGroup expectedGroup = expected.getPrimitiveGroups().get(i);
+            DAEPrimitiveGroup actualGroup = actual.getPrimitiveGroups().get(i);
+            assertEquals(fixture + " group material", expectedGroup.getMaterial(), actualGroup.getMaterial());
+            assertEquals(fixture + " group start", expectedGroup.getFirstTriangle(), actualGroup.getFirstTriangle());
+            assertEquals(fixture + " group triangles", expectedGroup.getTriangleCount(), actualGroup.getTriangleCount());
+        }
+        assertTrue(fixture + " vertex data",
+                Arrays.equals(expected.getTriangulatedVertexData(), actual.getTriangulatedVertexData()));
+    }
+
+    private static void assertSourcesEqual(String fixture, List<DAESource> expected, List<DAESource> actual) {
+        assertEquals(fixture + " source count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DAESource e = expected.get(i);
+            DAESource a = actual.get(i);
+            assertEquals(fixture + " source id", e.getId(), a.getId());
+            assertEquals(fixture + " source stride", e.getStride(), a.getStride());
+            assertEquals(fixture + " source count", e.getCount(), a.getCount());
+            assertArrayEquals(fixture + " source data", e.getDataAsArray(), a.getDataAsArray(), 0f);
+            assertEquals(fixture + " source names", e.getNames(), a.getNames());
+        }
+    }
+
+    private static void assertNodesEqual(String fixture, List<DAENode> expected, List<DAENode> actual) {
+        assertEquals(fixture + " node count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DAENode e = expected.get(i);
+            DAENode a = actual.get(i);
+            assertEquals(fixture + " node id", e.getId(), a.getId());
+            assertEquals(fixture + " node type", e.getType(), a.getType());
+            assertArrayEquals(fixture + " node matrix", e.getTransformation(), a.getTransformation(), 0f);
+            assertEquals(fixture + " geometry ref", e.getGeometryRef(), a.getGeometryRef());
+            assertEquals(fixture + " controller ref", e.getControllerRef(), a.getControllerRef());
+            assertEquals(fixture + " skeleton refs", e.getSkeletonRefs(), a.getSkeletonRefs());
+            assertNodesEqual(fixture, e.getChildren(), a.getChildren());
+        }
+    }
 }